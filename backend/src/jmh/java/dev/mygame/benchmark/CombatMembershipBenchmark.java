@@ -0,0 +1,166 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.domain.event.CombatEventListener;
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.session.CombatInstance;
+import dev.mygame.domain.session.IntHashSet;
+import dev.mygame.enums.CombatOutcome;
+import dev.mygame.enums.EntityStateType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость операций над составом боя на 50 участниках: добавление участников в идущий бой,
+ * получение живых участников и проверка членства. Для сравнения - проверка членства
+ * в прежнем {@code HashSet<Entity>}, где каждый вызов считает Lombok-хэш всей сущности.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=CombatMembershipBenchmark}.
+ * Для оценки мусора добавьте профайлер {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombatMembershipBenchmark {
+    private static final int PARTICIPANTS = 50;
+    private static final int TEAMS = 5;
+
+    private Entity[] entitiesByHandle;
+    private List<Entity> initialParticipants;
+    private List<Entity> joiningParticipants;
+    private CombatEventListener listener;
+
+    private CombatInstance fullCombat;
+    private IntHashSet handleSet;
+    private Set<Entity> legacyEntitySet;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(3);
+        entitiesByHandle = new Entity[PARTICIPANTS];
+        initialParticipants = new ArrayList<>();
+        joiningParticipants = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            Monster monster = Monster.builder()
+                    .id("monster-" + i)
+                    .name("Monster " + i)
+                    .position(new Hex(random.nextInt(32), random.nextInt(32)))
+                    .currentHp(20)
+                    .maxHp(20)
+                    .initiative(random.nextInt(20))
+                    .teamId("team-" + (i % TEAMS))
+                    .abilities(new ArrayList<>())
+                    .state(EntityStateType.EXPLORING)
+                    .build();
+            monster.setHandle(i + 1);
+            entitiesByHandle[i] = monster;
+            (i < PARTICIPANTS / 2 ? initialParticipants : joiningParticipants).add(monster);
+        }
+        listener = new BenchmarkListener(entitiesByHandle);
+
+        List<Entity> all = new ArrayList<>(initialParticipants);
+        all.addAll(joiningParticipants);
+        fullCombat = new CombatInstance("bench-full", all, null, 0, listener);
+        handleSet = new IntHashSet();
+        legacyEntitySet = new HashSet<>();
+        for (Entity entity : all) {
+            handleSet.add(entity.getHandle());
+            legacyEntitySet.add(entity);
+        }
+    }
+
+    /**
+     * Сброс подписок между вызовами: каждый созданный в бенчмарке бой подписывается на смерть
+     * участников. Отдельное состояние, чтобы сброс не замедлял остальные бенчмарки.
+     */
+    @State(Scope.Thread)
+    public static class JoinState {
+        @Setup(Level.Invocation)
+        public void resetDeathListeners(CombatMembershipBenchmark benchmark) {
+            for (Entity entity : benchmark.entitiesByHandle) {
+                entity.getDeathListener().clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public CombatInstance addParticipantsToCombat(JoinState joinState) {
+        CombatInstance combat = new CombatInstance("bench-join", initialParticipants, null, 0, listener);
+        combat.addParticipantsToCombat(joiningParticipants);
+        return combat;
+    }
+
+    @Benchmark
+    public List<Entity> getAliveEntities() {
+        return fullCombat.getAliveEntities();
+    }
+
+    @Benchmark
+    public boolean handleSetContains() {
+        return handleSet.contains(nextEntity().getHandle());
+    }
+
+    @Benchmark
+    public boolean legacyEntitySetContains() {
+        return legacyEntitySet.contains(nextEntity());
+    }
+
+    private Entity nextEntity() {
+        int i = probe;
+        probe = (i + 1) % PARTICIPANTS;
+        return entitiesByHandle[i];
+    }
+
+    /**
+     * Минимальная сессия: сущности по дескриптору, события игнорируются.
+     */
+    private static final class BenchmarkListener implements CombatEventListener {
+        private final Entity[] entitiesByHandle;
+
+        BenchmarkListener(Entity[] entitiesByHandle) {
+            this.entitiesByHandle = entitiesByHandle;
+        }
+
+        @Override
+        public Entity getEntityById(String id) {
+            for (Entity entity : entitiesByHandle) {
+                if (entity.getId().equals(id)) {
+                    return entity;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Entity getEntityByHandle(int handle) {
+            return handle > 0 && handle <= entitiesByHandle.length ? entitiesByHandle[handle - 1] : null;
+        }
+
+        @Override
+        public void scheduleAiTurn(String monsterId) {
+        }
+
+        @Override
+        public void scheduleTurnSkip(String playerId) {
+        }
+
+        @Override
+        public void onCombatEvent(Object event) {
+        }
+
+        @Override
+        public void onCombatEnded(String combatId, CombatOutcome outcome, String winningTeamId, List<Entity> allParticipants) {
+        }
+    }
+}
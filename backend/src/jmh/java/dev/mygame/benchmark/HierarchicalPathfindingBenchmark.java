@@ -0,0 +1,96 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.HierarchicalPathGraph;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.HexPathfinder;
+import dev.mygame.service.MapGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение дальних запросов пути на больших сгенерированных подземельях (~100 тыс. тайлов):
+ * обычный A* по всем клеткам ({@link HexPathfinder}) против иерархического поиска
+ * по графу кластеров и порталов ({@link HierarchicalPathGraph}).
+ * <p>
+ * При инициализации в stdout печатается время построения графа и его размер.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=HierarchicalPathfindingBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchicalPathfindingBenchmark {
+    private static final int QUERIES = 64;
+    private static final int MAP_SIZE = 320;
+
+    @Param({"8", "16", "32"})
+    public int clusterSize;
+
+    private GameMapHex map;
+    private HierarchicalPathGraph graph;
+    private Hex[] starts;
+    private Hex[] ends;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PathfindingProperties properties = new PathfindingProperties();
+        properties.setClusterSize(0);
+        map = new MapGenerator(properties).generateRoomDungeon(MAP_SIZE, MAP_SIZE, 150, 6, 20, 1L);
+
+        long buildStart = System.nanoTime();
+        graph = HierarchicalPathGraph.build(map, clusterSize, 0);
+        long buildMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - buildStart);
+        map.setPathGraph(graph);
+        System.out.printf("%n[cluster=%d] tiles=%d clusters=%d nodes=%d edges=%d build=%d us%n",
+                clusterSize, map.getTileCount(), graph.getClusterCount(), graph.getNodeCount(),
+                graph.getEdgeCount(), buildMicros);
+
+        List<Hex> floor = new ArrayList<>();
+        for (int index = 0; index < map.getCellCount(); index++) {
+            if (map.isPassable(index)) {
+                floor.add(new Hex(map.qOfIndex(index), map.rOfIndex(index)));
+            }
+        }
+        // только дальние запросы: именно для них предназначен иерархический поиск
+        Random random = new Random(3);
+        starts = new Hex[QUERIES];
+        ends = new Hex[QUERIES];
+        for (int i = 0; i < QUERIES; ) {
+            Hex start = floor.get(random.nextInt(floor.size()));
+            Hex end = floor.get(random.nextInt(floor.size()));
+            if (start.distanceTo(end) >= MAP_SIZE / 2) {
+                starts[i] = start;
+                ends[i] = end;
+                i++;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Hex> flatFindPath() {
+        int i = nextQuery();
+        return HexPathfinder.findPath(map, starts[i], ends[i]);
+    }
+
+    @Benchmark
+    public List<Hex> hierarchicalFindPath() {
+        int i = nextQuery();
+        return graph.findPath(map, starts[i], ends[i]);
+    }
+
+    private int nextQuery() {
+        int i = query;
+        query = (i + 1) % QUERIES;
+        return i;
+    }
+}
@@ -0,0 +1,105 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+
+import java.util.*;
+
+/**
+ * Копия прежней реализации {@code GameMapHex.findPath} (A* на {@code HashMap<Hex, AStarNode>}
+ * и {@code PriorityQueue}, занятость - из коллекции сущностей) для сравнения в
+ * {@link PathfindingBenchmark}. В основном коде не используется.
+ */
+final class LegacyPathfinder {
+    private LegacyPathfinder() {
+    }
+
+    static List<Hex> findPath(GameMapHex map, Hex start, Hex end, Collection<Entity> otherEntities, String startEntityId) {
+        if (!map.hasTile(start.getQ(), start.getR())) {
+            return new ArrayList<>();
+        }
+        if (!map.isPassable(end.getQ(), end.getR())) {
+            return new ArrayList<>();
+        }
+        if (start.equals(end)) {
+            return Collections.singletonList(start);
+        }
+
+        long[] occupiedKeys = otherEntities.stream()
+                .filter(e -> !e.getId().equals(startEntityId))
+                .map(Entity::getPosition)
+                .filter(Objects::nonNull)
+                .mapToLong(Hex::toKey)
+                .sorted()
+                .toArray();
+        int endQ = end.getQ();
+        int endR = end.getR();
+
+        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingInt(node -> node.fCost));
+        Map<Hex, Node> allNodes = new HashMap<>();
+
+        Node startNode = new Node(start, null, 0, start.distanceTo(end));
+        openSet.add(startNode);
+        allNodes.put(start, startNode);
+
+        while (!openSet.isEmpty()) {
+            Node currentNode = openSet.poll();
+            Hex currentHex = currentNode.hex;
+
+            if (currentHex.equals(end)) {
+                return reconstructPath(currentNode);
+            }
+            if (currentNode.gCost > allNodes.get(currentHex).gCost) {
+                continue;
+            }
+
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                int neighborQ = Hex.neighborQ(currentHex.getQ(), direction);
+                int neighborR = Hex.neighborR(currentHex.getR(), direction);
+
+                if (!map.isPassable(neighborQ, neighborR)) {
+                    continue;
+                }
+                boolean isEnd = neighborQ == endQ && neighborR == endR;
+                if (!isEnd && Arrays.binarySearch(occupiedKeys, Hex.pack(neighborQ, neighborR)) >= 0) {
+                    continue;
+                }
+
+                Hex neighborHex = new Hex(neighborQ, neighborR);
+                int newGCost = currentNode.gCost + 1;
+                Node neighborNode = allNodes.get(neighborHex);
+                if (neighborNode == null || newGCost < neighborNode.gCost) {
+                    int hCost = Hex.distance(neighborQ, neighborR, endQ, endR);
+                    Node newNode = new Node(neighborHex, currentNode, newGCost, hCost);
+                    allNodes.put(neighborHex, newNode);
+                    openSet.add(newNode);
+                }
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private static List<Hex> reconstructPath(Node node) {
+        List<Hex> path = new ArrayList<>();
+        for (Node current = node; current != null; current = current.parent) {
+            path.add(current.hex);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static final class Node {
+        final Hex hex;
+        final Node parent;
+        final int gCost;
+        final int fCost;
+
+        Node(Hex hex, Node parent, int gCost, int hCost) {
+            this.hex = hex;
+            this.parent = parent;
+            this.gCost = gCost;
+            this.fCost = gCost + hCost;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.config.VisibilityProperties;
+import dev.mygame.data.MapLoader;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.Tile;
+import dev.mygame.enums.TileType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Сравнение хранения тайлов карты: прежний {@code HashMap<Hex, Tile>} против плотных
+ * массивов {@link GameMapHex}. Замеряется стоимость проверки проходимости клетки
+ * (то, что A* делает для каждого соседа) на загруженном подземелье и на
+ * сгенерированной карте 512x512.
+ * <p>
+ * При инициализации в stdout печатается оценка занимаемой памяти обоими вариантами.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=MapTileStorageBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapTileStorageBenchmark {
+    private static final int LOOKUPS = 1024;
+    private static final int GENERATED_SIZE = 512;
+
+    @Param({"dungeon", "generated512"})
+    public String mapKind;
+
+    private GameMapHex denseMap;
+    private Map<Hex, Tile> hashMap;
+    private int[] queryQ;
+    private int[] queryR;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Supplier<GameMapHex> denseFactory = "dungeon".equals(mapKind)
+                ? MapTileStorageBenchmark::loadDungeon
+                : MapTileStorageBenchmark::generateMap;
+
+        long denseBytes = retainedBytes(denseFactory);
+        denseMap = denseFactory.get();
+        long hashBytes = retainedBytes(() -> toHashMap(denseMap));
+        hashMap = toHashMap(denseMap);
+        System.out.printf("%n[%s] tiles=%d cells=%d dense=%d KiB hashMap=%d KiB%n",
+                mapKind, denseMap.getTileCount(), denseMap.getCellCount(), denseBytes / 1024, hashBytes / 1024);
+
+        // координаты запросов: клетки карты и их соседи, в том числе за пределами карты
+        Random random = new Random(42);
+        queryQ = new int[LOOKUPS];
+        queryR = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            queryQ[i] = denseMap.getMinQ() - 1 + random.nextInt(denseMap.getWidth() + 2);
+            queryR[i] = denseMap.getMinR() - 1 + random.nextInt(denseMap.getHeight() + 2);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void hashMapIsPassable(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Tile tile = hashMap.get(new Hex(queryQ[i], queryR[i]));
+            blackhole.consume(tile != null && tile.isPassable());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void denseGetTileIsPassable(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            Tile tile = denseMap.getTile(new Hex(queryQ[i], queryR[i]));
+            blackhole.consume(tile != null && tile.isPassable());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void denseIndexIsPassable(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(denseMap.isPassable(queryQ[i], queryR[i]));
+        }
+    }
+
+    private static GameMapHex loadDungeon() {
+        // только тайлы: граф иерархического поиска и поле зрения в сравнение памяти не входят
+        PathfindingProperties properties = new PathfindingProperties();
+        properties.setClusterSize(0);
+        VisibilityProperties visibility = new VisibilityProperties();
+        visibility.setRadius(0);
+        try {
+            return new MapLoader(properties, visibility).loadMapFromFile("gamedata/maps/dungeon_level_1.txt");
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static GameMapHex generateMap() {
+        Random random = new Random(7);
+        GameMapHex map = GameMapHex.builder()
+                .minQ(-GENERATED_SIZE / 2)
+                .minR(0)
+                .width(GENERATED_SIZE + GENERATED_SIZE / 2)
+                .height(GENERATED_SIZE)
+                .build();
+        // прямоугольник в "offset"-координатах, как его задают текстовые карты
+        for (int row = 0; row < GENERATED_SIZE; row++) {
+            for (int col = 0; col < GENERATED_SIZE; col++) {
+                TileType type = random.nextInt(10) < 2 ? TileType.WALL : TileType.FLOOR;
+                map.setTileType(col - row / 2, row, type);
+            }
+        }
+        return map;
+    }
+
+    private static Map<Hex, Tile> toHashMap(GameMapHex map) {
+        Map<Hex, Tile> tiles = new HashMap<>();
+        for (Map.Entry<Hex, Tile> entry : map.getTileEntries()) {
+            tiles.put(entry.getKey(), new Tile(entry.getValue().getType(), null));
+        }
+        return tiles;
+    }
+
+    /**
+     * Грубая оценка памяти, удерживаемой результатом фабрики: разница занятой кучи после GC.
+     */
+    private static <T> long retainedBytes(Supplier<T> factory) {
+        Runtime runtime = Runtime.getRuntime();
+        forceGc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        T value = factory.get();
+        forceGc();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        // значение должно оставаться достижимым до второго замера
+        Reference.reachabilityFence(value);
+        return Math.max(0, after - before);
+    }
+
+    private static void forceGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.config.VisibilityProperties;
+import dev.mygame.data.MapLoader;
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.HexPathfinder;
+import dev.mygame.enums.TileType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение поиска пути: прежний A* на объектах ({@link LegacyPathfinder}) против
+ * {@link HexPathfinder} на индексах клеток с переиспользуемыми буферами.
+ * <p>
+ * На карте расставляются сущности, которые занимают клетки; прежняя реализация
+ * получает их коллекцией, новая - читает занятость из карты.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=PathfindingBenchmark}.
+ * Для оценки мусора добавьте профайлер {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathfindingBenchmark {
+    private static final int QUERIES = 64;
+    private static final int ENTITIES = 40;
+
+    @Param({"dungeon", "generated128"})
+    public String mapKind;
+
+    private GameMapHex map;
+    private List<Entity> entities;
+    private Hex[] starts;
+    private Hex[] ends;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        map = "dungeon".equals(mapKind)
+                ? new MapLoader(new PathfindingProperties(), new VisibilityProperties()).loadMapFromFile("gamedata/maps/dungeon_level_1.txt")
+                : generateMap(128);
+
+        Random random = new Random(11);
+        List<Hex> passable = new ArrayList<>();
+        for (int index = 0; index < map.getCellCount(); index++) {
+            if (map.isPassable(index)) {
+                passable.add(new Hex(map.qOfIndex(index), map.rOfIndex(index)));
+            }
+        }
+
+        entities = new ArrayList<>();
+        for (int i = 0; i < ENTITIES; i++) {
+            Hex position = passable.get(random.nextInt(passable.size()));
+            Monster monster = Monster.builder()
+                    .id("monster-" + i)
+                    .position(position)
+                    .build();
+            entities.add(monster);
+            map.setOccupantId(position.getQ(), position.getR(), monster.getId());
+        }
+
+        starts = new Hex[QUERIES];
+        ends = new Hex[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = passable.get(random.nextInt(passable.size()));
+            ends[i] = passable.get(random.nextInt(passable.size()));
+        }
+    }
+
+    @Benchmark
+    public List<Hex> legacyFindPath() {
+        int i = nextQuery();
+        return LegacyPathfinder.findPath(map, starts[i], ends[i], entities, "self");
+    }
+
+    @Benchmark
+    public List<Hex> indexedFindPath() {
+        int i = nextQuery();
+        return HexPathfinder.findPath(map, starts[i], ends[i]);
+    }
+
+    private int nextQuery() {
+        int i = query;
+        query = (i + 1) % QUERIES;
+        return i;
+    }
+
+    private static GameMapHex generateMap(int size) {
+        Random random = new Random(5);
+        GameMapHex map = GameMapHex.builder()
+                .minQ(-size / 2)
+                .minR(0)
+                .width(size + size / 2)
+                .height(size)
+                .build();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                TileType type = random.nextInt(10) < 2 ? TileType.WALL : TileType.FLOOR;
+                map.setTileType(col - row / 2, row, type);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,115 @@
+package dev.mygame.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочное сравнение задержки обработки действий игроков во входящем STOMP-канале:
+ * пул платформенных потоков (как в конфигурации Spring по умолчанию) против виртуальных потоков.
+ * <p>
+ * В фоне непрерывно приходят "медленные" сообщения (имитация сборки полного состояния
+ * сессии с блокирующей отправкой), а бенчмарк измеряет время обработки быстрого действия игрока.
+ * Режим {@link Mode#SampleTime} выводит перцентили, в том числе p99.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=StompChannelLatencyBenchmark}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StompChannelLatencyBenchmark {
+    private static final String SLOW_HANDLER = "slow";
+
+    @Param({"platform", "virtual"})
+    public String executorType;
+
+    /** Сколько миллисекунд блокируется медленный обработчик. */
+    @Param({"50"})
+    public int slowHandlerMillis;
+
+    /** Интервал между медленными сообщениями в фоне, мкс. */
+    @Param({"500"})
+    public int slowMessageIntervalMicros;
+
+    private ThreadPoolTaskExecutor platformExecutor;
+    private SimpleAsyncTaskExecutor virtualExecutor;
+    private ExecutorSubscribableChannel inboundChannel;
+    private Thread backgroundLoad;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Executor executor;
+        if ("virtual".equals(executorType)) {
+            virtualExecutor = new SimpleAsyncTaskExecutor("bench-inbound-");
+            virtualExecutor.setVirtualThreads(true);
+            executor = virtualExecutor;
+        } else {
+            // так Spring настраивает clientInboundChannel по умолчанию
+            platformExecutor = new ThreadPoolTaskExecutor();
+            platformExecutor.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+            platformExecutor.setAllowCoreThreadTimeOut(true);
+            platformExecutor.setThreadNamePrefix("bench-inbound-");
+            platformExecutor.initialize();
+            executor = platformExecutor;
+        }
+
+        inboundChannel = new ExecutorSubscribableChannel(executor);
+        inboundChannel.subscribe(this::handleMessage);
+
+        running = true;
+        backgroundLoad = new Thread(() -> {
+            Message<String> slowMessage = MessageBuilder.withPayload(SLOW_HANDLER).build();
+            while (running) {
+                inboundChannel.send(slowMessage);
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(slowMessageIntervalMicros));
+            }
+        }, "bench-slow-load");
+        backgroundLoad.setDaemon(true);
+        backgroundLoad.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        backgroundLoad.join();
+        if (platformExecutor != null) {
+            platformExecutor.shutdown();
+        }
+        if (virtualExecutor != null) {
+            virtualExecutor.close();
+        }
+    }
+
+    @Benchmark
+    public Object playerActionLatency() throws Exception {
+        CompletableFuture<Object> handled = new CompletableFuture<>();
+        inboundChannel.send(MessageBuilder.withPayload(handled).build());
+        return handled.get(10, TimeUnit.SECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleMessage(Message<?> message) {
+        Object payload = message.getPayload();
+        if (SLOW_HANDLER.equals(payload)) {
+            try {
+                Thread.sleep(slowHandlerMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        ((CompletableFuture<Object>) payload).complete(Boolean.TRUE);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.mygame.benchmark;
+
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение стоимости постановки и отмены игрового таймера:
+ * {@link HashedWheelTimer} против {@link ScheduledThreadPoolExecutor}
+ * при разном количестве уже ожидающих таймеров.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=TimerScheduleBenchmark}.
+ * Для оценки мусора добавьте профайлер {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimerScheduleBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"1000", "10000", "100000"})
+    public int pendingTimers;
+
+    private HashedWheelTimer wheelTimer;
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheelTimer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512, "bench-wheel-timer");
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+
+        // фоновая нагрузка: таймеры, которые не успеют сработать за время бенчмарка
+        for (int i = 0; i < pendingTimers; i++) {
+            long delay = TimeUnit.HOURS.toMillis(1) + i;
+            wheelTimer.newTimeout(NOOP, delay, TimeUnit.MILLISECONDS);
+            executor.schedule(NOOP, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheelTimer.stop();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean wheelTimerScheduleAndCancel() {
+        HashedWheelTimer.Timeout timeout = wheelTimer.newTimeout(NOOP, randomDelayMs(), TimeUnit.MILLISECONDS);
+        return timeout.cancel();
+    }
+
+    @Benchmark
+    public boolean scheduledExecutorScheduleAndCancel() {
+        ScheduledFuture<?> future = executor.schedule(NOOP, randomDelayMs(), TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    private static long randomDelayMs() {
+        // типичные игровые задержки: от шага AI (500 мс) до минуты
+        return ThreadLocalRandom.current().nextLong(500, 60_000);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.mygame.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.dto.websocket.event.*;
+import dev.mygame.dto.websocket.response.AbilityCooldownDto;
+import dev.mygame.service.codec.WireProtocolCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Размер и скорость кодирования событий сессии: JSON (как сейчас уходит в топик обновлений)
+ * против двоичного протокола {@link WireProtocolCodec}.
+ * <p>
+ * Журнал боя 4 игроков против 4 монстров: каждый ход - смена хода, перемещение по пути,
+ * атака, обновление характеристик цели, состояние заклинателя, применение способности и конец хода.
+ * События одного хода кодируются одним кадром, как их отправляет {@code GameEventNotifier}.
+ * Размеры кадров печатаются при подготовке.
+ * <p>
+ * Запуск: {@code ./gradlew jmh -PjmhIncludes=WireProtocolBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireProtocolBenchmark {
+    private static final int PLAYERS = 4;
+    private static final int MONSTERS = 4;
+    private static final int ROUNDS = 10;
+
+    private ObjectMapper objectMapper;
+    private WireProtocolCodec codec;
+    private List<List<Map<String, Object>>> turns;
+    private ToIntFunction<String> handles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        codec = new WireProtocolCodec(objectMapper);
+
+        Random random = new Random(25);
+        List<String> ids = new ArrayList<>();
+        Map<String, Integer> handleById = new HashMap<>();
+        for (int i = 0; i < PLAYERS + MONSTERS; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            handleById.put(id, i + 1);
+        }
+        handles = id -> handleById.getOrDefault(id, 0);
+
+        turns = new ArrayList<>();
+        long sequence = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < ids.size(); i++) {
+                String actor = ids.get(i);
+                String target = ids.get(i < PLAYERS ? PLAYERS + random.nextInt(MONSTERS) : random.nextInt(PLAYERS));
+                List<Map<String, Object>> turn = new ArrayList<>();
+                List<AbilityCooldownDto> cooldowns = List.of(
+                        new AbilityCooldownDto("fireball", random.nextInt(3), 0),
+                        new AbilityCooldownDto("heal", random.nextInt(3), 0));
+
+                turn.add(envelope("combat_next_turn", new CombatNextTurnEvent("combat-1", actor, 6, cooldowns), ++sequence));
+                List<Hex> path = new ArrayList<>();
+                int q = 20 + random.nextInt(10);
+                int r = 20 + random.nextInt(10);
+                for (int step = 0; step < 4; step++) {
+                    path.add(new Hex(q, r));
+                    Hex next = Hex.DIRECTIONS.get(random.nextInt(Hex.DIRECTION_COUNT));
+                    q += next.getQ();
+                    r += next.getR();
+                }
+                turn.add(envelope("entity_moved",
+                        new EntityMovedEvent(actor, path.get(path.size() - 1), 3, path, true), ++sequence));
+                turn.add(envelope("entity_attack", new EntityAttackEvent(actor, target, 7, 1), ++sequence));
+                turn.add(envelope("entity_stats_updated", EntityStatsUpdatedEvent.builder()
+                        .targetEntityId(target).absorbedByArmor(2).damageToHp(5)
+                        .currentHp(random.nextInt(40)).currentDefense(3).build(), ++sequence));
+                turn.add(envelope("caster_state_updated", new CasterStateUpdatedEvent(actor, 1, cooldowns), ++sequence));
+                turn.add(envelope("ability_casted", new AbilityCastedEvent(actor, "fireball", new Hex(q, r)), ++sequence));
+                turn.add(envelope("entity_turn_ended", new EntityTurnEndEvent(actor), ++sequence));
+                turns.add(turn);
+            }
+        }
+
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        for (List<Map<String, Object>> turn : turns) {
+            jsonBytes += objectMapper.writeValueAsBytes(batch(turn)).length;
+            binaryBytes += codec.encode(turn, handles).length;
+        }
+        System.out.printf("%n[%d frames] json=%d B (%d B/frame) binary=%d B (%d B/frame) ratio=%.2f%n",
+                turns.size(), jsonBytes, jsonBytes / turns.size(), binaryBytes, binaryBytes / turns.size(),
+                (double) binaryBytes / jsonBytes);
+    }
+
+    @Benchmark
+    public long encodeJson() throws Exception {
+        long total = 0;
+        for (List<Map<String, Object>> turn : turns) {
+            total += objectMapper.writeValueAsBytes(batch(turn)).length;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long encodeBinary() {
+        long total = 0;
+        for (List<Map<String, Object>> turn : turns) {
+            total += codec.encode(turn, handles).length;
+        }
+        return total;
+    }
+
+    private static Map<String, Object> envelope(String actionType, Object payload, long sequence) {
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("actionType", actionType);
+        envelope.put("payload", payload);
+        envelope.put("seq", sequence);
+        return envelope;
+    }
+
+    private static Map<String, Object> batch(List<Map<String, Object>> turn) {
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("actionType", "batch");
+        batch.put("payload", turn);
+        return batch;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.mygame.config;
+
+import dev.mygame.service.codec.BinarySubscriptionRegistry;
+import dev.mygame.service.codec.WireProtocolCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Перехватчик входящих STOMP-сообщений, согласующий двоичный формат событий.
+ * <p>
+ * Подписка с заголовком {@code content-type: application/x-dungeon-events} на топик обновлений
+ * сессии или на личную очередь событий переписывается на тот же адрес с суффиксом {@code .bin},
+ * куда {@link dev.mygame.service.GameEventNotifier} отправляет двоичные кадры.
+ * <p>
+ * Двоичный формат согласуется только для соединений через endpoint без SockJS
+ * ({@link CustomHandshakeHandler#BINARY_FRAMES_ATTRIBUTE}): SockJS передает {@code byte[]}
+ * текстовыми кадрами, и клиент получил бы испорченные данные. На SockJS заголовок игнорируется,
+ * и подписка остается в JSON.
+ */
+@Component
+@RequiredArgsConstructor
+public class BinaryProtocolChannelInterceptor implements ChannelInterceptor {
+    private static final String USER_PREFIX = "/user";
+    private static final String SESSION_ID_PLACEHOLDER = "{sessionId}";
+    // части адреса топика обновлений до и после ID сессии
+    private static final String GAME_UPDATES_PREFIX = WebSocketDestinations.GAME_UPDATES_TOPIC
+            .substring(0, WebSocketDestinations.GAME_UPDATES_TOPIC.indexOf(SESSION_ID_PLACEHOLDER));
+    private static final String GAME_UPDATES_SUFFIX = WebSocketDestinations.GAME_UPDATES_TOPIC
+            .substring(WebSocketDestinations.GAME_UPDATES_TOPIC.indexOf(SESSION_ID_PLACEHOLDER) + SESSION_ID_PLACEHOLDER.length());
+
+    private final BinarySubscriptionRegistry registry;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.SUBSCRIBE) {
+            onSubscribe(accessor);
+        } else if (command == StompCommand.UNSUBSCRIBE) {
+            registry.unregister(accessor.getSessionId(), accessor.getSubscriptionId());
+        } else if (command == StompCommand.DISCONNECT) {
+            registry.unregisterAll(accessor.getSessionId());
+        }
+        return message;
+    }
+
+    private void onSubscribe(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || !WireProtocolCodec.CONTENT_TYPE.equals(accessor.getFirstNativeHeader("content-type"))) {
+            return;
+        }
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (sessionAttributes == null || !Boolean.TRUE.equals(sessionAttributes.get(CustomHandshakeHandler.BINARY_FRAMES_ATTRIBUTE))) {
+            return;
+        }
+
+        String key;
+        if (isGameUpdatesTopic(destination)) {
+            key = destination;
+        } else if (destination.equals(USER_PREFIX + WebSocketDestinations.PRIVATE_EVENTS_QUEUE) && accessor.getUser() != null) {
+            key = BinarySubscriptionRegistry.userKey(accessor.getUser().getName(), WebSocketDestinations.PRIVATE_EVENTS_QUEUE);
+        } else {
+            // для остальных адресов двоичной схемы нет - подписка остается в JSON
+            return;
+        }
+
+        accessor.setDestination(destination + WireProtocolCodec.DESTINATION_SUFFIX);
+        registry.register(accessor.getSessionId(), accessor.getSubscriptionId(), key);
+    }
+
+    private static boolean isGameUpdatesTopic(String destination) {
+        return destination.startsWith(GAME_UPDATES_PREFIX)
+                && destination.endsWith(GAME_UPDATES_SUFFIX)
+                && destination.length() > GAME_UPDATES_PREFIX.length() + GAME_UPDATES_SUFFIX.length();
+    }
+}
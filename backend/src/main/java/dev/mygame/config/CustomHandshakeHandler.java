@@ -1,8 +1,11 @@
 package dev.mygame.config;
 
+import dev.mygame.service.ResumeTokenService;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
 import java.security.Principal;
 import java.util.Map;
 import java.util.UUID;
@@ -10,12 +13,39 @@ import java.util.UUID;
 /**
  * Пользовательский обработчик handshake для WebSocket соединений
  * <p>
- * При каждом новом подключении он генерирует случайный UUID и
- * создает для сессии временный {@link WebSocketPrincipal}.
+ * Если клиент передал действительный токен восстановления (параметр {@code resumeToken}),
+ * соединение получает ID пользователя из токена, и игрок продолжает играть той же сущностью.
+ * Иначе при каждом новом подключении генерируется случайный UUID и
+ * создается для сессии временный {@link WebSocketPrincipal}.
+ * <p>
+ * Обработчик endpoint'а без SockJS помечает соединение атрибутом {@link #BINARY_FRAMES_ATTRIBUTE}:
+ * только по такому соединению можно передавать двоичные кадры.
  */
 public class CustomHandshakeHandler extends DefaultHandshakeHandler {
+    public static final String RESUME_TOKEN_PARAM = "resumeToken";
+    /** Атрибут WebSocket-сессии: соединение поддерживает двоичные кадры. */
+    public static final String BINARY_FRAMES_ATTRIBUTE = "binaryFrames";
+
+    private final ResumeTokenService resumeTokenService;
+    private final boolean binaryFrames;
+
+    public CustomHandshakeHandler(ResumeTokenService resumeTokenService) {
+        this(resumeTokenService, false);
+    }
+
+    public CustomHandshakeHandler(ResumeTokenService resumeTokenService, boolean binaryFrames) {
+        this.resumeTokenService = resumeTokenService;
+        this.binaryFrames = binaryFrames;
+    }
+
     @Override
     protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
-        return new WebSocketPrincipal(UUID.randomUUID().toString());
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst(RESUME_TOKEN_PARAM);
+        String userId = resumeTokenService.verify(token);
+        if (binaryFrames) {
+            attributes.put(BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+        }
+        return new WebSocketPrincipal(userId != null ? userId : UUID.randomUUID().toString());
     }
 }
@@ -0,0 +1,30 @@
+package dev.mygame.config;
+
+import dev.mygame.enums.FactionRelation;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки отношений между фракциями. Фракция - это {@code teamId} сущности:
+ * для монстров он задан заранее (например, {@code monster}), для игроков создается динамически.
+ */
+@Component
+@ConfigurationProperties("game.factions")
+@Data
+public class FactionProperties {
+    /** Отношение между разными фракциями, если для пары нет явного правила. */
+    private FactionRelation defaultRelation = FactionRelation.HOSTILE;
+    /** Явные отношения между парами фракций (симметричные). */
+    private List<Relation> relations = new ArrayList<>();
+
+    @Data
+    public static class Relation {
+        private String first;
+        private String second;
+        private FactionRelation relation;
+    }
+}
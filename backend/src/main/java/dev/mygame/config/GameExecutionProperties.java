@@ -0,0 +1,31 @@
+package dev.mygame.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки выполнения команд игровых сессий
+ */
+@Component
+@ConfigurationProperties("game.execution")
+@Data
+public class GameExecutionProperties {
+    /** Количество шардов (потоков) планировщика сессий. 0 - по числу ядер. */
+    private int shards;
+    /** Сколько команд одной сессии выполняется подряд, прежде чем поток уступается другим сессиям. */
+    private int mailboxThroughput = 64;
+    /** Длительность одного тика игрового таймера в миллисекундах (точность срабатывания таймеров). */
+    private long timerTickMs = 10;
+    /** Количество ячеек колеса игрового таймера. */
+    private int timerWheelSize = 512;
+    /**
+     * Если true, входящие STOMP-сообщения обрабатываются, а исходящие отправляются
+     * на виртуальных потоках вместо ограниченных пулов платформенных потоков.
+     */
+    private boolean stompVirtualThreads = false;
+
+    public int resolveShards() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -15,4 +15,8 @@ public class MapGenerationProperties {
     private int maxRooms;
     private int minRoomSize;
     private int maxRoomSize;
+    /** Ширина генерируемого подземелья в клетках. */
+    private int dungeonWidth = 64;
+    /** Высота генерируемого подземелья в клетках. */
+    private int dungeonHeight = 64;
 }
@@ -0,0 +1,20 @@
+package dev.mygame.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки поиска пути на картах игровых сессий
+ */
+@Component
+@ConfigurationProperties("game.pathfinding")
+@Data
+public class PathfindingProperties {
+    /** Размер LRU-кэша найденных путей одной сессии. 0 - кэш выключен. */
+    private int pathCacheSize = 256;
+    /** Размер стороны кластера для иерархического поиска пути. 0 - иерархический поиск выключен. */
+    private int clusterSize = 16;
+    /** Минимальное расстояние в гексах, начиная с которого путь ищется иерархически. */
+    private int hierarchicalMinDistance = 32;
+}
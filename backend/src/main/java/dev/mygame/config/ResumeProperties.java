@@ -0,0 +1,31 @@
+package dev.mygame.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки восстановления игрока в сессии после переподключения WebSocket
+ */
+@Component
+@ConfigurationProperties("game.resume")
+@Data
+public class ResumeProperties {
+    /**
+     * Ключ подписи токенов восстановления. Пустой - генерируется случайный ключ при запуске
+     * (сессии все равно живут только в памяти, поэтому токены после перезапуска не нужны).
+     */
+    private String secret = "";
+    /** Время жизни токена восстановления в секундах. */
+    private long tokenTtlSeconds = 3600;
+    /**
+     * Сколько миллисекунд сущность отключившегося игрока остается в сессии в ожидании переподключения.
+     * 0 - сущность удаляется сразу при отключении.
+     */
+    private long graceWindowMs = 30000;
+    /**
+     * Через сколько миллисекунд пропускается ход отключившегося игрока, ожидающего переподключения,
+     * чтобы бой не останавливался до его возвращения или удаления.
+     */
+    private long turnSkipDelayMs = 1000;
+}
@@ -0,0 +1,21 @@
+package dev.mygame.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки расчета видимости (поля зрения) на картах игровых сессий
+ */
+@Component
+@ConfigurationProperties("game.visibility")
+@Data
+public class VisibilityProperties {
+    /**
+     * Радиус поля зрения в гексах. Должен покрывать радиусы агра и дальность атак и способностей.
+     * 0 - линия видимости не учитывается.
+     */
+    private int radius = 10;
+    /** Считать поле зрения для всех клеток при загрузке шаблона карты (иначе - лениво в каждой сессии). */
+    private boolean precomputeOnLoad = true;
+}
@@ -1,12 +1,13 @@
 package dev.mygame.config;
 
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import dev.mygame.service.scheduling.ShardedScheduler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -21,11 +22,26 @@ public class WebConfig implements WebMvcConfigurer {
     }
 
     /**
-     * Создает общий планировщик задач для всего приложения.
-     * @return ScheduledExecutorService, управляемый Spring.
+     * Создает общий шардированный планировщик для всех игровых сессий.
+     * Каждая сессия закреплена за одним шардом (одним потоком).
+     * @return ShardedScheduler, управляемый Spring.
      */
     @Bean(destroyMethod = "shutdown")
-    public ScheduledExecutorService scheduledExecutorService() {
-        return Executors.newSingleThreadScheduledExecutor();
+    public ShardedScheduler gameScheduler(GameExecutionProperties executionProperties) {
+        return new ShardedScheduler(executionProperties.resolveShards(), "game-shard-");
+    }
+
+    /**
+     * Создает общий таймер игровых событий (ходы AI, очистка боёв).
+     * @return HashedWheelTimer, управляемый Spring.
+     */
+    @Bean(destroyMethod = "stop")
+    public HashedWheelTimer gameTimer(GameExecutionProperties executionProperties) {
+        return new HashedWheelTimer(
+                executionProperties.getTimerTickMs(),
+                TimeUnit.MILLISECONDS,
+                executionProperties.getTimerWheelSize(),
+                "game-timer"
+        );
     }
 }
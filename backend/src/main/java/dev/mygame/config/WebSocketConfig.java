@@ -1,27 +1,71 @@
 package dev.mygame.config;
 
+import dev.mygame.service.ResumeTokenService;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
-import java.util.UUID;
-
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final GameExecutionProperties executionProperties;
+    private final ResumeTokenService resumeTokenService;
+    private final BinaryProtocolChannelInterceptor binaryProtocolInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        if (executionProperties.isStompVirtualThreads()) {
+            // на виртуальных потоках сообщения одного клиента могут обгонять друг друга
+            config.setPreservePublishOrder(true);
+        }
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        if (executionProperties.isStompVirtualThreads()) {
+            registry.setPreserveReceiveOrder(true);
+        }
         registry.addEndpoint("/gs-websocket")
                 .setAllowedOriginPatterns("*")
-                .setHandshakeHandler(new CustomHandshakeHandler())
+                .setHandshakeHandler(new CustomHandshakeHandler(resumeTokenService))
                 .withSockJS();
+        // SockJS передает только текстовые кадры, поэтому двоичный формат событий доступен через чистый WebSocket
+        registry.addEndpoint("/gs-websocket-native")
+                .setAllowedOriginPatterns("*")
+                .setHandshakeHandler(new CustomHandshakeHandler(resumeTokenService, true));
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(binaryProtocolInterceptor);
+        if (executionProperties.isStompVirtualThreads()) {
+            registration.executor(virtualThreadExecutor("stomp-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (executionProperties.isStompVirtualThreads()) {
+            registration.executor(virtualThreadExecutor("stomp-outbound-"));
+        }
+    }
+
+    /**
+     * Создает исполнитель, запускающий каждую задачу на новом виртуальном потоке.
+     * Медленный обработчик (например, сборка полного состояния сессии) больше
+     * не занимает один из немногих потоков пула и не задерживает сообщения других игроков.
+     */
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
     }
 }
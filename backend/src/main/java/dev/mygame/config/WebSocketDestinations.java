@@ -15,9 +15,12 @@ public final class WebSocketDestinations {
 
     // --- Личные топики (рассылка конкретному пользователю) ---
     public static final String SESSION_STATE_QUEUE = "/queue/session/{sessionId}/state";
+    public static final String SESSION_STATE_DELTA_QUEUE = "/queue/session/{sessionId}/state-delta";
+    public static final String EVENT_REPLAY_QUEUE = "/queue/session/{sessionId}/event-replay";
     public static final String ERROR_QUEUE = "/queue/errors";
     public static final String PRIVATE_NOTIFICATION_MESSAGE_QUEUE = "/queue/notification/private";
     public static final String PRIVATE_EVENTS_QUEUE = "/queue/events";
+    public static final String JOIN_SESSION_RESPONSE_QUEUE = "/queue/join-session-response";
 
 
     // --- Адреса для сообщений от клиента к серверу ---
@@ -0,0 +1,71 @@
+package dev.mygame.controller.websocket;
+
+import dev.mygame.domain.model.map.PathCache;
+import dev.mygame.domain.session.GameSession;
+import dev.mygame.dto.metrics.PathCacheStatsDto;
+import dev.mygame.dto.metrics.SchedulerShardStatsDto;
+import dev.mygame.service.GameSessionManager;
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import dev.mygame.service.scheduling.ShardedScheduler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class GameMetricsController {
+
+    private final ShardedScheduler gameScheduler;
+    private final HashedWheelTimer gameTimer;
+    private final GameSessionManager gameSessionManager;
+
+    @GetMapping("/scheduler")
+    public List<SchedulerShardStatsDto> getSchedulerStats() {
+        List<SchedulerShardStatsDto> stats = new ArrayList<>();
+        for (int shard = 0; shard < gameScheduler.getShardCount(); shard++) {
+            stats.add(new SchedulerShardStatsDto(
+                    shard,
+                    gameScheduler.getQueueDepth(shard),
+                    gameScheduler.getCompletedTaskCount(shard)
+            ));
+        }
+        return stats;
+    }
+
+    @GetMapping("/timer")
+    public Map<String, Long> getTimerStats() {
+        return Map.of(
+                "pendingTimeouts", (long) gameTimer.getPendingTimeouts(),
+                "tickMs", gameTimer.getTickDurationMillis()
+        );
+    }
+
+    @GetMapping("/pathfinding")
+    public PathCacheStatsDto getPathCacheStats() {
+        int sessions = 0;
+        int cachedPaths = 0;
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        for (GameSession session : gameSessionManager.getActiveSessions().values()) {
+            PathCache pathCache = session.getGameMap() != null ? session.getGameMap().getPathCache() : null;
+            if (pathCache == null) {
+                continue;
+            }
+            sessions++;
+            cachedPaths += pathCache.size();
+            hits += pathCache.getHits();
+            misses += pathCache.getMisses();
+            evictions += pathCache.getEvictions();
+        }
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : (double) hits / lookups;
+        return new PathCacheStatsDto(sessions, cachedPaths, hits, misses, evictions, hitRate);
+    }
+}
@@ -120,16 +120,34 @@ public class WebSocketController {
     }
 
     /**
-     * Обрабатывает запрос от клиента на полную ресинхронизацию состояния.
-     * Срабатывает, когда игрок возвращается в активную вкладку.
+     * Обрабатывает запрос от клиента на ресинхронизацию состояния.
+     * Срабатывает, когда игрок возвращается в активную вкладку. Если клиент передал
+     * последнюю известную версию состояния, в ответ приходят только изменения после неё.
      */
     @MessageMapping("/session/{sessionId}/request-state")
     public void onRequestFullState(
             @DestinationVariable String sessionId,
+            @Payload(required = false) StateSyncRequest request,
             Principal principal
     ) {
         String userId = principal.getName();
-        log.info("User {} requested full state sync for session {}", userId, sessionId);
-        gameSessionManager.resendStateToPlayer(sessionId, userId);
+        Long lastVersion = request != null ? request.getLastVersion() : null;
+        log.info("User {} requested state sync for session {} from version {}", userId, sessionId, lastVersion);
+        gameSessionManager.resendStateToPlayer(sessionId, userId, lastVersion);
+    }
+
+    /**
+     * Обрабатывает запрос переподключившегося клиента на досылку пропущенных событий.
+     * Если события уже вытеснены из журнала сессии, клиент получает состояние сессии.
+     */
+    @MessageMapping("/session/{sessionId}/replay-events")
+    public void onReplayEvents(
+            @DestinationVariable String sessionId,
+            @Payload EventReplayRequest request,
+            Principal principal
+    ) {
+        String userId = principal.getName();
+        log.info("User {} requested events after {} for session {}", userId, request.getSinceSequence(), sessionId);
+        gameSessionManager.replayEventsToPlayer(sessionId, userId, request.getSinceSequence(), request.getLastVersion());
     }
 }
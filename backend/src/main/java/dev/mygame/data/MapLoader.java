@@ -1,10 +1,14 @@
 package dev.mygame.data;
 
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.config.VisibilityProperties;
+import dev.mygame.domain.model.map.FieldOfView;
 import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.HierarchicalPathGraph;
 import dev.mygame.domain.model.map.Hex;
-import dev.mygame.domain.model.map.Tile;
 import dev.mygame.enums.TileType;
 import dev.mygame.service.internal.SpawnPointInfo;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
@@ -12,21 +16,87 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Загрузчик карт из текстовых файлов.
+ * <p>
+ * Каждый файл разбирается один раз: полученная карта-шаблон (рельеф, компоненты связности,
+ * поле зрения и граф для иерархического поиска пути) кэшируется, а каждая сессия получает свою копию.
+ */
 @Component
+@RequiredArgsConstructor
 public class MapLoader {
+    private final PathfindingProperties pathfindingProperties;
+    private final VisibilityProperties visibilityProperties;
+    private final Map<String, GameMapHex> templates = new ConcurrentHashMap<>();
+
     public GameMapHex loadMapFromFile(String filePath) throws Exception {
+        GameMapHex template = templates.get(filePath);
+        if (template == null) {
+            template = parseMap(filePath);
+            // компоненты связности считаются один раз для шаблона, копии их разделяют
+            template.getConnectivity();
+            if (pathfindingProperties.getClusterSize() > 0) {
+                template.setPathGraph(HierarchicalPathGraph.build(template,
+                        pathfindingProperties.getClusterSize(),
+                        pathfindingProperties.getHierarchicalMinDistance()));
+            }
+            if (visibilityProperties.getRadius() > 0 && visibilityProperties.isPrecomputeOnLoad()) {
+                FieldOfView fieldOfView = new FieldOfView(template, visibilityProperties.getRadius());
+                fieldOfView.precomputeAll(template);
+                template.setFieldOfView(fieldOfView);
+            }
+            GameMapHex existing = templates.putIfAbsent(filePath, template);
+            if (existing != null) {
+                template = existing;
+            }
+        }
+        return template.copy();
+    }
+
+    private GameMapHex parseMap(String filePath) throws Exception {
         List<String> lines = readLinesFromResource(filePath);
-        Map<Hex, Tile> tiles = new HashMap<>();
         List<Hex> playerSpawnPoints = new ArrayList<>();
         List<SpawnPointInfo> monsterSpawnPoints = new ArrayList<>();
 
+        // первый проход: границы карты в осевых координатах, чтобы сразу выделить плотные массивы
+        int minQ = Integer.MAX_VALUE, maxQ = Integer.MIN_VALUE;
+        int minR = Integer.MAX_VALUE, maxR = Integer.MIN_VALUE;
         for(int row = 0; row < lines.size(); row++) {
             String line = lines.get(row);
-            if(line.trim().isEmpty() || line.isEmpty() || line.startsWith("#")) {
+            if(isSkipped(line)) {
+                continue;
+            }
+            line = line.trim();
+            for(int col = 0; col < line.length(); col++) {
+                if(line.charAt(col) == '-')
+                    continue;
+                int q = col - row / 2;
+                minQ = Math.min(minQ, q);
+                maxQ = Math.max(maxQ, q);
+                minR = Math.min(minR, row);
+                maxR = Math.max(maxR, row);
+            }
+        }
+        if (minQ > maxQ) {
+            throw new IllegalStateException("Map " + filePath + " contains no tiles");
+        }
+
+        GameMapHex map = GameMapHex.builder()
+                .minQ(minQ)
+                .minR(minR)
+                .width(maxQ - minQ + 1)
+                .height(maxR - minR + 1)
+                .playerSpawnPoints(playerSpawnPoints)
+                .monsterSpawnPoints(monsterSpawnPoints)
+                .build();
+
+        for(int row = 0; row < lines.size(); row++) {
+            String line = lines.get(row);
+            if(isSkipped(line)) {
                 continue;
             }
             line = line.trim();
@@ -38,7 +108,6 @@ public class MapLoader {
                 int offset = row / 2;
                 int q = col - offset;
                 int r = row;
-                Hex hex = new Hex(q, r);
 
                 TileType type = TileType.FLOOR;
                 boolean isSpawnPoint = false;
@@ -54,31 +123,30 @@ public class MapLoader {
                         type = TileType.FLOOR;
                         break;
                     case 'P':
-                        playerSpawnPoints.add(hex);
+                        playerSpawnPoints.add(new Hex(q, r));
                         isSpawnPoint = true;
                         break;
                     case 'M':
-                        monsterSpawnPoints.add(new SpawnPointInfo(hex, 'M'));
+                        monsterSpawnPoints.add(new SpawnPointInfo(new Hex(q, r), 'M'));
                         isSpawnPoint = true;
                         break;
                     case 'B':
-                        monsterSpawnPoints.add(new SpawnPointInfo(hex, 'B'));
+                        monsterSpawnPoints.add(new SpawnPointInfo(new Hex(q, r), 'B'));
                         isSpawnPoint = true;
                         break;
                     case 'G':
-                        monsterSpawnPoints.add(new SpawnPointInfo(hex, 'G'));
+                        monsterSpawnPoints.add(new SpawnPointInfo(new Hex(q, r), 'G'));
                         isSpawnPoint = true;
                         break;
                 }
-                Tile tile = new Tile(isSpawnPoint ? TileType.FLOOR : type, null);
-                tiles.put(hex, tile);
+                map.setTileType(q, r, isSpawnPoint ? TileType.FLOOR : type);
             }
         }
-        return GameMapHex.builder()
-                .tiles(tiles)
-                .playerSpawnPoints(playerSpawnPoints)
-                .monsterSpawnPoints(monsterSpawnPoints)
-                .build();
+        return map;
+    }
+
+    private boolean isSkipped(String line) {
+        return line.trim().isEmpty() || line.startsWith("#");
     }
 
     private List<String> readLinesFromResource(String filePath) throws Exception {
@@ -8,7 +8,9 @@ import java.util.List;
 
 public interface CombatEventListener {
     Entity getEntityById(String id);
+    Entity getEntityByHandle(int handle);
     void scheduleAiTurn(String monsterId);
+    void scheduleTurnSkip(String playerId);
 
     void onCombatEvent(Object event);
     void onCombatEnded(String combatId, CombatOutcome outcome, String winningTeamId, List<Entity> allParticipants);
@@ -1,17 +1,21 @@
 package dev.mygame.domain.event;
 
 import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionEventLog;
 import lombok.Getter;
 import org.springframework.context.ApplicationEvent;
 
+import java.util.List;
+
 @Getter
-public class SessionEvent<T> extends ApplicationEvent {
+public class SessionEvent extends ApplicationEvent {
     private final GameSession session;
-    private final T payload;
+    // события одной команды сессии с порядковыми номерами (после слияния повторов)
+    private final List<SessionEventLog.SequencedEvent> events;
 
-    public SessionEvent(Object source, GameSession session, T payload) {
+    public SessionEvent(Object source, GameSession session, List<SessionEventLog.SequencedEvent> events) {
         super(source);
         this.session = session;
-        this.payload = payload;
+        this.events = events;
     }
 }
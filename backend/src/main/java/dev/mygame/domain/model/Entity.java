@@ -3,6 +3,7 @@ package dev.mygame.domain.model;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.mygame.data.templates.AbilityTemplate;
 import dev.mygame.domain.session.AbilityInstance;
+import dev.mygame.domain.session.FactionTable;
 import dev.mygame.service.internal.DamageResult;
 import dev.mygame.enums.EntityStateType;
 import dev.mygame.domain.event.DeathListener;
@@ -20,6 +21,9 @@ import java.util.Objects;
 @SuperBuilder
 @NoArgsConstructor
 public abstract class Entity extends GameMapObject {
+    /** Дескриптор сущности, которая еще не добавлена в игровую сессию. */
+    public static final int NO_HANDLE = 0;
+
     private String name;
     private int currentHp;
     private int maxHp;
@@ -35,6 +39,16 @@ public abstract class Entity extends GameMapObject {
     private List<AbilityInstance> abilities;
 
     private String teamId; // Id команды, к которой принадлежит Entity
+    // дескриптор фракции (команды) в таблице фракций сессии, назначается сессией
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int factionHandle = FactionTable.NONE;
+    // целочисленный дескриптор сущности в рамках сессии: ключ внутренних индексов вместо строкового ID
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int handle = NO_HANDLE;
     private String websocketSessionId;
 
     private EntityStateType state;
@@ -0,0 +1,203 @@
+package dev.mygame.domain.model.map;
+
+import dev.mygame.domain.model.Entity;
+import dev.mygame.enums.EntityStateType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Инкрементальное отслеживание зон агра в рамках одной игровой сессии.
+ * <p>
+ * Каждая живая сущность регистрирует зону, зависящую от её состояния:
+ * <ul>
+ *     <li>вне боя ({@link EntityStateType#EXPLORING}) с {@code aggroRadius > 0} - зону агра:
+ *     клетки в радиусе агра, которые сущность видит;</li>
+ *     <li>в бою - зону присоединения к бою радиусом {@value #COMBAT_JOIN_RADIUS}.</li>
+ * </ul>
+ * Для каждой клетки хранится список покрывающих её зон. При шаге сущности проверяются
+ * только зоны на клетке назначения: зоны агра, в которые сущность вошла (их нет на клетке,
+ * с которой она ушла), и зоны боя, в которых она оказалась. Выход из зоны агра
+ * "сбрасывает" её: повторный вход снова считается переходом. Стоимость шага - количество
+ * зон на двух клетках, а не перебор всех сущностей в радиусе.
+ * <p>
+ * Зона пересчитывается, когда её владелец перемещается или меняет состояние.
+ * Индекс не потокобезопасен и должен изменяться только из очереди команд сессии.
+ */
+public class AggroZoneTracker {
+    /** Радиус, в котором сущность вне боя присоединяется к идущему бою противников. */
+    public static final int COMBAT_JOIN_RADIUS = 10;
+
+    private final Map<Long, List<Zone>> zonesByCell = new HashMap<>();
+    private final Map<Entity, Zone> zones = new IdentityHashMap<>();
+
+    /**
+     * Приводит зону сущности в соответствие с её текущими состоянием и позицией.
+     * @param owner сущность-владелец зоны.
+     * @param map   карта для проверки линии видимости (может быть {@code null}).
+     * @param index индекс позиций сущностей сессии.
+     * @return сущности, которые только что оказались в зоне агра владельца
+     *         (пустой список, если зона не изменилась или это не зона агра).
+     */
+    public List<Entity> update(Entity owner, GameMapHex map, EntitySpatialIndex index) {
+        Zone current = zones.get(owner);
+        Hex position = owner.getPosition();
+        boolean combat = owner.getState() == EntityStateType.COMBAT;
+        int radius = combat ? COMBAT_JOIN_RADIUS : owner.getAggroRadius();
+        if (!owner.isAlive() || position == null || radius <= 0) {
+            remove(owner);
+            return List.of();
+        }
+        if (current != null && current.combat == combat && current.radius == radius
+                && current.centerQ == position.getQ() && current.centerR == position.getR()) {
+            return List.of();
+        }
+
+        Zone next = new Zone(owner, combat, position.getQ(), position.getR(), radius, map);
+        if (current != null) {
+            unregister(current);
+        }
+        zones.put(owner, next);
+        register(next);
+        if (combat) {
+            return List.of();
+        }
+
+        List<Entity> covered = new ArrayList<>();
+        for (Entity entity : index.findInRadius(next.centerQ, next.centerR, radius)) {
+            if (entity == owner) {
+                continue;
+            }
+            Hex entityPosition = entity.getPosition();
+            boolean wasCovered = current != null && !current.combat
+                    && current.covers(entityPosition.getQ(), entityPosition.getR());
+            if (!wasCovered && next.covers(entityPosition.getQ(), entityPosition.getR())) {
+                covered.add(entity);
+            }
+        }
+        return covered;
+    }
+
+    public void remove(Entity owner) {
+        Zone zone = zones.remove(owner);
+        if (zone != null) {
+            unregister(zone);
+        }
+    }
+
+    /**
+     * Находит владельцев зон, для которых шаг сущности - значимый переход: зоны агра,
+     * в которые сущность вошла, и зоны боя, в которых она находится после шага.
+     * @param mover сущность, совершившая шаг (её собственная зона не учитывается).
+     * @param from  клетка, с которой сущность ушла.
+     * @param to    клетка, на которую сущность пришла.
+     */
+    public List<Entity> findTriggeredOwners(Entity mover, Hex from, Hex to) {
+        List<Zone> target = zonesByCell.get(Hex.pack(to.getQ(), to.getR()));
+        if (target == null) {
+            return List.of();
+        }
+        List<Zone> source = from != null ? zonesByCell.get(Hex.pack(from.getQ(), from.getR())) : null;
+        List<Entity> owners = new ArrayList<>();
+        for (Zone zone : target) {
+            if (zone.owner == mover) {
+                continue;
+            }
+            if (zone.combat || source == null || !containsZone(source, zone)) {
+                owners.add(zone.owner);
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * @return количество зарегистрированных зон.
+     */
+    public int getZoneCount() {
+        return zones.size();
+    }
+
+    private void register(Zone zone) {
+        for (long cell : zone.cells) {
+            zonesByCell.computeIfAbsent(cell, k -> new ArrayList<>(2)).add(zone);
+        }
+    }
+
+    private void unregister(Zone zone) {
+        for (long cell : zone.cells) {
+            List<Zone> cellZones = zonesByCell.get(cell);
+            if (cellZones == null) {
+                continue;
+            }
+            for (int i = 0; i < cellZones.size(); i++) {
+                if (cellZones.get(i) == zone) {
+                    cellZones.remove(i);
+                    break;
+                }
+            }
+            if (cellZones.isEmpty()) {
+                zonesByCell.remove(cell);
+            }
+        }
+    }
+
+    private static boolean containsZone(List<Zone> cellZones, Zone zone) {
+        for (Zone candidate : cellZones) {
+            if (candidate == zone) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Зона одной сущности: отсортированные упакованные координаты покрытых клеток.
+     */
+    private static final class Zone {
+        final Entity owner;
+        final boolean combat;
+        final int centerQ;
+        final int centerR;
+        final int radius;
+        final long[] cells;
+
+        Zone(Entity owner, boolean combat, int centerQ, int centerR, int radius, GameMapHex map) {
+            this.owner = owner;
+            this.combat = combat;
+            this.centerQ = centerQ;
+            this.centerR = centerR;
+            this.radius = radius;
+
+            long[] buffer = new long[3 * radius * (radius + 1) + 1];
+            int count = 0;
+            for (int dq = -radius; dq <= radius; dq++) {
+                int minDr = Math.max(-radius, -dq - radius);
+                int maxDr = Math.min(radius, -dq + radius);
+                for (int dr = minDr; dr <= maxDr; dr++) {
+                    int q = centerQ + dq;
+                    int r = centerR + dr;
+                    if (map != null) {
+                        if (!map.hasTile(q, r)) {
+                            continue;
+                        }
+                        // агр - только по линии видимости, к бою присоединяются и из-за угла
+                        if (!combat && !map.canSee(centerQ, centerR, q, r)) {
+                            continue;
+                        }
+                    }
+                    buffer[count++] = Hex.pack(q, r);
+                }
+            }
+            this.cells = Arrays.copyOf(buffer, count);
+            Arrays.sort(this.cells);
+        }
+
+        boolean covers(int q, int r) {
+            return Arrays.binarySearch(cells, Hex.pack(q, r)) >= 0;
+        }
+    }
+}
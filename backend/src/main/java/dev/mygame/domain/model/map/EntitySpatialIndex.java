@@ -0,0 +1,147 @@
+package dev.mygame.domain.model.map;
+
+import dev.mygame.domain.model.Entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пространственный индекс позиций сущностей в рамках одной игровой сессии.
+ * <p>
+ * Карта разбивается на квадратные (в осевых координатах) чанки размером
+ * {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE} гексов. Для каждого чанка хранится список
+ * находящихся в нём сущностей, поэтому запросы по точке и по радиусу просматривают
+ * только чанки, пересекающие область поиска, а не все сущности сессии.
+ * <p>
+ * Индекс не потокобезопасен и должен изменяться только из очереди команд сессии.
+ */
+public class EntitySpatialIndex {
+    private static final int CHUNK_SHIFT = 3;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private final Map<Long, List<Entity>> chunks = new HashMap<>();
+    private int size = 0;
+
+    public void add(Entity entity) {
+        Hex position = entity.getPosition();
+        if (position == null) {
+            return;
+        }
+        chunks.computeIfAbsent(chunkKey(position.getQ(), position.getR()), k -> new ArrayList<>(4)).add(entity);
+        size++;
+    }
+
+    public void remove(Entity entity) {
+        Hex position = entity.getPosition();
+        if (position != null) {
+            removeFromChunk(entity, position);
+        }
+    }
+
+    /**
+     * Переносит сущность в индексе. Вызывается при каждом перемещении сущности.
+     * @param entity сущность (её позиция уже может быть обновлена).
+     * @param from   позиция, на которой сущность была проиндексирована.
+     * @param to     новая позиция.
+     */
+    public void move(Entity entity, Hex from, Hex to) {
+        long fromKey = chunkKey(from.getQ(), from.getR());
+        long toKey = chunkKey(to.getQ(), to.getR());
+        if (fromKey == toKey) {
+            return;
+        }
+        if (removeFromChunk(entity, from)) {
+            chunks.computeIfAbsent(toKey, k -> new ArrayList<>(4)).add(entity);
+            size++;
+        }
+    }
+
+    /**
+     * @param hex координата гекса.
+     * @return сущность на этом гексе или {@code null}, если гекс пуст.
+     */
+    public Entity getAt(Hex hex) {
+        List<Entity> chunk = chunks.get(chunkKey(hex.getQ(), hex.getR()));
+        if (chunk == null) {
+            return null;
+        }
+        for (Entity entity : chunk) {
+            Hex position = entity.getPosition();
+            if (position.getQ() == hex.getQ() && position.getR() == hex.getR()) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Находит все сущности на расстоянии не больше {@code radius} от центра.
+     * @param center центр области.
+     * @param radius радиус в гексах.
+     * @return новый список найденных сущностей.
+     */
+    public List<Entity> findInRadius(Hex center, int radius) {
+        return findInRadius(center.getQ(), center.getR(), radius);
+    }
+
+    /**
+     * То же, что {@link #findInRadius(Hex, int)}, но по примитивным координатам центра.
+     */
+    public List<Entity> findInRadius(int centerQ, int centerR, int radius) {
+        List<Entity> result = new ArrayList<>();
+        int minChunkQ = (centerQ - radius) >> CHUNK_SHIFT;
+        int maxChunkQ = (centerQ + radius) >> CHUNK_SHIFT;
+        int minChunkR = (centerR - radius) >> CHUNK_SHIFT;
+        int maxChunkR = (centerR + radius) >> CHUNK_SHIFT;
+
+        for (int chunkQ = minChunkQ; chunkQ <= maxChunkQ; chunkQ++) {
+            for (int chunkR = minChunkR; chunkR <= maxChunkR; chunkR++) {
+                List<Entity> chunk = chunks.get(packChunk(chunkQ, chunkR));
+                if (chunk == null) {
+                    continue;
+                }
+                for (Entity entity : chunk) {
+                    Hex position = entity.getPosition();
+                    if (Hex.distance(position.getQ(), position.getR(), centerQ, centerR) <= radius) {
+                        result.add(entity);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean removeFromChunk(Entity entity, Hex position) {
+        long key = chunkKey(position.getQ(), position.getR());
+        List<Entity> chunk = chunks.get(key);
+        if (chunk == null) {
+            return false;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            // сравнение по ссылке: equals() у Entity сравнивает все изменяемые поля
+            if (chunk.get(i) == entity) {
+                chunk.remove(i);
+                size--;
+                if (chunk.isEmpty()) {
+                    chunks.remove(key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long chunkKey(int q, int r) {
+        return packChunk(q >> CHUNK_SHIFT, r >> CHUNK_SHIFT);
+    }
+
+    private static long packChunk(int chunkQ, int chunkR) {
+        return Hex.pack(chunkQ, chunkR);
+    }
+}
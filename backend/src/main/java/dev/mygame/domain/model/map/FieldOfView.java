@@ -0,0 +1,227 @@
+package dev.mygame.domain.model.map;
+
+import dev.mygame.enums.TileType;
+
+import java.util.Arrays;
+
+/**
+ * Поле зрения (FOV) для каждой клетки карты в пределах фиксированного радиуса.
+ * <p>
+ * Видимость считается теневым отбрасыванием (shadowcasting) по кольцам вокруг клетки-наблюдателя.
+ * Клетка кольца k занимает угловой отрезок шириной {@code 1/(6k)} полного оборота;
+ * непрозрачные клетки ({@link TileType#isOpaque()}, а также клетки без тайла) закрывают
+ * свой отрезок для всех следующих колец. Проходимая клетка видна, если не закрыт её центр,
+ * непрозрачная - если не закрыт хотя бы край (стены вдоль прямого коридора остаются видимыми).
+ * <p>
+ * Результат для клетки-наблюдателя - битовое множество видимых клеток её окрестности,
+ * хранящееся в общем {@code long[]}, поэтому проверка видимости после расчета - это O(1)
+ * чтение бита. Расчет выполняется лениво при первом запросе для клетки либо сразу для всей
+ * карты ({@link #precomputeAll(GameMapHex)}): после полного расчета объект только читается
+ * и может разделяться копиями карты.
+ */
+public final class FieldOfView {
+    private static final double EPSILON = 1e-9;
+
+    private final int radius;
+    private final long terrainVersion;
+    private final int cellCount;
+    private final int wordsPerCell;
+    /** Номер бита для смещения (dq, dr): индекс {@code (dq + radius) * (2 * radius + 1) + (dr + radius)}. */
+    private final int[] offsetBit;
+    private final long[] visibility;
+    private final long[] computed;
+    private boolean precomputed;
+
+    // закрытые угловые отрезки текущего расчета: отсортированы и не пересекаются
+    private double[] shadowStart = new double[16];
+    private double[] shadowEnd = new double[16];
+    private int shadowCount;
+
+    /**
+     * @param map    карта, для рельефа которой считается видимость.
+     * @param radius радиус видимости в гексах; дальше него клетки считаются невидимыми.
+     */
+    public FieldOfView(GameMapHex map, int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("FOV radius must be positive: " + radius);
+        }
+        this.radius = radius;
+        this.terrainVersion = map.getTerrainVersion();
+        this.cellCount = map.getCellCount();
+        int bitsPerCell = 3 * radius * (radius + 1) + 1;
+        this.wordsPerCell = (bitsPerCell + 63) >>> 6;
+        this.visibility = new long[cellCount * wordsPerCell];
+        this.computed = new long[(cellCount + 63) >>> 6];
+
+        int side = 2 * radius + 1;
+        this.offsetBit = new int[side * side];
+        int bit = 1;
+        offsetBit[radius * side + radius] = 0;
+        for (int ring = 1; ring <= radius; ring++) {
+            int q = Hex.neighborQ(0, 4) * ring;
+            int r = Hex.neighborR(0, 4) * ring;
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                for (int step = 0; step < ring; step++) {
+                    offsetBit[(q + radius) * side + (r + radius)] = bit++;
+                    q = Hex.neighborQ(q, direction);
+                    r = Hex.neighborR(r, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Считает поле зрения для всех клеток карты, на которых есть тайл.
+     */
+    public void precomputeAll(GameMapHex map) {
+        for (int index = 0; index < cellCount; index++) {
+            if (map.hasTile(index)) {
+                ensureComputed(map, index);
+            }
+        }
+        precomputed = true;
+    }
+
+    /**
+     * @return {@code true}, если поле посчитано для всей карты и объект больше не изменяется.
+     */
+    public boolean isPrecomputed() {
+        return precomputed;
+    }
+
+    /**
+     * @return {@code true}, если поле посчитано для текущего рельефа карты.
+     */
+    public boolean isValidFor(GameMapHex map) {
+        return terrainVersion == map.getTerrainVersion() && cellCount == map.getCellCount();
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Проверяет, видна ли клетка (toQ, toR) из клетки (fromQ, fromR).
+     * @return {@code false}, если клетки дальше радиуса видимости или наблюдатель вне карты.
+     */
+    public boolean canSee(GameMapHex map, int fromQ, int fromR, int toQ, int toR) {
+        int dq = toQ - fromQ;
+        int dr = toR - fromR;
+        if (Hex.distance(0, 0, dq, dr) > radius) {
+            return false;
+        }
+        int from = map.indexOf(fromQ, fromR);
+        if (!map.hasTile(from)) {
+            return false;
+        }
+        ensureComputed(map, from);
+        int bit = offsetBit[(dq + radius) * (2 * radius + 1) + (dr + radius)];
+        return (visibility[from * wordsPerCell + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    private void ensureComputed(GameMapHex map, int origin) {
+        if ((computed[origin >>> 6] & (1L << origin)) != 0) {
+            return;
+        }
+        compute(map, origin);
+        computed[origin >>> 6] |= 1L << origin;
+    }
+
+    private void compute(GameMapHex map, int origin) {
+        int base = origin * wordsPerCell;
+        visibility[base] |= 1L;
+        shadowCount = 0;
+
+        int originQ = map.qOfIndex(origin);
+        int originR = map.rOfIndex(origin);
+        int bit = 1;
+        for (int ring = 1; ring <= radius; ring++) {
+            if (isCovered(0, 1)) {
+                break;
+            }
+            double cellWidth = 1.0 / (Hex.DIRECTION_COUNT * ring);
+            double halfWidth = cellWidth / 2;
+            int q = originQ + Hex.neighborQ(0, 4) * ring;
+            int r = originR + Hex.neighborR(0, 4) * ring;
+            int position = 0;
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                for (int step = 0; step < ring; step++) {
+                    double center = position * cellWidth;
+                    int index = map.indexOf(q, r);
+                    TileType type = map.getTileType(index);
+                    boolean opaque = type == null || type.isOpaque();
+
+                    boolean visible = opaque
+                            ? !isCoveredWrapped(center - halfWidth, center + halfWidth)
+                            : !isCoveredWrapped(center - 2 * EPSILON, center + 2 * EPSILON);
+                    if (visible && type != null) {
+                        visibility[base + (bit >>> 6)] |= 1L << bit;
+                    }
+                    if (opaque) {
+                        addShadowWrapped(center - halfWidth, center + halfWidth);
+                    }
+
+                    bit++;
+                    position++;
+                    q = Hex.neighborQ(q, direction);
+                    r = Hex.neighborR(r, direction);
+                }
+            }
+        }
+    }
+
+    private boolean isCoveredWrapped(double from, double to) {
+        if (from < 0) {
+            return isCovered(from + 1, 1) && isCovered(0, to);
+        }
+        return isCovered(from, to);
+    }
+
+    private boolean isCovered(double from, double to) {
+        for (int i = 0; i < shadowCount; i++) {
+            if (shadowStart[i] <= from + EPSILON && shadowEnd[i] >= to - EPSILON) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addShadowWrapped(double from, double to) {
+        if (from < 0) {
+            addShadow(from + 1, 1);
+            addShadow(0, to);
+        } else {
+            addShadow(from, to);
+        }
+    }
+
+    private void addShadow(double from, double to) {
+        // поглощаем все пересекающиеся или касающиеся отрезки
+        int first = 0;
+        while (first < shadowCount && shadowEnd[first] < from - EPSILON) {
+            first++;
+        }
+        int last = first;
+        while (last < shadowCount && shadowStart[last] <= to + EPSILON) {
+            from = Math.min(from, shadowStart[last]);
+            to = Math.max(to, shadowEnd[last]);
+            last++;
+        }
+        int removed = last - first;
+        if (removed == 0) {
+            if (shadowCount == shadowStart.length) {
+                shadowStart = Arrays.copyOf(shadowStart, shadowCount * 2);
+                shadowEnd = Arrays.copyOf(shadowEnd, shadowCount * 2);
+            }
+            System.arraycopy(shadowStart, first, shadowStart, first + 1, shadowCount - first);
+            System.arraycopy(shadowEnd, first, shadowEnd, first + 1, shadowCount - first);
+            shadowCount++;
+        } else if (removed > 1) {
+            System.arraycopy(shadowStart, last, shadowStart, first + 1, shadowCount - last);
+            System.arraycopy(shadowEnd, last, shadowEnd, first + 1, shadowCount - last);
+            shadowCount -= removed - 1;
+        }
+        shadowStart[first] = from;
+        shadowEnd[first] = to;
+    }
+}
@@ -0,0 +1,118 @@
+package dev.mygame.domain.model.map;
+
+import java.util.Arrays;
+
+/**
+ * Поле потока (Dijkstra map) к одной цели.
+ * <p>
+ * Для каждой проходимой клетки хранится длина кратчайшего пути до цели по проходимым тайлам.
+ * Поле строится одним обратным обходом в ширину от клетки цели (все переходы стоят 1,
+ * поэтому BFS дает то же, что и Дейкстра), после чего любой преследователь получает
+ * следующий шаг за O(1): это соседняя клетка с наименьшим расстоянием.
+ * <p>
+ * Поле учитывает только рельеф. Занятость клеток меняется на каждом шаге любой сущности,
+ * поэтому она проверяется при выборе шага, а не при построении.
+ */
+public final class FlowField {
+    /** Расстояние для клеток, из которых цель недостижима. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int targetIndex;
+    private final long terrainVersion;
+    private final int[] distances;
+
+    private FlowField(int targetIndex, long terrainVersion, int[] distances) {
+        this.targetIndex = targetIndex;
+        this.terrainVersion = terrainVersion;
+        this.distances = distances;
+    }
+
+    /**
+     * Строит поле к указанной клетке.
+     * @param map     карта.
+     * @param targetQ координата q цели.
+     * @param targetR координата r цели.
+     */
+    public static FlowField build(GameMapHex map, int targetQ, int targetR) {
+        int cellCount = map.getCellCount();
+        int[] distances = new int[cellCount];
+        Arrays.fill(distances, UNREACHABLE);
+
+        int targetIndex = map.indexOf(targetQ, targetR);
+        if (!map.hasTile(targetIndex)) {
+            return new FlowField(targetIndex, map.getTerrainVersion(), distances);
+        }
+
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int[] queue = new int[cellCount];
+        int head = 0;
+        int tail = 0;
+        distances[targetIndex] = 0;
+        queue[tail++] = targetIndex;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int localQ = current % width;
+            int localR = current / width;
+            int nextDistance = distances[current] + 1;
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                int neighborQ = Hex.neighborQ(localQ, direction);
+                int neighborR = Hex.neighborR(localR, direction);
+                if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                    continue;
+                }
+                int neighbor = neighborR * width + neighborQ;
+                if (distances[neighbor] != UNREACHABLE || !map.isPassable(neighbor)) {
+                    continue;
+                }
+                distances[neighbor] = nextDistance;
+                queue[tail++] = neighbor;
+            }
+        }
+        return new FlowField(targetIndex, map.getTerrainVersion(), distances);
+    }
+
+    /**
+     * @return {@code true}, если поле построено для этой клетки цели и рельеф карты с тех пор не менялся.
+     */
+    public boolean isValidFor(GameMapHex map, int targetIndex) {
+        return this.targetIndex == targetIndex
+                && this.terrainVersion == map.getTerrainVersion()
+                && this.distances.length == map.getCellCount();
+    }
+
+    /**
+     * @return расстояние до цели или {@link #UNREACHABLE}.
+     */
+    public int distanceAt(GameMapHex map, int q, int r) {
+        int index = map.indexOf(q, r);
+        return index < 0 ? UNREACHABLE : distances[index];
+    }
+
+    /**
+     * Выбирает следующий шаг к цели: свободную соседнюю клетку с наименьшим расстоянием,
+     * строго меньшим текущего.
+     * @param map  карта (для проверки занятости).
+     * @param from текущая позиция преследователя.
+     * @return клетка следующего шага или {@code null}, если все ведущие к цели клетки заняты
+     *         или цель недостижима.
+     */
+    public Hex nextStep(GameMapHex map, Hex from) {
+        int currentDistance = distanceAt(map, from.getQ(), from.getR());
+        if (currentDistance == UNREACHABLE || currentDistance == 0) {
+            return null;
+        }
+        int bestIndex = -1;
+        int bestDistance = currentDistance;
+        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+            int index = map.indexOf(Hex.neighborQ(from.getQ(), direction), Hex.neighborR(from.getR(), direction));
+            if (index < 0 || distances[index] >= bestDistance || map.isOccupied(index)) {
+                continue;
+            }
+            bestIndex = index;
+            bestDistance = distances[index];
+        }
+        return bestIndex < 0 ? null : new Hex(map.qOfIndex(bestIndex), map.rOfIndex(bestIndex));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.mygame.domain.model.map;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Кэш полей потока ({@link FlowField}) игровой сессии, по одному на преследуемую цель.
+ * <p>
+ * Несколько монстров, преследующих одного игрока, используют одно поле: оно строится
+ * при первом запросе и перестраивается, только когда цель сменила клетку или изменился
+ * рельеф карты. Записи целей, покинувших сессию или погибших, удаляются через {@link #invalidate(String)}.
+ * <p>
+ * Кэш не потокобезопасен и используется только из очереди команд сессии.
+ */
+public class FlowFieldCache {
+    private final Map<String, FlowField> fields = new HashMap<>();
+    private long builds = 0;
+    private long hits = 0;
+
+    /**
+     * Возвращает актуальное поле к клетке, на которой стоит цель.
+     * @param map      карта сессии.
+     * @param targetId ID преследуемой сущности.
+     * @param target   текущая позиция цели.
+     */
+    public FlowField get(GameMapHex map, String targetId, Hex target) {
+        int targetIndex = map.indexOf(target.getQ(), target.getR());
+        FlowField field = fields.get(targetId);
+        if (field != null && field.isValidFor(map, targetIndex)) {
+            hits++;
+            return field;
+        }
+        field = FlowField.build(map, target.getQ(), target.getR());
+        fields.put(targetId, field);
+        builds++;
+        return field;
+    }
+
+    /**
+     * Следующий шаг преследователя к цели.
+     * @return клетка шага или {@code null}, если поле не дает свободного шага.
+     */
+    public Hex nextStep(GameMapHex map, Hex from, String targetId, Hex target) {
+        return get(map, targetId, target).nextStep(map, from);
+    }
+
+    public void invalidate(String targetId) {
+        fields.remove(targetId);
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    public long getBuilds() {
+        return builds;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+}
@@ -1,120 +1,499 @@
 package dev.mygame.domain.model.map;
 
-import dev.mygame.domain.model.Entity;
+import dev.mygame.enums.TileType;
 import dev.mygame.service.internal.SpawnPointInfo;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
-@Getter
+/**
+ * Гексагональная карта.
+ * <p>
+ * Тайлы хранятся в плотных массивах, покрывающих прямоугольник осевых координат
+ * {@code [minQ, minQ + width) x [minR, minR + height)}: тип тайла - в {@code byte[]},
+ * занятость - в {@code int[]}. Доступ к тайлу по координате сводится к вычислению индекса
+ * {@code (r - minR) * width + (q - minQ)}, без хэширования {@link Hex}.
+ * <p>
+ * Границы обычно известны заранее (их вычисляет {@code MapLoader}); при установке тайла
+ * за пределами текущих границ массивы расширяются, поэтому генераторы карт могут
+ * заполнять карту без предварительного расчета границ.
+ */
 public class GameMapHex {
-    private final Map<Hex, Tile> tiles;
+    /** Значение в массиве типов для клетки, где тайла нет. */
+    private static final byte NO_TILE = -1;
+    /** Значение в массиве занятости для свободной клетки. */
+    private static final int NO_OCCUPANT = 0;
+    private static final TileType[] TILE_TYPES = TileType.values();
+
+    @Getter
     private final List<Hex> playerSpawnPoints;
+    @Getter
     private final List<SpawnPointInfo> monsterSpawnPoints;
 
+    @Getter
     private int nextPlayerSpawnIndex = 0;
 
+    @Getter
+    private int minQ;
+    @Getter
+    private int minR;
+    @Getter
+    private int width;
+    @Getter
+    private int height;
+
+    private byte[] tileTypes;
+    private int[] occupants;
+    private int tileCount;
+
+    /** Увеличивается при каждом изменении типа тайла (проходимости карты). */
+    @Getter
+    private long terrainVersion;
+    /** Увеличивается при каждом изменении занятости клеток. */
+    @Getter
+    private long occupancyVersion;
+
+    /** Кэш результатов поиска пути; {@code null} - кэширование выключено. */
+    @Getter
+    @Setter
+    private PathCache pathCache;
+
+    /**
+     * Граф кластеров и порталов для дальних запросов пути; {@code null} - только обычный A*.
+     * Строится по рельефу шаблона карты и разделяется между его копиями.
+     */
+    @Getter
+    @Setter
+    private HierarchicalPathGraph pathGraph;
+
+    /** Компоненты связности проходимых клеток; пересчитываются лениво после изменения рельефа. */
+    private MapConnectivity connectivity;
+
+    /**
+     * Поле зрения клеток; {@code null} - линия видимости не учитывается.
+     * Полностью посчитанное поле шаблона карты разделяется его копиями.
+     */
+    @Getter
+    @Setter
+    private FieldOfView fieldOfView;
+
+    // в массиве занятости хранится дескриптор сущности: положительный - выданный сессией
+    // (Entity#getHandle), отрицательный - выданный картой для занятости, заданной только по ID
+    private final List<String> occupantIds = new ArrayList<>();
+    private final List<String> unregisteredOccupantIds = new ArrayList<>();
+    private final Map<String, Integer> occupantHandles = new HashMap<>();
+
+    /**
+     * @param tiles              тайлы, которые нужно скопировать в карту (может быть {@code null}).
+     * @param minQ               минимальная координата q.
+     * @param minR               минимальная координата r.
+     * @param width              ширина прямоугольника координат (по q).
+     * @param height             высота прямоугольника координат (по r).
+     * @param playerSpawnPoints  точки спавна игроков.
+     * @param monsterSpawnPoints точки спавна монстров.
+     */
     @Builder
-    public GameMapHex(Map<Hex, Tile> tiles, List<Hex> playerSpawnPoints, List<SpawnPointInfo> monsterSpawnPoints) {
-        this.tiles = (tiles != null) ? tiles : new HashMap<>();
+    public GameMapHex(Map<Hex, Tile> tiles, int minQ, int minR, int width, int height,
+                      List<Hex> playerSpawnPoints, List<SpawnPointInfo> monsterSpawnPoints) {
         this.playerSpawnPoints = (playerSpawnPoints != null) ? playerSpawnPoints : new ArrayList<>();
         this.monsterSpawnPoints = (monsterSpawnPoints != null) ? monsterSpawnPoints : new ArrayList<>();
+
+        this.minQ = minQ;
+        this.minR = minR;
+        this.width = Math.max(width, 0);
+        this.height = Math.max(height, 0);
+        this.tileTypes = new byte[this.width * this.height];
+        this.occupants = new int[this.width * this.height];
+        Arrays.fill(this.tileTypes, NO_TILE);
+
+        if (tiles != null) {
+            tiles.forEach(this::setTile);
+        }
     }
 
+    /**
+     * Создает независимую копию карты для новой игровой сессии: рельеф, точки спавна,
+     * компоненты связности, посчитанное поле зрения и граф иерархического поиска. Занятость клеток и кэш путей не копируются.
+     */
+    public GameMapHex copy() {
+        GameMapHex copy = new GameMapHex(null, minQ, minR, 0, 0,
+                new ArrayList<>(playerSpawnPoints), new ArrayList<>(monsterSpawnPoints));
+        copy.width = width;
+        copy.height = height;
+        copy.tileTypes = tileTypes.clone();
+        copy.occupants = new int[occupants.length];
+        copy.tileCount = tileCount;
+        copy.terrainVersion = terrainVersion;
+        copy.pathGraph = pathGraph;
+        copy.connectivity = connectivity;
+        // лениво считаемое поле изменяется при чтении, поэтому разделять можно только готовое
+        copy.fieldOfView = fieldOfView != null && fieldOfView.isPrecomputed() ? fieldOfView : null;
+        return copy;
+    }
 
-    public Tile getTile(Hex hex) {
-        return this.tiles.get(hex);
+    /**
+     * @return индекс клетки в плотных массивах или -1, если координата вне границ карты.
+     */
+    public int indexOf(int q, int r) {
+        int localQ = q - minQ;
+        int localR = r - minR;
+        if (localQ < 0 || localQ >= width || localR < 0 || localR >= height) {
+            return -1;
+        }
+        return localR * width + localQ;
     }
 
-    public void setTile(Hex hex, Tile tile) {
-        this.tiles.put(hex, tile);
+    public int qOfIndex(int index) {
+        return minQ + index % width;
     }
 
-    public Collection<Tile> getAllTiles() {
-        return this.tiles.values();
+    public int rOfIndex(int index) {
+        return minR + index / width;
     }
 
-    public Set<Map.Entry<Hex, Tile>> getTileEntries() {
-        return tiles.entrySet();
+    /**
+     * @return количество клеток прямоугольника карты (включая клетки без тайлов).
+     */
+    public int getCellCount() {
+        return tileTypes.length;
     }
 
-    public List<Hex> findPath(Hex start, Hex end, Collection<Entity> otherEntities, String startEntityId) {
-        Tile startTile = getTile(start);
-        Tile targetTile = getTile(end);
+    /**
+     * @return количество клеток, на которых есть тайл.
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
 
-        if (startTile == null) {
-            return new ArrayList<>();
+    public boolean hasTile(int index) {
+        return index >= 0 && tileTypes[index] != NO_TILE;
+    }
+
+    public boolean hasTile(int q, int r) {
+        return hasTile(indexOf(q, r));
+    }
+
+    /**
+     * @return тип тайла по индексу или {@code null}, если тайла нет.
+     */
+    public TileType getTileType(int index) {
+        if (index < 0) {
+            return null;
         }
-        if (targetTile == null) {
-            return new ArrayList<>();
+        byte type = tileTypes[index];
+        return type == NO_TILE ? null : TILE_TYPES[type];
+    }
+
+    public TileType getTileType(int q, int r) {
+        return getTileType(indexOf(q, r));
+    }
+
+    public void setTileType(int q, int r, TileType type) {
+        int index = indexOf(q, r);
+        if (index < 0) {
+            if (type == null) {
+                return;
+            }
+            grow(q, r);
+            index = indexOf(q, r);
         }
-        if (!targetTile.isPassable()) {
-            return new ArrayList<>();
+        byte previous = tileTypes[index];
+        terrainVersion++;
+        if (type == null) {
+            tileTypes[index] = NO_TILE;
+            occupants[index] = NO_OCCUPANT;
+        } else {
+            tileTypes[index] = (byte) type.ordinal();
+        }
+        if (previous == NO_TILE && type != null) {
+            tileCount++;
+        } else if (previous != NO_TILE && type == null) {
+            tileCount--;
+        }
+    }
+
+    /**
+     * @return {@code true}, если на клетке есть тайл и по нему можно ходить.
+     */
+    public boolean isPassable(int index) {
+        if (index < 0) {
+            return false;
+        }
+        byte type = tileTypes[index];
+        return type != NO_TILE && TILE_TYPES[type].isWalkable();
+    }
+
+    public boolean isPassable(int q, int r) {
+        return isPassable(indexOf(q, r));
+    }
+
+    public boolean isOccupied(int index) {
+        return index >= 0 && occupants[index] != NO_OCCUPANT;
+    }
+
+    public boolean isOccupied(int q, int r) {
+        return isOccupied(indexOf(q, r));
+    }
+
+    public String getOccupantId(int q, int r) {
+        int index = indexOf(q, r);
+        if (index < 0 || occupants[index] == NO_OCCUPANT) {
+            return null;
+        }
+        int handle = occupants[index];
+        return handle > 0 ? occupantIds.get(handle - 1) : unregisteredOccupantIds.get(-handle - 1);
+    }
+
+    /**
+     * @return дескриптор сущности на клетке или 0, если клетка свободна.
+     */
+    public int getOccupantHandle(int q, int r) {
+        int index = indexOf(q, r);
+        return index < 0 ? NO_OCCUPANT : occupants[index];
+    }
+
+    public void setOccupantId(int q, int r, String occupantId) {
+        setOccupantHandle(q, r, occupantId == null ? NO_OCCUPANT : occupantHandle(occupantId));
+    }
+
+    /**
+     * Занимает клетку сущностью с дескриптором, выданным игровой сессией.
+     * @param handle     положительный дескриптор сущности.
+     * @param occupantId ID сущности (для {@link #getOccupantId(int, int)}).
+     */
+    public void setOccupant(int q, int r, int handle, String occupantId) {
+        if (handle <= 0) {
+            throw new IllegalArgumentException("Occupant handle must be positive: " + handle);
+        }
+        while (occupantIds.size() < handle) {
+            occupantIds.add(null);
         }
-        if (start.equals(end)) {
-            return Collections.singletonList(start);
+        if (!occupantId.equals(occupantIds.get(handle - 1))) {
+            occupantIds.set(handle - 1, occupantId);
+            occupantHandles.put(occupantId, handle);
         }
+        setOccupantHandle(q, r, handle);
+    }
 
-        Set<Hex> occupiedHexes = otherEntities.stream()
-                .filter(e -> !e.getId().equals(startEntityId))
-                .map(Entity::getPosition)
-                .collect(Collectors.toSet());
+    /**
+     * Освобождает клетку.
+     */
+    public void clearOccupant(int q, int r) {
+        setOccupantHandle(q, r, NO_OCCUPANT);
+    }
 
-        PriorityQueue<AStarNode> openSet = new PriorityQueue<>(Comparator.comparingInt(AStarNode::getFCost));
-        Map<Hex, AStarNode> allNodes = new HashMap<>();
+    private void setOccupantHandle(int q, int r, int occupant) {
+        int index = indexOf(q, r);
+        if (index < 0 || tileTypes[index] == NO_TILE) {
+            return;
+        }
+        if (occupants[index] != occupant) {
+            occupants[index] = occupant;
+            occupancyVersion++;
+        }
+    }
 
-        AStarNode startNode = new AStarNode(start, null, 0, start.distanceTo(end));
-        openSet.add(startNode);
-        allNodes.put(start, startNode);
+    /**
+     * Возвращает тайл по осевым координатам.
+     * Возвращаемый тайл - вид на данные карты, изменения через него сразу попадают в карту.
+     * @return тайл или {@code null}, если на этой координате тайла нет.
+     */
+    public Tile getTile(int q, int r) {
+        return hasTile(q, r) ? new Tile(this, q, r) : null;
+    }
 
-        while (!openSet.isEmpty()) {
-            AStarNode currentNode = openSet.poll();
+    public Tile getTile(Hex hex) {
+        return getTile(hex.getQ(), hex.getR());
+    }
 
-            if (currentNode.getHex().equals(end)) {
-                return reconstructPath(currentNode);
+    /**
+     * Копирует тип и занятость тайла в карту. Клетки за пределами границ расширяют карту.
+     */
+    public void setTile(Hex hex, Tile tile) {
+        setTileType(hex.getQ(), hex.getR(), tile != null ? tile.getType() : null);
+        if (tile != null) {
+            setOccupantId(hex.getQ(), hex.getR(), tile.getOccupiedById());
+        }
+    }
+
+    public Collection<Tile> getAllTiles() {
+        List<Tile> result = new ArrayList<>(tileCount);
+        for (int index = 0; index < tileTypes.length; index++) {
+            if (tileTypes[index] != NO_TILE) {
+                result.add(new Tile(this, qOfIndex(index), rOfIndex(index)));
             }
-            if (currentNode.getGCost() > allNodes.get(currentNode.getHex()).getGCost()) {
-                continue;
+        }
+        return result;
+    }
+
+    public Set<Map.Entry<Hex, Tile>> getTileEntries() {
+        Map<Hex, Tile> entries = new LinkedHashMap<>();
+        for (int index = 0; index < tileTypes.length; index++) {
+            if (tileTypes[index] != NO_TILE) {
+                int q = qOfIndex(index);
+                int r = rOfIndex(index);
+                entries.put(new Hex(q, r), new Tile(this, q, r));
             }
+        }
+        return entries.entrySet();
+    }
+
+    private int occupantHandle(String occupantId) {
+        Integer handle = occupantHandles.get(occupantId);
+        if (handle == null) {
+            unregisteredOccupantIds.add(occupantId);
+            handle = -unregisteredOccupantIds.size();
+            occupantHandles.put(occupantId, handle);
+        }
+        return handle;
+    }
 
-            for (Hex direction : Hex.DIRECTIONS) {
-                Hex neighborHex = currentNode.getHex().add(direction);
-
-                Tile neighborTile = getTile(neighborHex);
-                if (neighborTile == null || !neighborTile.isPassable()) {
-                    continue;
-                }
-                if (occupiedHexes.contains(neighborHex) && !neighborHex.equals(end)) {
-                    continue;
-                }
-
-                int newGCost = currentNode.getGCost() + 1;
-                AStarNode neighborNode = allNodes.get(neighborHex);
-                if (neighborNode == null || newGCost < neighborNode.getGCost()) {
-                    AStarNode newNode = new AStarNode(neighborHex, currentNode, newGCost, neighborHex.distanceTo(end));
-                    allNodes.put(neighborHex, newNode);
-                    openSet.add(newNode);
-                }
+    /**
+     * Расширяет массивы так, чтобы координата (q, r) попала в границы карты.
+     * Запас добавляется с той стороны, в которую растет карта, чтобы последовательное
+     * заполнение генератором не копировало массивы на каждом тайле.
+     */
+    private void grow(int q, int r) {
+        int newMinQ = minQ;
+        int newMinR = minR;
+        int newMaxQ = minQ + width - 1;
+        int newMaxR = minR + height - 1;
+        if (width == 0 || height == 0) {
+            newMinQ = newMaxQ = q;
+            newMinR = newMaxR = r;
+        }
+        int slackQ = Math.max(8, width / 2);
+        int slackR = Math.max(8, height / 2);
+        if (q < newMinQ) newMinQ = q - slackQ;
+        if (q > newMaxQ) newMaxQ = q + slackQ;
+        if (r < newMinR) newMinR = r - slackR;
+        if (r > newMaxR) newMaxR = r + slackR;
+
+        int newWidth = newMaxQ - newMinQ + 1;
+        int newHeight = newMaxR - newMinR + 1;
+        byte[] newTypes = new byte[newWidth * newHeight];
+        int[] newOccupants = new int[newWidth * newHeight];
+        Arrays.fill(newTypes, NO_TILE);
+        for (int row = 0; row < height; row++) {
+            int from = row * width;
+            int to = (minR + row - newMinR) * newWidth + (minQ - newMinQ);
+            System.arraycopy(tileTypes, from, newTypes, to, width);
+            System.arraycopy(occupants, from, newOccupants, to, width);
+        }
+
+        this.minQ = newMinQ;
+        this.minR = newMinR;
+        this.width = newWidth;
+        this.height = newHeight;
+        this.tileTypes = newTypes;
+        this.occupants = newOccupants;
+    }
+
+    /**
+     * Возвращает компоненты связности проходимых клеток, при необходимости пересчитывая
+     * их по текущему рельефу (O(размер карты)).
+     */
+    public MapConnectivity getConnectivity() {
+        MapConnectivity current = connectivity;
+        if (current == null || !current.isValidFor(this)) {
+            current = MapConnectivity.build(this);
+            connectivity = current;
+        }
+        return current;
+    }
+
+    /**
+     * Проверяет линию видимости между клетками по {@link FieldOfView} карты.
+     * После изменения рельефа поле зрения пересчитывается (лениво, по клеткам-наблюдателям).
+     * @return {@code true}, если клетка (toQ, toR) видна из (fromQ, fromR); без поля зрения - всегда {@code true}.
+     */
+    public boolean canSee(int fromQ, int fromR, int toQ, int toR) {
+        FieldOfView current = fieldOfView;
+        if (current == null) {
+            return true;
+        }
+        if (!current.isValidFor(this)) {
+            current = new FieldOfView(this, current.getRadius());
+            fieldOfView = current;
+        }
+        return current.canSee(this, fromQ, fromR, toQ, toR);
+    }
+
+    public boolean canSee(Hex from, Hex to) {
+        return canSee(from.getQ(), from.getR(), to.getQ(), to.getR());
+    }
+
+    /**
+     * Быстрая (O(1)) проверка, может ли вообще существовать путь между клетками.
+     * Путь заведомо невозможен, если клетки лежат в разных компонентах связности или если
+     * у начальной либо конечной клетки не осталось ни одного свободного проходимого соседа
+     * (клетка окружена стенами и сущностями). Результат {@code true} не гарантирует, что путь есть.
+     */
+    public boolean isPathPossible(int startIndex, int endIndex) {
+        if (startIndex < 0 || endIndex < 0 || startIndex == endIndex) {
+            return true;
+        }
+        if (Hex.distance(qOfIndex(startIndex), rOfIndex(startIndex), qOfIndex(endIndex), rOfIndex(endIndex)) == 1) {
+            return true;
+        }
+        MapConnectivity current = getConnectivity();
+        int startComponent = current.getComponentId(startIndex);
+        int endComponent = current.getComponentId(endIndex);
+        if (startComponent != MapConnectivity.NONE && endComponent != MapConnectivity.NONE
+                && startComponent != endComponent) {
+            return false;
+        }
+        return hasFreeNeighbor(startIndex) && hasFreeNeighbor(endIndex);
+    }
+
+    private boolean hasFreeNeighbor(int index) {
+        int q = qOfIndex(index);
+        int r = rOfIndex(index);
+        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+            int neighbor = indexOf(Hex.neighborQ(q, direction), Hex.neighborR(r, direction));
+            if (isPassable(neighbor) && !isOccupied(neighbor)) {
+                return true;
             }
         }
-        return new ArrayList<>();
+        return false;
     }
 
-    private List<Hex> reconstructPath(AStarNode node) {
-        List<Hex> path = new ArrayList<>();
+    /**
+     * Находит кратчайший путь между клетками с учетом стен и занятых клеток карты.
+     * Заведомо невозможные запросы (см. {@link #isPathPossible(int, int)}) отклоняются без поиска.
+     * Дальние запросы на карте с {@link HierarchicalPathGraph} выполняются иерархически.
+     * Если карте назначен {@link PathCache}, повторный запрос той же пары клеток при неизменной
+     * занятости и рельефе возвращает сохраненный путь.
+     * @see HexPathfinder
+     * @return путь, включающий начальную и конечную клетки, или пустой список, если пути нет.
+     *         При включенном кэше возвращаемый путь неизменяем.
+     */
+    public List<Hex> findPath(Hex start, Hex end) {
+        int startIndex = indexOf(start.getQ(), start.getR());
+        int endIndex = indexOf(end.getQ(), end.getR());
+        if (!isPathPossible(startIndex, endIndex)) {
+            return new ArrayList<>();
+        }
+        if (pathCache == null || startIndex < 0 || endIndex < 0) {
+            return computePath(start, end);
+        }
+        List<Hex> cached = pathCache.get(startIndex, endIndex, occupancyVersion, terrainVersion);
+        if (cached != null) {
+            return cached;
+        }
+        return pathCache.put(startIndex, endIndex, occupancyVersion, terrainVersion, computePath(start, end));
+    }
 
-        AStarNode currentNode = node;
-        while(currentNode != null) {
-            path.add(currentNode.getHex());
-            currentNode = currentNode.getParent();
+    private List<Hex> computePath(Hex start, Hex end) {
+        if (pathGraph != null && pathGraph.shouldHandle(this, start, end)) {
+            List<Hex> path = pathGraph.findPath(this, start, end);
+            if (path != null) {
+                return path;
+            }
         }
-        Collections.reverse(path);
-        //path.remove(0);
-        return path;
+        return HexPathfinder.findPath(this, start, end);
     }
 
     /**
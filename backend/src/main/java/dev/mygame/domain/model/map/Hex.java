@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 @Data
 @NoArgsConstructor
@@ -26,22 +25,101 @@ public class Hex {
             new Hex(0, 1)
     );
 
+    /** Количество направлений (соседей) у гекса. */
+    public static final int DIRECTION_COUNT = 6;
+
+    // те же направления, что и в DIRECTIONS, в виде примитивов - для циклов без аллокаций
+    private static final int[] DIR_Q = {1, 1, 0, -1, -1, 0};
+    private static final int[] DIR_R = {0, -1, -1, 0, 1, 1};
+
+    /**
+     * Координата q соседа в заданном направлении.
+     * Вместе с {@link #neighborR(int, int)} позволяет обходить соседей без создания объектов:
+     * <pre>{@code
+     * for (int dir = 0; dir < Hex.DIRECTION_COUNT; dir++) {
+     *     int nq = Hex.neighborQ(q, dir);
+     *     int nr = Hex.neighborR(r, dir);
+     * }
+     * }</pre>
+     * @param q         координата q гекса.
+     * @param direction индекс направления от 0 до 5.
+     */
+    public static int neighborQ(int q, int direction) {
+        return q + DIR_Q[direction];
+    }
+
+    /**
+     * Координата r соседа в заданном направлении.
+     * @param r         координата r гекса.
+     * @param direction индекс направления от 0 до 5.
+     */
+    public static int neighborR(int r, int direction) {
+        return r + DIR_R[direction];
+    }
+
+    /**
+     * Расстояние между двумя гексами в осевых координатах.
+     */
+    public static int distance(int q1, int r1, int q2, int r2) {
+        int dq = q1 - q2;
+        int dr = r1 - r2;
+        return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+
+    /**
+     * Упаковывает координату в long: q в старших 32 битах, r в младших.
+     */
+    public static long pack(int q, int r) {
+        return ((long) q << 32) | (r & 0xFFFFFFFFL);
+    }
+
+    public static int unpackQ(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackR(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Упаковывает координату в int: по 16 бит на q и r.
+     * Подходит для карт, координаты которых лежат в диапазоне [-32768, 32767].
+     */
+    public static int packInt(int q, int r) {
+        return (q << 16) | (r & 0xFFFF);
+    }
+
+    public static int unpackIntQ(int key) {
+        return key >> 16;
+    }
+
+    public static int unpackIntR(int key) {
+        return (short) key;
+    }
+
+    public static Hex fromKey(long key) {
+        return new Hex(unpackQ(key), unpackR(key));
+    }
+
+    public long toKey() {
+        return pack(q, r);
+    }
+
     /**
      * Возвращает соседа в заданном направлении
      * @param direction Индекс направления от 0 до 5
      * @return Координата соседа
      */
     public Hex getNeighbor(int direction) {
-        return this.add(DIRECTIONS.get(direction));
+        return new Hex(neighborQ(q, direction), neighborR(r, direction));
     }
 
     @JsonIgnore
     public List<Hex> getNeighbors() {
-        List<Hex> neighbors = new ArrayList<>();
+        List<Hex> neighbors = new ArrayList<>(DIRECTION_COUNT);
         // Проходимся циклом по всем направлениям
-        for (Hex direction : DIRECTIONS) {
-            // Добавляем к текущему гексу вектор направления
-            neighbors.add(this.add(direction));
+        for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+            neighbors.add(getNeighbor(direction));
         }
         return neighbors;
     }
@@ -59,8 +137,7 @@ public class Hex {
     }
 
     public int distanceTo(Hex h) {
-        Hex vec = this.subtract(h);
-        return (Math.abs(vec.getQ()) + Math.abs(vec.getR()) + Math.abs(vec.getS())) / 2;
+        return distance(q, r, h.q, h.r);
     }
 
     @Override
@@ -73,7 +150,8 @@ public class Hex {
 
     @Override
     public int hashCode() {
-        return Objects.hash(q, r);
+        // то же значение, что и Objects.hash(q, r), но без упаковки аргументов в массив
+        return 31 * (31 + q) + r;
     }
 
     @Override
@@ -0,0 +1,204 @@
+package dev.mygame.domain.model.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Поиск пути A* по индексам клеток {@link GameMapHex}.
+ * <p>
+ * Все рабочие структуры (стоимости, родители, открытый список) - массивы int,
+ * которые переиспользуются между поисками в рамках одного потока. Вместо очистки
+ * массивов перед каждым поиском используется номер поколения: значение в ячейке
+ * считается действительным, только если её отметка совпадает с текущим поколением.
+ * <p>
+ * Занятость клеток берется из данных карты ({@link GameMapHex#isOccupied(int)}),
+ * поэтому при поиске не нужно перебирать сущности сессии. Занятая цель пути
+ * допустима - это позволяет строить путь "до" противника.
+ * <p>
+ * Единственная аллокация на поиск - результирующий список гексов.
+ */
+public final class HexPathfinder {
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private HexPathfinder() {
+    }
+
+    /**
+     * Находит кратчайший путь между двумя клетками.
+     * @param map    карта.
+     * @param start  начальная клетка (её занятость не учитывается).
+     * @param end    целевая клетка.
+     * @return путь, включающий начальную и конечную клетки, или пустой список, если пути нет.
+     */
+    public static List<Hex> findPath(GameMapHex map, Hex start, Hex end) {
+        int startIndex = map.indexOf(start.getQ(), start.getR());
+        int endIndex = map.indexOf(end.getQ(), end.getR());
+        if (!map.hasTile(startIndex) || !map.isPassable(endIndex)) {
+            return new ArrayList<>();
+        }
+        if (startIndex == endIndex) {
+            return Collections.singletonList(start);
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.prepare(map.getCellCount());
+        int[] gScore = scratch.gScore;
+        int[] parent = scratch.parent;
+        int[] stamp = scratch.stamp;
+        int openGeneration = scratch.generation;
+        int closedGeneration = openGeneration + 1;
+
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int endQ = end.getQ() - map.getMinQ();
+        int endR = end.getR() - map.getMinR();
+
+        gScore[startIndex] = 0;
+        parent[startIndex] = -1;
+        stamp[startIndex] = openGeneration;
+        scratch.push(startIndex, Hex.distance(start.getQ() - map.getMinQ(), start.getR() - map.getMinR(), endQ, endR), 0);
+
+        while (scratch.heapSize > 0) {
+            int current = scratch.pop();
+            if (stamp[current] == closedGeneration) {
+                // устаревшая запись: клетка уже закрыта с меньшей стоимостью
+                continue;
+            }
+            if (current == endIndex) {
+                return reconstructPath(map, parent, endIndex);
+            }
+            stamp[current] = closedGeneration;
+
+            int localQ = current % width;
+            int localR = current / width;
+            int nextG = gScore[current] + 1;
+
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                int neighborQ = Hex.neighborQ(localQ, direction);
+                int neighborR = Hex.neighborR(localR, direction);
+                if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                    continue;
+                }
+                int neighbor = neighborR * width + neighborQ;
+                int neighborStamp = stamp[neighbor];
+                if (neighborStamp == closedGeneration) {
+                    continue;
+                }
+                if (!map.isPassable(neighbor) || (neighbor != endIndex && map.isOccupied(neighbor))) {
+                    continue;
+                }
+                if (neighborStamp == openGeneration && gScore[neighbor] <= nextG) {
+                    continue;
+                }
+                gScore[neighbor] = nextG;
+                parent[neighbor] = current;
+                stamp[neighbor] = openGeneration;
+                int h = Hex.distance(neighborQ, neighborR, endQ, endR);
+                scratch.push(neighbor, nextG + h, h);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private static List<Hex> reconstructPath(GameMapHex map, int[] parent, int endIndex) {
+        List<Hex> path = new ArrayList<>();
+        for (int index = endIndex; index != -1; index = parent[index]) {
+            path.add(new Hex(map.qOfIndex(index), map.rOfIndex(index)));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Рабочие буферы одного потока.
+     */
+    private static final class Scratch {
+        int[] gScore = new int[0];
+        int[] parent = new int[0];
+        int[] stamp = new int[0];
+        // каждый поиск занимает два поколения: "открыта" и "закрыта"
+        int generation = -1;
+
+        // двоичная куча: индекс клетки, f-стоимость и эвристика для разрешения равенства f
+        int[] heapNodes = new int[64];
+        int[] heapF = new int[64];
+        int[] heapH = new int[64];
+        int heapSize;
+
+        void prepare(int cellCount) {
+            if (gScore.length < cellCount) {
+                gScore = new int[cellCount];
+                parent = new int[cellCount];
+                stamp = new int[cellCount];
+                generation = -1;
+            }
+            generation += 2;
+            if (generation <= 0 || generation == Integer.MAX_VALUE) {
+                // переполнение счетчика поколений: один раз сбрасываем отметки
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            heapSize = 0;
+        }
+
+        void push(int node, int f, int h) {
+            if (heapSize == heapNodes.length) {
+                int newLength = heapNodes.length << 1;
+                heapNodes = Arrays.copyOf(heapNodes, newLength);
+                heapF = Arrays.copyOf(heapF, newLength);
+                heapH = Arrays.copyOf(heapH, newLength);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parentPos = (i - 1) >>> 1;
+                if (!less(f, h, heapF[parentPos], heapH[parentPos])) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parentPos];
+                heapF[i] = heapF[parentPos];
+                heapH[i] = heapH[parentPos];
+                i = parentPos;
+            }
+            heapNodes[i] = node;
+            heapF[i] = f;
+            heapH[i] = h;
+        }
+
+        int pop() {
+            int result = heapNodes[0];
+            int last = --heapSize;
+            if (last == 0) {
+                return result;
+            }
+            int node = heapNodes[last];
+            int f = heapF[last];
+            int h = heapH[last];
+            int i = 0;
+            int half = last >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                int right = child + 1;
+                if (right < last && less(heapF[right], heapH[right], heapF[child], heapH[child])) {
+                    child = right;
+                }
+                if (!less(heapF[child], heapH[child], f, h)) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapF[i] = heapF[child];
+                heapH[i] = heapH[child];
+                i = child;
+            }
+            heapNodes[i] = node;
+            heapF[i] = f;
+            heapH[i] = h;
+            return result;
+        }
+
+        private static boolean less(int f1, int h1, int f2, int h2) {
+            return f1 < f2 || (f1 == f2 && h1 < h2);
+        }
+    }
+}
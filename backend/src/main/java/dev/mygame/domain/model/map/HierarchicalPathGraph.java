@@ -0,0 +1,495 @@
+package dev.mygame.domain.model.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Абстрактный граф для иерархического поиска пути (HPA*) на больших картах.
+ * <p>
+ * Карта делится на квадратные (в осевых координатах) кластеры {@code clusterSize x clusterSize}.
+ * На каждом участке границы двух кластеров, где через нее можно пройти, выбирается
+ * пара клеток-порталов. Узлы графа - клетки-порталы, ребра - переходы через границу
+ * (стоимость 1) и пути между порталами внутри одного кластера (стоимость - длина пути
+ * по кластеру). Граф строится один раз по рельефу шаблона карты и разделяется между
+ * всеми копиями карты, пока их рельеф не менялся.
+ * <p>
+ * Дальний запрос сначала ищет последовательность порталов в абстрактном графе,
+ * затем уточняет каждый короткий участок между соседними порталами обычным A*
+ * с учетом занятости клеток. Найденный путь близок к кратчайшему, но не обязательно кратчайший.
+ */
+public final class HierarchicalPathGraph {
+    private final int clusterSize;
+    private final int minDistance;
+
+    // параметры карты, по которой построен граф
+    private final long terrainVersion;
+    private final int minQ;
+    private final int minR;
+    private final int width;
+    private final int height;
+    private final int clustersWide;
+    private final int clusterCount;
+
+    private final int[] nodeCell;
+    private final int[] cellNode;
+    private final int[][] clusterNodes;
+
+    // ребра в формате CSR: ребра узла n - [edgeStart[n], edgeStart[n + 1])
+    private final int[] edgeStart;
+    private final int[] edgeTarget;
+    private final int[] edgeCost;
+
+    private HierarchicalPathGraph(GameMapHex map, int clusterSize, int minDistance, Builder builder) {
+        this.clusterSize = clusterSize;
+        this.minDistance = minDistance;
+        this.terrainVersion = map.getTerrainVersion();
+        this.minQ = map.getMinQ();
+        this.minR = map.getMinR();
+        this.width = map.getWidth();
+        this.height = map.getHeight();
+        this.clustersWide = builder.clustersWide;
+        this.clusterCount = builder.clusterCount;
+        this.nodeCell = builder.nodeCells.stream().mapToInt(Integer::intValue).toArray();
+        this.cellNode = builder.cellNode;
+
+        this.clusterNodes = new int[clusterCount][];
+        int[] counts = new int[clusterCount];
+        for (int cell : nodeCell) {
+            counts[builder.clusterOf(cell)]++;
+        }
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            clusterNodes[cluster] = new int[counts[cluster]];
+        }
+        Arrays.fill(counts, 0);
+        for (int node = 0; node < nodeCell.length; node++) {
+            int cluster = builder.clusterOf(nodeCell[node]);
+            clusterNodes[cluster][counts[cluster]++] = node;
+        }
+
+        int nodeCount = nodeCell.length;
+        this.edgeStart = new int[nodeCount + 1];
+        for (int[] edge : builder.edges) {
+            edgeStart[edge[0] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node + 1] += edgeStart[node];
+        }
+        this.edgeTarget = new int[builder.edges.size()];
+        this.edgeCost = new int[builder.edges.size()];
+        int[] fill = Arrays.copyOf(edgeStart, nodeCount);
+        for (int[] edge : builder.edges) {
+            int position = fill[edge[0]]++;
+            edgeTarget[position] = edge[1];
+            edgeCost[position] = edge[2];
+        }
+    }
+
+    /**
+     * Строит граф по текущему рельефу карты.
+     * @param map         карта-шаблон.
+     * @param clusterSize размер стороны кластера в клетках.
+     * @param minDistance минимальное расстояние между клетками, начиная с которого
+     *                    запрос выполняется иерархически; более короткие пути ищет обычный A*.
+     */
+    public static HierarchicalPathGraph build(GameMapHex map, int clusterSize, int minDistance) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        Builder builder = new Builder(map, clusterSize);
+        builder.createPortals();
+        builder.connectPortalsInsideClusters();
+        return new HierarchicalPathGraph(map, clusterSize, minDistance, builder);
+    }
+
+    /**
+     * @return {@code true}, если граф построен по этому рельефу и запрос достаточно длинный,
+     *         чтобы искать путь иерархически.
+     */
+    public boolean shouldHandle(GameMapHex map, Hex start, Hex goal) {
+        if (!isValidFor(map)) {
+            return false;
+        }
+        if (Hex.distance(start.getQ(), start.getR(), goal.getQ(), goal.getR()) < minDistance) {
+            return false;
+        }
+        int startIndex = map.indexOf(start.getQ(), start.getR());
+        int goalIndex = map.indexOf(goal.getQ(), goal.getR());
+        return startIndex >= 0 && goalIndex >= 0 && clusterOf(startIndex) != clusterOf(goalIndex);
+    }
+
+    public boolean isValidFor(GameMapHex map) {
+        return map.getTerrainVersion() == terrainVersion
+                && map.getMinQ() == minQ && map.getMinR() == minR
+                && map.getWidth() == width && map.getHeight() == height;
+    }
+
+    /**
+     * Ищет путь через абстрактный граф и уточняет его по участкам.
+     * @return путь, включающий начальную и конечную клетки; пустой список, если цель недостижима;
+     *         {@code null}, если уточнить путь не удалось (например, портал занят) и нужен обычный поиск.
+     */
+    public List<Hex> findPath(GameMapHex map, Hex start, Hex goal) {
+        int startIndex = map.indexOf(start.getQ(), start.getR());
+        int goalIndex = map.indexOf(goal.getQ(), goal.getR());
+        if (!map.hasTile(startIndex) || !map.isPassable(goalIndex)) {
+            return new ArrayList<>();
+        }
+
+        int[] startDistances = distancesToClusterNodes(map, startIndex);
+        int[] goalDistances = distancesToClusterNodes(map, goalIndex);
+        int[] startNodes = clusterNodes[clusterOf(startIndex)];
+        int[] goalNodes = clusterNodes[clusterOf(goalIndex)];
+
+        int nodeCount = nodeCell.length;
+        int goalNode = nodeCount;
+        int[] gScore = new int[nodeCount + 1];
+        int[] parent = new int[nodeCount + 1];
+        boolean[] closed = new boolean[nodeCount + 1];
+        Arrays.fill(gScore, Integer.MAX_VALUE);
+
+        // в куче: (f << 32) | узел
+        PriorityQueue<Long> open = new PriorityQueue<>();
+        for (int i = 0; i < startNodes.length; i++) {
+            if (startDistances[i] == Integer.MAX_VALUE) {
+                continue;
+            }
+            int node = startNodes[i];
+            gScore[node] = startDistances[i];
+            parent[node] = -1;
+            open.add(((long) (gScore[node] + heuristic(node, goal)) << 32) | node);
+        }
+        int[] goalDistanceByNode = new int[nodeCount];
+        Arrays.fill(goalDistanceByNode, Integer.MAX_VALUE);
+        for (int i = 0; i < goalNodes.length; i++) {
+            goalDistanceByNode[goalNodes[i]] = goalDistances[i];
+        }
+
+        while (!open.isEmpty()) {
+            int node = (int) (long) open.poll();
+            if (closed[node]) {
+                continue;
+            }
+            if (node == goalNode) {
+                return refine(map, start, goal, parent);
+            }
+            closed[node] = true;
+
+            if (goalDistanceByNode[node] != Integer.MAX_VALUE) {
+                int cost = gScore[node] + goalDistanceByNode[node];
+                if (cost < gScore[goalNode]) {
+                    gScore[goalNode] = cost;
+                    parent[goalNode] = node;
+                    open.add(((long) cost << 32) | goalNode);
+                }
+            }
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int target = edgeTarget[edge];
+                int cost = gScore[node] + edgeCost[edge];
+                if (closed[target] || cost >= gScore[target]) {
+                    continue;
+                }
+                gScore[target] = cost;
+                parent[target] = node;
+                open.add(((long) (cost + heuristic(target, goal)) << 32) | target);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Hex> refine(GameMapHex map, Hex start, Hex goal, int[] parent) {
+        List<Integer> nodes = new ArrayList<>();
+        for (int node = parent[nodeCell.length]; node != -1; node = parent[node]) {
+            nodes.add(node);
+        }
+
+        List<Hex> path = new ArrayList<>();
+        path.add(start);
+        Hex from = start;
+        for (int i = nodes.size() - 1; i >= -1; i--) {
+            Hex to;
+            if (i >= 0) {
+                int cell = nodeCell[nodes.get(i)];
+                if (map.isOccupied(cell)) {
+                    return null;
+                }
+                to = new Hex(map.qOfIndex(cell), map.rOfIndex(cell));
+            } else {
+                to = goal;
+            }
+            if (to.equals(from)) {
+                continue;
+            }
+            List<Hex> segment = HexPathfinder.findPath(map, from, to);
+            if (segment.isEmpty()) {
+                return null;
+            }
+            path.addAll(segment.subList(1, segment.size()));
+            from = to;
+        }
+        return path;
+    }
+
+    /**
+     * Расстояния от клетки до всех порталов её кластера по клеткам этого кластера.
+     * @return массив, параллельный {@code clusterNodes[cluster]}.
+     */
+    private int[] distancesToClusterNodes(GameMapHex map, int cell) {
+        int cluster = clusterOf(cell);
+        int[] nodes = clusterNodes[cluster];
+        int[] result = new int[nodes.length];
+        Arrays.fill(result, Integer.MAX_VALUE);
+        if (nodes.length == 0) {
+            return result;
+        }
+        Map<Integer, Integer> distances = bfsInCluster(map, cell, cluster);
+        for (int i = 0; i < nodes.length; i++) {
+            Integer distance = distances.get(nodeCell[nodes[i]]);
+            if (distance != null) {
+                result[i] = distance;
+            }
+        }
+        return result;
+    }
+
+    private Map<Integer, Integer> bfsInCluster(GameMapHex map, int source, int cluster) {
+        Map<Integer, Integer> distances = new HashMap<>();
+        int[] queue = new int[clusterSize * clusterSize];
+        int head = 0;
+        int tail = 0;
+        distances.put(source, 0);
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int distance = distances.get(current);
+            int localQ = current % width;
+            int localR = current / width;
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                int neighborQ = Hex.neighborQ(localQ, direction);
+                int neighborR = Hex.neighborR(localR, direction);
+                if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                    continue;
+                }
+                int neighbor = neighborR * width + neighborQ;
+                if (clusterOf(neighbor) != cluster || !map.isPassable(neighbor) || distances.containsKey(neighbor)) {
+                    continue;
+                }
+                distances.put(neighbor, distance + 1);
+                queue[tail++] = neighbor;
+            }
+        }
+        return distances;
+    }
+
+    private int heuristic(int node, Hex goal) {
+        int cell = nodeCell[node];
+        return Hex.distance(minQ + cell % width, minR + cell / width, goal.getQ(), goal.getR());
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / width / clusterSize) * clustersWide + (cell % width) / clusterSize;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCell.length;
+    }
+
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Построение графа: порталы на границах кластеров и ребра между ними.
+     */
+    private static final class Builder {
+        private final GameMapHex map;
+        private final int clusterSize;
+        private final int width;
+        private final int height;
+        private final int clustersWide;
+        private final int clusterCount;
+
+        private final int[] cellNode;
+        private final List<Integer> nodeCells = new ArrayList<>();
+        private final List<int[]> edges = new ArrayList<>();
+
+        Builder(GameMapHex map, int clusterSize) {
+            this.map = map;
+            this.clusterSize = clusterSize;
+            this.width = map.getWidth();
+            this.height = map.getHeight();
+            this.clustersWide = (width + clusterSize - 1) / clusterSize;
+            int clustersHigh = (height + clusterSize - 1) / clusterSize;
+            this.clusterCount = clustersWide * clustersHigh;
+            this.cellNode = new int[map.getCellCount()];
+            Arrays.fill(cellNode, -1);
+        }
+
+        int clusterOf(int cell) {
+            return (cell / width / clusterSize) * clustersWide + (cell % width) / clusterSize;
+        }
+
+        /**
+         * Находит все переходы между клетками разных кластеров и группирует их в участки:
+         * два перехода попадают в один участок, если их клетки с каждой стороны границы
+         * совпадают или соседствуют. На каждый участок создается одна пара порталов -
+         * так любой переход можно заменить переходом через портал, не теряя связности.
+         */
+        void createPortals() {
+            Map<Long, List<int[]>> crossings = new HashMap<>();
+            for (int cell = 0; cell < cellNode.length; cell++) {
+                if (!map.isPassable(cell)) {
+                    continue;
+                }
+                int cluster = clusterOf(cell);
+                int localQ = cell % width;
+                int localR = cell / width;
+                for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                    int neighborQ = Hex.neighborQ(localQ, direction);
+                    int neighborR = Hex.neighborR(localR, direction);
+                    if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                        continue;
+                    }
+                    int neighbor = neighborR * width + neighborQ;
+                    int neighborCluster = clusterOf(neighbor);
+                    if (neighborCluster <= cluster || !map.isPassable(neighbor)) {
+                        continue;
+                    }
+                    long key = ((long) cluster << 32) | neighborCluster;
+                    crossings.computeIfAbsent(key, k -> new ArrayList<>()).add(new int[]{cell, neighbor});
+                }
+            }
+
+            for (List<int[]> border : crossings.values()) {
+                int[] group = groupCrossings(border);
+                Map<Integer, List<int[]>> groups = new HashMap<>();
+                for (int i = 0; i < border.size(); i++) {
+                    groups.computeIfAbsent(group[i], k -> new ArrayList<>()).add(border.get(i));
+                }
+                for (List<int[]> members : groups.values()) {
+                    int[] portal = members.get(members.size() / 2);
+                    int from = nodeFor(portal[0]);
+                    int to = nodeFor(portal[1]);
+                    edges.add(new int[]{from, to, 1});
+                    edges.add(new int[]{to, from, 1});
+                }
+            }
+        }
+
+        private int[] groupCrossings(List<int[]> border) {
+            int[] group = new int[border.size()];
+            for (int i = 0; i < group.length; i++) {
+                group[i] = i;
+            }
+            for (int i = 0; i < border.size(); i++) {
+                for (int j = i + 1; j < border.size(); j++) {
+                    if (touches(border.get(i)[0], border.get(j)[0]) && touches(border.get(i)[1], border.get(j)[1])) {
+                        union(group, i, j);
+                    }
+                }
+            }
+            for (int i = 0; i < group.length; i++) {
+                group[i] = find(group, i);
+            }
+            return group;
+        }
+
+        private boolean touches(int a, int b) {
+            if (a == b) {
+                return true;
+            }
+            return Hex.distance(a % width, a / width, b % width, b / width) == 1;
+        }
+
+        private static int find(int[] group, int i) {
+            while (group[i] != i) {
+                group[i] = group[group[i]];
+                i = group[i];
+            }
+            return i;
+        }
+
+        private static void union(int[] group, int a, int b) {
+            group[find(group, a)] = find(group, b);
+        }
+
+        private int nodeFor(int cell) {
+            if (cellNode[cell] < 0) {
+                cellNode[cell] = nodeCells.size();
+                nodeCells.add(cell);
+            }
+            return cellNode[cell];
+        }
+
+        /**
+         * Соединяет порталы одного кластера ребрами с длиной кратчайшего пути внутри кластера.
+         */
+        void connectPortalsInsideClusters() {
+            List<List<Integer>> nodesByCluster = new ArrayList<>(clusterCount);
+            for (int cluster = 0; cluster < clusterCount; cluster++) {
+                nodesByCluster.add(new ArrayList<>());
+            }
+            for (int node = 0; node < nodeCells.size(); node++) {
+                nodesByCluster.get(clusterOf(nodeCells.get(node))).add(node);
+            }
+
+            int[] distances = new int[cellNode.length];
+            int[] stamp = new int[cellNode.length];
+            int[] queue = new int[clusterSize * clusterSize];
+            int generation = 0;
+
+            for (int cluster = 0; cluster < clusterCount; cluster++) {
+                List<Integer> nodes = nodesByCluster.get(cluster);
+                if (nodes.size() < 2) {
+                    continue;
+                }
+                for (int node : nodes) {
+                    generation++;
+                    int source = nodeCells.get(node);
+                    int head = 0;
+                    int tail = 0;
+                    distances[source] = 0;
+                    stamp[source] = generation;
+                    queue[tail++] = source;
+                    while (head < tail) {
+                        int current = queue[head++];
+                        int localQ = current % width;
+                        int localR = current / width;
+                        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                            int neighborQ = Hex.neighborQ(localQ, direction);
+                            int neighborR = Hex.neighborR(localR, direction);
+                            if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                                continue;
+                            }
+                            int neighbor = neighborR * width + neighborQ;
+                            if (stamp[neighbor] == generation || clusterOf(neighbor) != cluster
+                                    || !map.isPassable(neighbor)) {
+                                continue;
+                            }
+                            stamp[neighbor] = generation;
+                            distances[neighbor] = distances[current] + 1;
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                    for (int other : nodes) {
+                        int otherCell = nodeCells.get(other);
+                        if (other != node && stamp[otherCell] == generation) {
+                            edges.add(new int[]{node, other, distances[otherCell]});
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package dev.mygame.domain.model.map;
+
+import dev.mygame.enums.TileType;
+
+import java.util.Arrays;
+
+/**
+ * Компоненты связности проходимых клеток карты.
+ * <p>
+ * Проходимые клетки без дверей разбиваются обходом в ширину на комнаты. Каждая клетка-дверь
+ * ({@link TileType#DOOR}) - отдельный узел, который объединяет (union-find) все соседние
+ * с ней комнаты и двери. Итоговая компонента - класс эквивалентности комнат, соединенных
+ * дверями; между клетками разных компонент пути нет ни при какой занятости.
+ * <p>
+ * Компоненты зависят только от рельефа: они считаются один раз при загрузке карты
+ * и разделяются её копиями, пока рельеф не менялся.
+ */
+public final class MapConnectivity {
+    /** Идентификатор комнаты и компоненты для непроходимой клетки. */
+    public static final int NONE = -1;
+
+    private final long terrainVersion;
+    private final int[] roomOf;
+    private final int[] componentOf;
+    private final int roomCount;
+    private final int doorCount;
+    private final int componentCount;
+
+    private MapConnectivity(long terrainVersion, int[] roomOf, int[] componentOf,
+                            int roomCount, int doorCount, int componentCount) {
+        this.terrainVersion = terrainVersion;
+        this.roomOf = roomOf;
+        this.componentOf = componentOf;
+        this.roomCount = roomCount;
+        this.doorCount = doorCount;
+        this.componentCount = componentCount;
+    }
+
+    /**
+     * Считает комнаты и компоненты связности по текущему рельефу карты.
+     */
+    public static MapConnectivity build(GameMapHex map) {
+        int cellCount = map.getCellCount();
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int[] roomOf = new int[cellCount];
+        Arrays.fill(roomOf, NONE);
+
+        // комнаты: обход в ширину по проходимым клеткам, двери - границы комнат
+        int[] queue = new int[cellCount];
+        int roomCount = 0;
+        for (int seed = 0; seed < cellCount; seed++) {
+            if (roomOf[seed] != NONE || !map.isPassable(seed) || isDoor(map, seed)) {
+                continue;
+            }
+            int room = roomCount++;
+            int head = 0;
+            int tail = 0;
+            roomOf[seed] = room;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int current = queue[head++];
+                int localQ = current % width;
+                int localR = current / width;
+                for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                    int neighborQ = Hex.neighborQ(localQ, direction);
+                    int neighborR = Hex.neighborR(localR, direction);
+                    if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                        continue;
+                    }
+                    int neighbor = neighborR * width + neighborQ;
+                    if (roomOf[neighbor] != NONE || !map.isPassable(neighbor) || isDoor(map, neighbor)) {
+                        continue;
+                    }
+                    roomOf[neighbor] = room;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        // двери: каждая клетка-дверь - свой узел, соединяющий соседние комнаты и двери
+        int doorCount = 0;
+        for (int index = 0; index < cellCount; index++) {
+            if (map.isPassable(index) && isDoor(map, index)) {
+                roomOf[index] = roomCount + doorCount++;
+            }
+        }
+        int[] parent = new int[roomCount + doorCount];
+        for (int node = 0; node < parent.length; node++) {
+            parent[node] = node;
+        }
+        for (int index = 0; index < cellCount; index++) {
+            if (roomOf[index] < roomCount) {
+                continue;
+            }
+            int localQ = index % width;
+            int localR = index / width;
+            for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+                int neighborQ = Hex.neighborQ(localQ, direction);
+                int neighborR = Hex.neighborR(localR, direction);
+                if (neighborQ < 0 || neighborQ >= width || neighborR < 0 || neighborR >= height) {
+                    continue;
+                }
+                int neighborRoom = roomOf[neighborR * width + neighborQ];
+                if (neighborRoom != NONE) {
+                    union(parent, roomOf[index], neighborRoom);
+                }
+            }
+        }
+
+        // сжатая нумерация компонент 0..componentCount-1
+        int[] componentOfNode = new int[parent.length];
+        Arrays.fill(componentOfNode, NONE);
+        int componentCount = 0;
+        for (int node = 0; node < parent.length; node++) {
+            int root = find(parent, node);
+            if (componentOfNode[root] == NONE) {
+                componentOfNode[root] = componentCount++;
+            }
+            componentOfNode[node] = componentOfNode[root];
+        }
+        int[] componentOf = new int[cellCount];
+        for (int index = 0; index < cellCount; index++) {
+            componentOf[index] = roomOf[index] == NONE ? NONE : componentOfNode[roomOf[index]];
+        }
+        return new MapConnectivity(map.getTerrainVersion(), roomOf, componentOf, roomCount, doorCount, componentCount);
+    }
+
+    /**
+     * @return {@code true}, если компоненты посчитаны для текущего рельефа карты.
+     */
+    public boolean isValidFor(GameMapHex map) {
+        return terrainVersion == map.getTerrainVersion() && componentOf.length == map.getCellCount();
+    }
+
+    /**
+     * @return компонента связности клетки или {@link #NONE}, если клетка непроходима.
+     */
+    public int getComponentId(int index) {
+        return index < 0 ? NONE : componentOf[index];
+    }
+
+    /**
+     * @return комната клетки; для двери - её собственный узел (номер от {@link #getRoomCount()}).
+     */
+    public int getRoomId(int index) {
+        return index < 0 ? NONE : roomOf[index];
+    }
+
+    /**
+     * @return {@code true}, если обе клетки проходимы и лежат в одной компоненте связности.
+     */
+    public boolean isConnected(int fromIndex, int toIndex) {
+        int component = getComponentId(fromIndex);
+        return component != NONE && component == getComponentId(toIndex);
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public int getDoorCount() {
+        return doorCount;
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    private static boolean isDoor(GameMapHex map, int index) {
+        return map.getTileType(index) == TileType.DOOR;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+}
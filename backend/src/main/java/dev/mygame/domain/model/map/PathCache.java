@@ -0,0 +1,103 @@
+package dev.mygame.domain.model.map;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный LRU-кэш результатов поиска пути.
+ * <p>
+ * Ключ - пара индексов клеток (старт, цель), вместе с путем хранятся версии занятости
+ * и рельефа карты, при которых он был найден. Запись считается действительной, только
+ * если обе версии совпадают с текущими: любое перемещение, появление или гибель сущности
+ * меняет версию занятости, и устаревший путь будет пересчитан.
+ * <p>
+ * Сам кэш используется только из очереди команд сессии, а счетчики попаданий
+ * можно читать из любого потока.
+ */
+public class PathCache {
+    private final int capacity;
+    private final Map<Long, CachedPath> paths;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PathCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Path cache capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.paths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+                if (size() > PathCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return сохраненный путь или {@code null}, если его нет или он устарел.
+     */
+    public List<Hex> get(int startIndex, int goalIndex, long occupancyVersion, long terrainVersion) {
+        CachedPath cached = paths.get(key(startIndex, goalIndex));
+        if (cached != null && cached.occupancyVersion == occupancyVersion && cached.terrainVersion == terrainVersion) {
+            hits.increment();
+            return cached.path;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Сохраняет найденный путь.
+     * @return неизменяемая копия пути, которая хранится в кэше.
+     */
+    public List<Hex> put(int startIndex, int goalIndex, long occupancyVersion, long terrainVersion, List<Hex> path) {
+        List<Hex> immutablePath = Collections.unmodifiableList(path);
+        paths.put(key(startIndex, goalIndex), new CachedPath(occupancyVersion, terrainVersion, immutablePath));
+        return immutablePath;
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static long key(int startIndex, int goalIndex) {
+        return ((long) startIndex << 32) | (goalIndex & 0xFFFFFFFFL);
+    }
+
+    private static final class CachedPath {
+        private final long occupancyVersion;
+        private final long terrainVersion;
+        private final List<Hex> path;
+
+        private CachedPath(long occupancyVersion, long terrainVersion, List<Hex> path) {
+            this.occupancyVersion = occupancyVersion;
+            this.terrainVersion = terrainVersion;
+            this.path = path;
+        }
+    }
+}
@@ -1,24 +1,77 @@
 package dev.mygame.domain.model.map;
 
 import dev.mygame.enums.TileType;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
+/**
+ * Тайл карты.
+ * <p>
+ * Тайл, полученный из {@link GameMapHex}, является "видом" на плотные массивы карты:
+ * чтение и запись типа и занятости сразу работают с данными карты.
+ * Тайл, созданный через конструктор, хранит данные сам и копируется в карту
+ * при вызове {@link GameMapHex#setTile(Hex, Tile)}.
+ */
 public class Tile {
+    private final GameMapHex map;
+    private final int q;
+    private final int r;
+
     private TileType type;
     private String occupiedById;
 
+    public Tile() {
+        this(null, null);
+    }
+
+    public Tile(TileType type, String occupiedById) {
+        this.map = null;
+        this.q = 0;
+        this.r = 0;
+        this.type = type;
+        this.occupiedById = occupiedById;
+    }
+
+    Tile(GameMapHex map, int q, int r) {
+        this.map = map;
+        this.q = q;
+        this.r = r;
+    }
+
+    public TileType getType() {
+        return map != null ? map.getTileType(q, r) : type;
+    }
+
+    public void setType(TileType type) {
+        if (map != null) {
+            map.setTileType(q, r, type);
+        } else {
+            this.type = type;
+        }
+    }
+
+    public String getOccupiedById() {
+        return map != null ? map.getOccupantId(q, r) : occupiedById;
+    }
+
+    public void setOccupiedById(String occupiedById) {
+        if (map != null) {
+            map.setOccupantId(q, r, occupiedById);
+        } else {
+            this.occupiedById = occupiedById;
+        }
+    }
+
     // проходима ли клетка
     public boolean isPassable() {
-        return this.type.isWalkable();
+        return getType().isWalkable();
     }
 
     // занята ли клетка кем-то
     public boolean isOccupied() {
-        return occupiedById != null;
+        return map != null ? map.isOccupied(q, r) : occupiedById != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Tile(type=" + getType() + ", occupiedById=" + getOccupiedById() + ')';
     }
 }
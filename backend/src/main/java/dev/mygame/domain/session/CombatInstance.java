@@ -8,6 +8,7 @@ import dev.mygame.enums.EntityStateType;
 import dev.mygame.domain.event.DeathListener;
 import dev.mygame.domain.model.Entity;
 import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.Player;
 import dev.mygame.service.AIService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,9 +25,12 @@ public class CombatInstance implements DeathListener {
     private String combatId;
     private final AIService aiService;
 
-    private Map<String, Set<Entity>> teams = new HashMap<>();
+    // ID команды -> дескрипторы её участников (Entity#getHandle); сами сущности берутся из сессии
+    private Map<String, IntHashSet> teams = new HashMap<>();
 
-    private List<String> turnOrder = new ArrayList<>();
+    // очередь ходов - дескрипторы сущностей (Entity#getHandle), занятая часть массива - turnOrderSize
+    private int[] turnOrder = new int[8];
+    private int turnOrderSize = 0;
     private int currentTurnIndex = -1;
     private boolean isFinished = false;
 
@@ -59,7 +63,7 @@ public class CombatInstance implements DeathListener {
             String teamId = entity.getTeamId();
             if(teamId == null)
                 teamId = entity.getId();
-            this.teams.computeIfAbsent(teamId, k -> new HashSet<>()).add(entity);
+            this.teams.computeIfAbsent(teamId, k -> new IntHashSet()).add(entity.getHandle());
         }
     }
 
@@ -69,35 +73,29 @@ public class CombatInstance implements DeathListener {
      */
 
     private void initializeTurnOrder() {
-        List<Entity> allParticipants = new ArrayList<>();
-        this.teams.values().forEach(team ->
-                team.stream()
-                        .filter(Entity::isAlive)
-                        .forEach(allParticipants::add)
-        );
+        List<Entity> allParticipants = getAliveEntities();
         allParticipants.sort(
                 Comparator.comparingInt(Entity::getInitiative).reversed()
                         .thenComparing(Entity::getId)
         );
-        this.turnOrder.clear();
-        allParticipants.forEach(entity -> this.turnOrder.add(entity.getId()));
+        setTurnOrder(allParticipants);
         this.currentTurnIndex = -1;
-        log.info("Initialized new turn order for the round: {}", this.turnOrder);
+        log.info("Initialized new turn order for the round: {}", getTurnOrderIds());
     }
 
     private void startNextTurn() {
         if (isFinished) return;
-        for (int i = 0; i < turnOrder.size() + 1; i++) {
+        for (int i = 0; i < turnOrderSize + 1; i++) {
             currentTurnIndex++;
-            if (currentTurnIndex >= turnOrder.size()) {
+            if (currentTurnIndex >= turnOrderSize) {
                 initializeTurnOrder();
                 currentTurnIndex = 0;
             }
-            if (turnOrder.isEmpty()) {
+            if (turnOrderSize == 0) {
                 endCombatForAll();
                 return;
             }
-            Entity nextEntity = eventListener.getEntityById(getCurrentTurnEntityId());
+            Entity nextEntity = eventListener.getEntityByHandle(turnOrder[currentTurnIndex]);
             if (nextEntity != null && nextEntity.isAlive()) {
                 beginTurnFor(nextEntity);
                 return;
@@ -133,6 +131,9 @@ public class CombatInstance implements DeathListener {
 
         if (entity instanceof Monster) {
             eventListener.scheduleAiTurn(entity.getId());
+        } else if (entity instanceof Player player && player.getWebsocketSessionId() == null) {
+            // игрок отключен и ждет переподключения: его ход пропускается, иначе бой остановится
+            eventListener.scheduleTurnSkip(player.getId());
         } else {
             System.out.println("--- Turn Start: " + entity.getName() + " (Player Controlled) - WAITING FOR ACTION ---");
         }
@@ -159,17 +160,18 @@ public class CombatInstance implements DeathListener {
     public void addParticipantsToCombat(List<Entity> newParticipants) {
         initializeTeamsAndListeners(newParticipants);
 
-        List<Entity> remainingInQueue = this.turnOrder.stream()
-                .map(eventListener::getEntityById)
-                .filter(Objects::nonNull)
-                .toList();
-        List<Entity> turnTakersToResort = new ArrayList<>(remainingInQueue);
+        List<Entity> turnTakersToResort = new ArrayList<>(turnOrderSize + newParticipants.size());
+        for (int i = 0; i < turnOrderSize; i++) {
+            Entity entity = eventListener.getEntityByHandle(turnOrder[i]);
+            if (entity != null) {
+                turnTakersToResort.add(entity);
+            }
+        }
         turnTakersToResort.addAll(newParticipants);
 
         turnTakersToResort.sort(Comparator.comparing(Entity::getInitiative).reversed());
 
-        turnOrder.clear();
-        turnTakersToResort.forEach(entity -> turnOrder.add(entity.getId()));
+        setTurnOrder(turnTakersToResort);
 
         Set<String> newParticipantIds = newParticipants.stream()
                 .map(Entity::getId)
@@ -178,16 +180,56 @@ public class CombatInstance implements DeathListener {
         CombatParticipantsJoinedEvent event = new CombatParticipantsJoinedEvent(
                 this.combatId,
                 newParticipantIds,
-                new ArrayList<>(this.turnOrder)
+                getTurnOrderIds()
         );
         eventListener.onCombatEvent(event);
     }
 
     public String getCurrentTurnEntityId() {
-        if (currentTurnIndex >= 0 && currentTurnIndex < turnOrder.size()) {
-            return turnOrder.get(currentTurnIndex);
+        Entity entity = eventListener.getEntityByHandle(getCurrentTurnHandle());
+        return entity != null ? entity.getId() : null;
+    }
+
+    /**
+     * @return дескриптор сущности, которая сейчас ходит, или {@link Entity#NO_HANDLE}.
+     */
+    public int getCurrentTurnHandle() {
+        if (currentTurnIndex >= 0 && currentTurnIndex < turnOrderSize) {
+            return turnOrder[currentTurnIndex];
+        }
+        return Entity.NO_HANDLE;
+    }
+
+    /**
+     * @return {@code true}, если сейчас ход этой сущности.
+     */
+    public boolean isCurrentTurn(Entity entity) {
+        int handle = getCurrentTurnHandle();
+        return handle != Entity.NO_HANDLE && handle == entity.getHandle();
+    }
+
+    /**
+     * @return ID сущностей в порядке очереди ходов (для событий клиентам).
+     */
+    public List<String> getTurnOrderIds() {
+        List<String> ids = new ArrayList<>(turnOrderSize);
+        for (int i = 0; i < turnOrderSize; i++) {
+            Entity entity = eventListener.getEntityByHandle(turnOrder[i]);
+            if (entity != null) {
+                ids.add(entity.getId());
+            }
+        }
+        return ids;
+    }
+
+    private void setTurnOrder(List<Entity> entities) {
+        if (turnOrder.length < entities.size()) {
+            turnOrder = new int[Math.max(entities.size(), turnOrder.length * 2)];
+        }
+        turnOrderSize = 0;
+        for (Entity entity : entities) {
+            turnOrder[turnOrderSize++] = entity.getHandle();
         }
-        return null;
     }
 
     @Override
@@ -196,11 +238,7 @@ public class CombatInstance implements DeathListener {
         EntityDiedEvent entityDiedEvent = new EntityDiedEvent(e.getId());
         eventListener.onCombatEvent(entityDiedEvent);
 
-        long remainingTeamsCount = teams.values().stream()
-                .filter(t -> t.stream().anyMatch(Entity::isAlive))
-                .count();
-
-        if (remainingTeamsCount <= 1) {
+        if (getRemainingTeamCount() <= 1) {
             endCombatForAll();
         }
     }
@@ -209,9 +247,7 @@ public class CombatInstance implements DeathListener {
         if (this.isFinished) return;
         this.isFinished = true;
 
-        List<Entity> allParticipants = this.teams.values().stream()
-                .flatMap(Set::stream)
-                .toList();
+        List<Entity> allParticipants = getParticipants(false);
 
         String winningTeamId = findWinningTeam();
         CombatOutcome finalOutcome = (winningTeamId != null) ? CombatOutcome.VICTORY : CombatOutcome.DEFEAT;
@@ -219,25 +255,23 @@ public class CombatInstance implements DeathListener {
         eventListener.onCombatEnded(this.combatId, finalOutcome, winningTeamId, allParticipants);
 
         this.teams.clear();
-        this.turnOrder.clear();
+        this.turnOrderSize = 0;
     }
 
     public void endCombatForAllByAgreement() {
         if (this.isFinished) return;
         this.isFinished = true;
 
-        List<Entity> allParticipants = this.teams.values().stream()
-                .flatMap(Set::stream)
-                .toList();
+        List<Entity> allParticipants = getParticipants(false);
 
         eventListener.onCombatEnded(this.combatId, CombatOutcome.END_BY_AGREEMENT, null, allParticipants);
         this.teams.clear();
-        this.turnOrder.clear();
+        this.turnOrderSize = 0;
     }
 
     private String findWinningTeam() {
         List<String> winningTeam = teams.entrySet().stream()
-                .filter(team -> team.getValue().stream().anyMatch(Entity::isAlive))
+                .filter(team -> hasAliveMember(team.getValue()))
                 .map(Map.Entry::getKey)
                 .toList();
 
@@ -247,9 +281,56 @@ public class CombatInstance implements DeathListener {
     }
 
     public List<Entity> getAliveEntities() {
-        return this.teams.values().stream()
-                .flatMap(Collection::stream)
-                .filter(Entity::isAlive)
-                .toList();
+        return getParticipants(true);
+    }
+
+    /**
+     * @return количество команд, в которых остались живые участники.
+     */
+    public int getRemainingTeamCount() {
+        int count = 0;
+        for (IntHashSet team : teams.values()) {
+            if (hasAliveMember(team)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return ID участников команды (для событий клиентам).
+     */
+    public Set<String> getTeamMemberIds(String teamId) {
+        IntHashSet team = teams.get(teamId);
+        Set<String> ids = new HashSet<>();
+        if (team != null) {
+            team.forEach(handle -> {
+                Entity entity = eventListener.getEntityByHandle(handle);
+                if (entity != null) {
+                    ids.add(entity.getId());
+                }
+            });
+        }
+        return ids;
+    }
+
+    private List<Entity> getParticipants(boolean aliveOnly) {
+        List<Entity> participants = new ArrayList<>();
+        for (IntHashSet team : teams.values()) {
+            team.forEach(handle -> {
+                Entity entity = eventListener.getEntityByHandle(handle);
+                if (entity != null && (!aliveOnly || entity.isAlive())) {
+                    participants.add(entity);
+                }
+            });
+        }
+        return participants;
+    }
+
+    private boolean hasAliveMember(IntHashSet team) {
+        return team.anyMatch(handle -> {
+            Entity entity = eventListener.getEntityByHandle(handle);
+            return entity != null && entity.isAlive();
+        });
     }
 }
@@ -0,0 +1,124 @@
+package dev.mygame.domain.session;
+
+import dev.mygame.domain.model.Entity;
+import dev.mygame.enums.FactionRelation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица фракций одной игровой сессии.
+ * <p>
+ * Каждый встреченный в сессии {@code teamId} получает целочисленный дескриптор, который
+ * хранится в сущности ({@link Entity#getFactionHandle()}). Отношения между фракциями
+ * лежат в плоской матрице, поэтому проверка враждебности - это два чтения поля и одно
+ * чтение массива вместо сравнения строк. Отношения заполняются при регистрации фракции:
+ * своя фракция - союзник, для пар из настроек - заданное отношение, для остальных -
+ * отношение по умолчанию.
+ * <p>
+ * Таблица не потокобезопасна и должна изменяться только из очереди команд сессии.
+ */
+public class FactionTable {
+    /** Дескриптор сущности без команды: такая сущность враждебна всем. */
+    public static final int NONE = -1;
+
+    private static final FactionRelation[] RELATIONS = FactionRelation.values();
+
+    private final FactionRelation defaultRelation;
+    // имя фракции -> имя другой фракции -> заданное отношение
+    private final Map<String, Map<String, FactionRelation>> configuredRelations;
+
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int capacity = 8;
+    private byte[] matrix = new byte[capacity * capacity];
+
+    /**
+     * Создает таблицу, в которой все разные фракции враждебны.
+     */
+    public FactionTable() {
+        this(FactionRelation.HOSTILE, Map.of());
+    }
+
+    /**
+     * @param defaultRelation     отношение между разными фракциями без явного правила.
+     * @param configuredRelations явные отношения; должны быть заданы в обе стороны.
+     */
+    public FactionTable(FactionRelation defaultRelation, Map<String, Map<String, FactionRelation>> configuredRelations) {
+        this.defaultRelation = defaultRelation;
+        this.configuredRelations = configuredRelations;
+    }
+
+    /**
+     * Возвращает дескриптор фракции, регистрируя её при первом обращении.
+     * @param teamId ID команды (может быть {@code null}).
+     * @return дескриптор или {@link #NONE}, если команды нет.
+     */
+    public int intern(String teamId) {
+        if (teamId == null) {
+            return NONE;
+        }
+        Integer existing = handles.get(teamId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int handle = names.size();
+        if (handle == capacity) {
+            grow();
+        }
+        handles.put(teamId, handle);
+        names.add(teamId);
+
+        Map<String, FactionRelation> configured = configuredRelations.getOrDefault(teamId, Map.of());
+        for (int other = 0; other < handle; other++) {
+            FactionRelation relation = configured.getOrDefault(names.get(other), defaultRelation);
+            matrix[handle * capacity + other] = (byte) relation.ordinal();
+            matrix[other * capacity + handle] = (byte) relation.ordinal();
+        }
+        matrix[handle * capacity + handle] = (byte) FactionRelation.ALLIED.ordinal();
+        return handle;
+    }
+
+    /**
+     * @return отношение между двумя зарегистрированными фракциями.
+     */
+    public FactionRelation getRelation(int first, int second) {
+        return RELATIONS[matrix[first * capacity + second]];
+    }
+
+    /**
+     * Проверяет, являются ли две сущности врагами. Сущность не враждебна сама себе;
+     * сущность без команды враждебна всем.
+     */
+    public boolean areEnemies(Entity first, Entity second) {
+        if (first == second) {
+            return false;
+        }
+        int firstHandle = first.getFactionHandle();
+        int secondHandle = second.getFactionHandle();
+        if (firstHandle == NONE || secondHandle == NONE) {
+            return true;
+        }
+        return matrix[firstHandle * capacity + secondHandle] == FactionRelation.HOSTILE.ordinal();
+    }
+
+    /**
+     * @return количество зарегистрированных фракций.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        byte[] newMatrix = new byte[newCapacity * newCapacity];
+        for (int row = 0; row < capacity; row++) {
+            System.arraycopy(matrix, row * capacity, newMatrix, row * newCapacity, capacity);
+        }
+        capacity = newCapacity;
+        matrix = newMatrix;
+    }
+}
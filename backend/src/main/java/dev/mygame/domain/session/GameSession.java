@@ -3,6 +3,7 @@ package dev.mygame.domain.session;
 //import dev.mygame.game.model.map.Map;
 import dev.mygame.config.StandartEntityGameSettings;
 import dev.mygame.domain.event.CombatEventListener;
+import dev.mygame.domain.event.DeathListener;
 import dev.mygame.domain.event.SessionEvent;
 import dev.mygame.domain.model.Entity;
 import dev.mygame.domain.model.GameObject;
@@ -19,9 +20,9 @@ import dev.mygame.mapper.GameSessionMapper;
 import dev.mygame.mapper.context.MappingContext;
 import dev.mygame.service.AIService;
 import dev.mygame.service.AbilityService;
-import dev.mygame.service.FactionService;
 import dev.mygame.service.GameEventNotifier;
 import dev.mygame.service.internal.*;
+import dev.mygame.service.scheduling.HashedWheelTimer;
 import dev.mygame.enums.ActionType;
 import dev.mygame.enums.CombatOutcome;
 import dev.mygame.domain.event.GameSessionEndListener;
@@ -33,13 +34,12 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Data
 @Builder
-public class GameSession implements CombatEventListener {
+public class GameSession implements CombatEventListener, DeathListener {
     private String sessionID;
     private final ApplicationEventPublisher eventPublisher;
     private final GameEventNotifier notifier;
@@ -47,14 +47,50 @@ public class GameSession implements CombatEventListener {
 
     @Builder.Default
     private Map<String, Entity> entities = new ConcurrentHashMap<>();
+    // дескриптор сущности - 1 -> сущность (null для удаленных); изменяется только из очереди команд
+    @Builder.Default
+    private List<Entity> entitiesByHandle = new ArrayList<>();
+    // индексы игроков сессии по userId и по ID WebSocket-соединения
+    @Builder.Default
+    private Map<String, Player> playersByUserId = new ConcurrentHashMap<>();
+    @Builder.Default
+    private Map<String, Player> playersByWebsocketSessionId = new ConcurrentHashMap<>();
+    // ID команды -> ID её участников; изменяется только через addEntity/removeEntity и changeTeam,
+    // там же сущности назначается дескриптор фракции
+    @Builder.Default
+    private Map<String, Set<String>> teamMembers = new ConcurrentHashMap<>();
     private Map<String, GameObject> gameObjects;
 
     private GameMapHex gameMap;
 
+    // индекс позиций живых сущностей для запросов по точке и радиусу
+    @Builder.Default
+    private EntitySpatialIndex spatialIndex = new EntitySpatialIndex();
+    // общие поля потока для монстров, преследующих одну цель
+    @Builder.Default
+    private FlowFieldCache flowFields = new FlowFieldCache();
+    // зоны агра и присоединения к бою: проверка начала боя - только при переходах через их границы
+    @Builder.Default
+    private AggroZoneTracker aggroZones = new AggroZoneTracker();
+    // версия состояния для дельта-синхронизации клиентов
+    @Builder.Default
+    private SessionStateTracker stateTracker = new SessionStateTracker();
+    // последние разосланные события с порядковыми номерами для досылки после переподключения
+    @Builder.Default
+    private SessionEventLog eventLog = new SessionEventLog();
+    // события выполняемой команды, которые будут отправлены одним сообщением
+    @Builder.Default
+    private SessionEventBatch eventBatch = new SessionEventBatch();
+
     @Builder.Default
     private Map<String, CombatInstance> activeCombats = new ConcurrentHashMap<>();
+    // ID сущности -> бой, в котором она участвует (поиск боя за O(1) при каждом действии)
+    @Builder.Default
+    private Map<String, CombatInstance> combatsByEntityId = new ConcurrentHashMap<>();
 
-    private final FactionService factionService;
+    // фракции сессии: дескрипторы команд и матрица отношений между ними
+    @Builder.Default
+    private FactionTable factions = new FactionTable();
     private final AbilityService abilityService;
     private final AIService aiService;
 
@@ -69,12 +105,54 @@ public class GameSession implements CombatEventListener {
     @Builder.Default
     private Map<String, Map<String, Boolean>> peacefulAgreements =  new ConcurrentHashMap<>();
 
-    private final ScheduledExecutorService scheduler;
+    private final HashedWheelTimer timer;
+    private final SessionMailbox mailbox;
     private static final Logger log = LoggerFactory.getLogger(GameSession.class);
+    // команды большего размера получают изменения состава, а не полный список участников
+    private static final int TEAM_DELTA_MIN_SIZE = 16;
 
     @Builder.Default
     private List<GameSessionEndListener> endListeners = new ArrayList<>();;
 
+    // сколько миллисекунд сущность отключившегося игрока ждет переподключения; 0 - удаляется сразу
+    private long resumeGraceMillis;
+    // через сколько миллисекунд пропускается ход отключившегося игрока
+    private long disconnectedTurnSkipMillis;
+    // ID отключившегося игрока -> таймер его удаления из сессии; изменяется только из очереди команд
+    @Builder.Default
+    private Map<String, HashedWheelTimer.Timeout> pendingRemovals = new HashMap<>();
+
+    /**
+     * Ставит команду в очередь сессии. Все команды одной сессии выполняются
+     * последовательно, поэтому внутри команды с состоянием сессии можно работать без блокировок.
+     * События, разосланные командой, уходят клиентам одним сообщением после её выполнения.
+     * @param command команда, изменяющая состояние сессии.
+     */
+    public void submit(Runnable command) {
+        mailbox.submit(() -> runBatched(command));
+    }
+
+    private void runBatched(Runnable command) {
+        eventBatch.open();
+        try {
+            command.run();
+        } finally {
+            flushEvents();
+            eventBatch.close();
+        }
+    }
+
+    /**
+     * Откладывает выполнение команды в очереди сессии на заданное время.
+     * @param command команда, изменяющая состояние сессии.
+     * @param delay   задержка.
+     * @param unit    единица измерения задержки.
+     * @return дескриптор таймера, через который отложенную команду можно отменить.
+     */
+    public HashedWheelTimer.Timeout schedule(Runnable command, long delay, TimeUnit unit) {
+        return timer.newTimeout(() -> submit(command), delay, unit);
+    }
+
     /**
      * Метод для добавления новых сущностей в сессию
      * @param entity объект сущности
@@ -82,15 +160,186 @@ public class GameSession implements CombatEventListener {
     public void addEntity(Entity entity) {
         if(!entities.containsKey(entity.getId())) {
             entities.put(entity.getId(), entity);
+            entitiesByHandle.add(entity);
+            entity.setHandle(entitiesByHandle.size());
+            stateTracker.markEntityAdded(entity.getId());
+            if (entity instanceof Player player) {
+                indexPlayer(player);
+            }
+            indexTeamMember(entity);
+            if (entity.isAlive()) {
+                spatialIndex.add(entity);
+                occupyTile(entity, entity.getPosition());
+                aggroZones.update(entity, gameMap, spatialIndex);
+                entity.addDeathListener(this);
+            }
         }
     }
 
     public void removeEntity(Entity entity) {
-        entities.remove(entity.getId());
+        if (entities.remove(entity.getId()) != null) {
+            // дескрипторы не переиспользуются, чтобы устаревшая ссылка не указала на другую сущность
+            if (getEntityByHandle(entity.getHandle()) == entity) {
+                entitiesByHandle.set(entity.getHandle() - 1, null);
+            }
+            stateTracker.markEntityRemoved(entity.getId());
+            if (entity instanceof Player player) {
+                unindexPlayer(player);
+            }
+            unindexTeamMember(entity);
+            spatialIndex.remove(entity);
+            aggroZones.remove(entity);
+            combatsByEntityId.remove(entity.getId());
+            vacateTile(entity, entity.getPosition());
+            flowFields.invalidate(entity.getId());
+            entity.removeDeathListener(this);
+        }
+    }
+
+    private void indexPlayer(Player player) {
+        if (player.getUserId() != null) {
+            playersByUserId.put(player.getUserId(), player);
+        }
+        if (player.getWebsocketSessionId() != null) {
+            playersByWebsocketSessionId.put(player.getWebsocketSessionId(), player);
+        }
+    }
+
+    private void unindexPlayer(Player player) {
+        if (player.getUserId() != null) {
+            playersByUserId.remove(player.getUserId(), player);
+        }
+        if (player.getWebsocketSessionId() != null) {
+            playersByWebsocketSessionId.remove(player.getWebsocketSessionId(), player);
+        }
+    }
+
+    /**
+     * Переводит сущность в другую команду, поддерживая индекс составов команд.
+     * Все изменения {@code teamId} сущностей сессии должны проходить через этот метод.
+     * @param entity    сущность.
+     * @param newTeamId ID новой команды.
+     * @return ID прежней команды (может быть {@code null}).
+     */
+    private String changeTeam(Entity entity, String newTeamId) {
+        String oldTeamId = entity.getTeamId();
+        unindexTeamMember(entity);
+        entity.setTeamId(newTeamId);
+        indexTeamMember(entity);
+        return oldTeamId;
     }
 
+    private void indexTeamMember(Entity entity) {
+        entity.setFactionHandle(factions.intern(entity.getTeamId()));
+        if (entity.getTeamId() != null) {
+            teamMembers.computeIfAbsent(entity.getTeamId(), k -> new HashSet<>()).add(entity.getId());
+        }
+    }
+
+    private void unindexTeamMember(Entity entity) {
+        String teamId = entity.getTeamId();
+        if (teamId == null) {
+            return;
+        }
+        Set<String> members = teamMembers.get(teamId);
+        if (members != null) {
+            members.remove(entity.getId());
+            if (members.isEmpty()) {
+                teamMembers.remove(teamId);
+            }
+        }
+    }
+
+    /**
+     * @param teamId ID команды.
+     * @return неизменяемое представление состава команды (пустое, если команды нет).
+     */
+    public Set<String> getTeamMemberIds(String teamId) {
+        Set<String> members = teamId != null ? teamMembers.get(teamId) : null;
+        return members != null ? Collections.unmodifiableSet(members) : Set.of();
+    }
+
+    @Override
+    public void onEntityDied(Entity entity) {
+        spatialIndex.remove(entity);
+        aggroZones.remove(entity);
+        CombatInstance combat = combatsByEntityId.get(entity.getId());
+        // сущность, умершая в свой ход, остается в индексе, чтобы её ход можно было завершить
+        if (combat != null && !combat.isCurrentTurn(entity)) {
+            combatsByEntityId.remove(entity.getId());
+        }
+        vacateTile(entity, entity.getPosition());
+        flowFields.invalidate(entity.getId());
+    }
+
+    private void occupyTile(Entity entity, Hex position) {
+        if (gameMap != null && position != null) {
+            gameMap.setOccupant(position.getQ(), position.getR(), entity.getHandle(), entity.getId());
+        }
+    }
+
+    /**
+     * Освобождает клетку, только если она занята именно этой сущностью.
+     */
+    private void vacateTile(Entity entity, Hex position) {
+        if (gameMap != null && position != null
+                && entity.getHandle() == gameMap.getOccupantHandle(position.getQ(), position.getR())) {
+            gameMap.clearOccupant(position.getQ(), position.getR());
+        }
+    }
+
+    /**
+     * Публикует событие сессии для всех клиентов. Событию присваивается порядковый номер журнала.
+     * @throws IllegalArgumentException если для класса события не задан тип
+     *         ({@link GameEventNotifier#resolveEventType(Object)}): такое событие не дошло бы до клиентов,
+     *         а его номер остался бы пропуском, который клиент не сможет заполнить досылкой.
+     */
     public void publishEvent(Object payload) {
-        eventPublisher.publishEvent(new SessionEvent<>(this, this, payload));
+        if (GameEventNotifier.resolveEventType(payload) == null) {
+            throw new IllegalArgumentException("No event type mapped for " + payload.getClass().getSimpleName());
+        }
+        stateTracker.onEvent(payload);
+        if (eventBatch.isOpen()) {
+            eventBatch.add(payload);
+        } else {
+            publishSequenced(List.of(payload));
+        }
+    }
+
+    /**
+     * Отправляет накопленные события выполняемой команды. Вызывается перед отправкой клиенту
+     * состояния или журнала, чтобы номер последнего события в них учитывал уже разосланные события.
+     */
+    private void flushEvents() {
+        List<Object> payloads = eventBatch.drain();
+        if (!payloads.isEmpty()) {
+            publishSequenced(payloads);
+        }
+    }
+
+    private void publishSequenced(List<Object> payloads) {
+        List<SessionEventLog.SequencedEvent> events = new ArrayList<>(payloads.size());
+        for (Object payload : payloads) {
+            events.add(new SessionEventLog.SequencedEvent(eventLog.append(payload), payload));
+        }
+        eventPublisher.publishEvent(new SessionEvent(this, this, events));
+    }
+
+    /**
+     * Досылает клиенту события после {@code sinceSequence}. Если часть из них уже вытеснена
+     * из журнала, вместо событий отправляется состояние сессии (см. {@link #sendStateToPlayer(String, Long)}).
+     * @param userId        ID пользователя-получателя.
+     * @param sinceSequence номер последнего события, полученного клиентом.
+     * @param lastVersion   последняя версия состояния, известная клиенту (может быть {@code null}).
+     */
+    public void replayEventsToPlayer(String userId, long sinceSequence, Long lastVersion) {
+        flushEvents();
+        // номер 0 - клиент не получал ни снимка, ни событий
+        if (sinceSequence <= 0 || !eventLog.canReplayFrom(sinceSequence)) {
+            sendStateToPlayer(userId, lastVersion);
+            return;
+        }
+        notifier.notifyEventReplay(userId, this, sinceSequence, eventLog.getEventsAfter(sinceSequence));
     }
 
     /**
@@ -98,12 +347,37 @@ public class GameSession implements CombatEventListener {
      * @param userId ID пользователя-получателя.
      */
     public void sendInitialStateToPlayer(String userId) {
+        flushEvents();
+        observeTerrain();
         MappingContext context = new MappingContext(userId);
         GameSessionStateDto sessionState = gameSessionMapper.toGameSessionState(this, context);
 
         notifier.notifyFullGameState(userId, this.getSessionID(), sessionState);
     }
 
+    /**
+     * Ресинхронизирует клиента: отправляет изменения после известной ему версии состояния
+     * либо полный снимок, если версия неизвестна или слишком отстала.
+     * @param userId      ID пользователя-получателя.
+     * @param lastVersion последняя версия, полученная клиентом (может быть {@code null}).
+     */
+    public void sendStateToPlayer(String userId, Long lastVersion) {
+        flushEvents();
+        observeTerrain();
+        if (lastVersion == null || !stateTracker.canSendDelta(lastVersion)) {
+            sendInitialStateToPlayer(userId);
+            return;
+        }
+        SessionStateDeltaDto delta = gameSessionMapper.toSessionStateDelta(this, lastVersion);
+        notifier.notifyGameStateDelta(userId, this.getSessionID(), delta);
+    }
+
+    private void observeTerrain() {
+        if (gameMap != null) {
+            stateTracker.observeTerrain(gameMap.getTerrainVersion());
+        }
+    }
+
     /**
      * Центральный метод для обработки всех событий, которые инициирует какая-либо сущность
      * @param entityId ID сущности-инициатора.
@@ -127,7 +401,7 @@ public class GameSession implements CombatEventListener {
             CombatInstance combat = findCombatForEntity(entityId);
 
             if (combat != null) {
-                if (!combat.getCurrentTurnEntityId().equals(entityId)) {
+                if (!combat.isCurrentTurn(entity)) {
                     if (entity instanceof Player) {
                         sendErrorMessageToPlayer((Player) entity, "It's not your turn!", "NOT_YOUR_TURN");
                     }
@@ -187,6 +461,12 @@ public class GameSession implements CombatEventListener {
                 notifier.notifyError((Player) caster, "Target is out of range", "400");
                 return;
             }
+            case NOT_IN_LINE_OF_SIGHT: {
+                if (caster instanceof Player player) {
+                    notifier.notifyError(player, "Target is not in line of sight", "400");
+                }
+                return;
+            }
             case ON_COOLDOWN: {
                 notifier.notifyError((Player) caster, "Ability on cooldown", "400");
                 return;
@@ -252,7 +532,7 @@ public class GameSession implements CombatEventListener {
         List<Entity> affectedTargets = findTargetsInArea(targetHex, abilityToUse.getTemplate().getAreaOfEffectRadius());
 
         Optional<Entity> hostileTargetOpt = affectedTargets.stream()
-                .filter(target -> factionService.areEnemies(caster, target))
+                .filter(target -> factions.areEnemies(caster, target))
                 .findFirst();
 
         if (hostileTargetOpt.isEmpty()) {
@@ -273,6 +553,7 @@ public class GameSession implements CombatEventListener {
             if (combat != null) {
                 List<Entity> joiningGroup = findNearbyAlliesAndEnemies(caster, hostileTarget);
                 combat.addParticipantsToCombat(joiningGroup);
+                onParticipantsJoined(combat, joiningGroup);
             }
         }
 
@@ -302,15 +583,17 @@ public class GameSession implements CombatEventListener {
     }
 
     private CombatInstance findCombatForEntity(String entityId) {
-        for(CombatInstance combat : activeCombats.values()) {
-            boolean isInCombat = combat.getTeams().values().stream()
-                    .flatMap(Set::stream)
-                    .anyMatch(entity -> entity.getId().equals(entityId));
-            if(isInCombat) {
-                return combat;
-            }
+        return combatsByEntityId.get(entityId);
+    }
+
+    /**
+     * Регистрирует вступивших в бой сущностей в индексе боев и обновляет их зоны агра.
+     */
+    private void onParticipantsJoined(CombatInstance combat, Collection<Entity> participants) {
+        for (Entity participant : participants) {
+            combatsByEntityId.put(participant.getId(), combat);
         }
-        return null;
+        refreshAggroZones(participants);
     }
 
     private void entityMove(String entityId, Hex targetHex) {
@@ -345,11 +628,13 @@ public class GameSession implements CombatEventListener {
             return;
         }
 
-        this.gameMap.getTile(entity.getPosition()).setOccupiedById(null);
+        Hex previousPosition = entity.getPosition();
+        vacateTile(entity, previousPosition);
 
         entity.setPosition(targetHex);
+        spatialIndex.move(entity, previousPosition, targetHex);
 
-        this.gameMap.getTile(targetHex).setOccupiedById(entity.getId());
+        occupyTile(entity, targetHex);
 
         if (entity.getState() == EntityStateType.COMBAT) {
             entity.setCurrentAP(entity.getCurrentAP() - moveCost);
@@ -364,7 +649,41 @@ public class GameSession implements CombatEventListener {
                 .build();
 
         publishEvent( movedEvent);
-        checkForCombatStart(entity);
+        if (updateAggroZonesAfterMove(entity, previousPosition, targetHex)) {
+            checkForCombatStart(entity);
+        }
+    }
+
+    /**
+     * Переносит зону переместившейся сущности и определяет, пересекла ли она при этом
+     * границу зоны противника (или противник попал в её собственную зону агра).
+     * @return {@code true}, если нужна проверка начала боя.
+     */
+    private boolean updateAggroZonesAfterMove(Entity movedEntity, Hex from, Hex to) {
+        List<Entity> newlyCovered = aggroZones.update(movedEntity, gameMap, spatialIndex);
+        if (movedEntity.getState() == EntityStateType.COMBAT) {
+            return false;
+        }
+        for (Entity owner : aggroZones.findTriggeredOwners(movedEntity, from, to)) {
+            if (factions.areEnemies(owner, movedEntity)) {
+                return true;
+            }
+        }
+        for (Entity covered : newlyCovered) {
+            if (covered.getState() == EntityStateType.EXPLORING && factions.areEnemies(covered, movedEntity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Обновляет зоны сущностей после смены их состояния (вступление в бой или выход из него).
+     */
+    private void refreshAggroZones(Collection<Entity> changedEntities) {
+        for (Entity entity : changedEntities) {
+            aggroZones.update(entity, gameMap, spatialIndex);
+        }
     }
 
     private void entityAttack(String attackerId, String targetId) {
@@ -389,7 +708,7 @@ public class GameSession implements CombatEventListener {
         boolean isTargetInCombat = target.getState() == EntityStateType.COMBAT;
 
         if (!isAttackerInCombat && !isTargetInCombat) {
-            if(factionService.areEnemies(attacker, target)) {
+            if(factions.areEnemies(attacker, target)) {
                 log.info(">>> SERVER: Initiating new combat via entityAttack. Attacker: {}, Target: {}", attacker.getId(), target.getId());
 
                 DamageResult damageResult = target.takeDamage(attacker.getAttack());
@@ -406,13 +725,15 @@ public class GameSession implements CombatEventListener {
             return;
         }
 
-        if(!isAttackerInCombat && isTargetInCombat && factionService.areEnemies(attacker, target)) {
+        if(!isAttackerInCombat && isTargetInCombat && factions.areEnemies(attacker, target)) {
             log.info("{} joins an existing combat by attacking {}!", attacker.getName(), target.getName());
             DamageResult damageResult = target.takeDamage(attacker.getAttack());
             publishAttackEvents(attacker, target, damageResult);
             CombatInstance combat = findCombatForEntity(target.getId());
             if(combat != null) {
-                combat.addParticipantsToCombat(findNearbyAlliesAndEnemies(attacker, target));
+                List<Entity> joiningGroup = findNearbyAlliesAndEnemies(attacker, target);
+                combat.addParticipantsToCombat(joiningGroup);
+                onParticipantsJoined(combat, joiningGroup);
             }
         }
 
@@ -452,7 +773,7 @@ public class GameSession implements CombatEventListener {
     }
 
     /**
-     * Находит и возвращает список всех сущностей, находящихся в некотором
+     * Находит и возвращает список всех живых сущностей, находящихся в некотором
      * радиусе от заданной точки.
      *
      * @param centerHex центр области поиска.
@@ -465,18 +786,18 @@ public class GameSession implements CombatEventListener {
             return (targetInCenter != null) ? List.of(targetInCenter) : List.of();
         }
 
-        return this.getEntities().values().stream()
-                .filter(entity -> entity.getPosition().distanceTo(centerHex) <= radius)
-                .collect(Collectors.toList());
+        return spatialIndex.findInRadius(centerHex, radius);
     }
 
     private List<Entity> findNearbyAlliesAndEnemies(Entity attacker, Entity target) {
         final int COMBAT_JOIN_RADIUS = standartEntityGameSettings.getDefaultCheckRadius();
 
-        return entities.values().stream()
+        Set<Entity> nearbyEntities = Collections.newSetFromMap(new IdentityHashMap<>());
+        nearbyEntities.addAll(spatialIndex.findInRadius(attacker.getPosition(), COMBAT_JOIN_RADIUS));
+        nearbyEntities.addAll(spatialIndex.findInRadius(target.getPosition(), COMBAT_JOIN_RADIUS));
+
+        return nearbyEntities.stream()
                 .filter(entity -> entity.getState() == EntityStateType.EXPLORING)
-                .filter(entity -> entity.getPosition().distanceTo(attacker.getPosition()) <= COMBAT_JOIN_RADIUS ||
-                        entity.getPosition().distanceTo(target.getPosition()) <= COMBAT_JOIN_RADIUS)
                 .filter(entity -> Objects.equals(entity.getTeamId(), attacker.getTeamId()) ||
                         Objects.equals(entity.getTeamId(), target.getTeamId()) ||
                         entity.equals(attacker) || entity.equals(target))
@@ -490,7 +811,7 @@ public class GameSession implements CombatEventListener {
         int attackRange = attacker.getAttackRange();
 
         int distance = attacker.getPosition().distanceTo(target.getPosition());
-        return attackRange >= distance;
+        return attackRange >= distance && gameMap.canSee(attacker.getPosition(), target.getPosition());
     }
 
     public void addGameSessionEndListener(GameSessionEndListener listener) {
@@ -516,24 +837,21 @@ public class GameSession implements CombatEventListener {
      * @return объект {@link Player} найденного игрока или {@code null}.
      */
     public Player getPlayerByWebsocketSessionId(String websocketSessionId) {
-        for(Entity entity : entities.values())
-            if(entity instanceof Player player)
-                if(player.getWebsocketSessionId().equals(websocketSessionId))
-                    return player;
-        return null;
+        return websocketSessionId != null ? playersByWebsocketSessionId.get(websocketSessionId) : null;
     }
 
     /**
      * Метод для проверки необходимости начала боя после перемещения.
      * <p>
      * Бой начинается, когда сущность заходит в зону "агра".
+     * Вызывается только при переходе через границу зоны (см. {@link AggroZoneTracker}).
      * @param movedEntity ID сущности, которая совершила перемещение
      */
     public void checkForCombatStart(Entity movedEntity) {
         if(movedEntity.getState() == EntityStateType.COMBAT)
             return;
 
-        final int MAX_CHECK_RADIUS = 10;
+        final int MAX_CHECK_RADIUS = AggroZoneTracker.COMBAT_JOIN_RADIUS;
 
         List<Entity> nearbyEntities = findAllEntitiesInRadius(movedEntity.getId(), MAX_CHECK_RADIUS);
         if (nearbyEntities.isEmpty())
@@ -541,11 +859,19 @@ public class GameSession implements CombatEventListener {
 
         boolean isEnemyPresent = false;
         String existingCombatId = null;
+        Hex movedPosition = movedEntity.getPosition();
         for(Entity nearbyEntity : nearbyEntities)
-            if(factionService.areEnemies(nearbyEntity, movedEntity)) {
+            if(factions.areEnemies(nearbyEntity, movedEntity)) {
                 if(nearbyEntity.getState() == EntityStateType.EXPLORING) {
-                    int distance = movedEntity.getPosition().distanceTo(nearbyEntity.getPosition());
-                    if (distance <= movedEntity.getAggroRadius() || distance <= nearbyEntity.getAggroRadius()) {
+                    Hex nearbyPosition = nearbyEntity.getPosition();
+                    int distance = Hex.distance(movedPosition.getQ(), movedPosition.getR(),
+                            nearbyPosition.getQ(), nearbyPosition.getR());
+                    // агр только по линии видимости: враг за стеной не замечает
+                    boolean movedNotices = distance <= movedEntity.getAggroRadius()
+                            && gameMap.canSee(movedPosition, nearbyPosition);
+                    boolean nearbyNotices = distance <= nearbyEntity.getAggroRadius()
+                            && gameMap.canSee(nearbyPosition, movedPosition);
+                    if (movedNotices || nearbyNotices) {
                         // бой будет начинаться для ВСЕХ юнитов, которые находятся рядом, а не только для "врагов"
                         // потом можно создать метод для окончания боя по согласию всех участников
                         isEnemyPresent = true;
@@ -570,7 +896,9 @@ public class GameSession implements CombatEventListener {
         if(existingCombatId != null) {
             log.info("{}'s group joins an existing combat!", movedEntity.getName());
             convertAbilityCooldownByEntityStateType(EntityStateType.COMBAT, joiningGroup);
-            activeCombats.get(existingCombatId).addParticipantsToCombat(joiningGroup);
+            CombatInstance existingCombat = activeCombats.get(existingCombatId);
+            existingCombat.addParticipantsToCombat(joiningGroup);
+            onParticipantsJoined(existingCombat, joiningGroup);
         } else {
             startCombat(joiningGroup);
         }
@@ -578,10 +906,10 @@ public class GameSession implements CombatEventListener {
 
     private List<Entity> findAllEntitiesInRadius(String entityId, int searchingRadius) {
         Entity entity = entities.get(entityId);
-        return entities.values().stream()
-                .filter(e -> !e.getId().equals(entity.getId()) &&
-                        entity.getPosition().distanceTo(e.getPosition()) <= searchingRadius)
-                .toList();
+        Hex position = entity.getPosition();
+        List<Entity> nearbyEntities = spatialIndex.findInRadius(position.getQ(), position.getR(), searchingRadius);
+        nearbyEntities.removeIf(e -> e == entity);
+        return nearbyEntities;
     }
 
     /**
@@ -596,6 +924,8 @@ public class GameSession implements CombatEventListener {
     public void startCombat(List<Entity> participants) {
         String combatId = UUID.randomUUID().toString();
         CombatInstance combat = new CombatInstance(combatId, participants, aiService, this.getStandartEntityGameSettings().getDefaultEntityCurrentAp(), this);
+        // участники индексируются до старта: первый ход может сразу обратиться к бою
+        onParticipantsJoined(combat, participants);
         combat.start();
         convertAbilityCooldownByEntityStateType(EntityStateType.COMBAT, participants);
 
@@ -670,23 +1000,18 @@ public class GameSession implements CombatEventListener {
     }
 
     private void publishCombatStartedEvent(CombatInstance combat, String combatId) {
-        List<CombatTeamDto> combatTeamDtos = combat.getTeams().entrySet().stream()
-                .map(entry -> {
-                    Set<String> teamMemberIds = entry.getValue().stream()
-                            .map(Entity::getId)
-                            .collect(Collectors.toSet());
-                    return new CombatTeamDto(entry.getKey(), teamMemberIds);
-                })
+        List<CombatTeamDto> combatTeamDtos = combat.getTeams().keySet().stream()
+                .map(teamId -> new CombatTeamDto(teamId, combat.getTeamMemberIds(teamId)))
                 .toList();
 
-        List<EntityStateDto> combatantDtos = combat.getTurnOrder().stream()
+        List<String> turnOrder = combat.getTurnOrderIds();
+
+        List<EntityStateDto> combatantDtos = turnOrder.stream()
                 .map(entityId -> entities.get(entityId))
                 .filter(Objects::nonNull)
                 .map(entityMapper::toState)
                 .collect(Collectors.toList());
 
-        ArrayList<String> turnOrder = new ArrayList<>(combat.getTurnOrder());
-
         CombatStartedEvent combatStartedEvent = CombatStartedEvent.builder()
                 .combatId(combatId)
                 .combatInitiatorId(null)
@@ -725,15 +1050,19 @@ public class GameSession implements CombatEventListener {
             }
         }
         convertAbilityCooldownByEntityStateType(EntityStateType.EXPLORING, allParticipants);
+        stateTracker.markEntitiesChanged(allParticipants.stream().map(Entity::getId).toList());
+        refreshAggroZones(allParticipants);
+        for (Entity participant : allParticipants) {
+            CombatInstance participantCombat = combatsByEntityId.get(participant.getId());
+            if (participantCombat != null && combatId.equals(participantCombat.getCombatId())) {
+                combatsByEntityId.remove(participant.getId());
+            }
+        }
 
         CombatInstance combat = activeCombats.get(combatId);
         if (combat != null) {
-            long remainingTeams = combat.getTeams().values().stream()
-                    .filter(team -> team.stream().anyMatch(Entity::isAlive))
-                    .count();
-
-            if (remainingTeams <= 1) {
-                scheduler.schedule(() -> activeCombats.remove(combatId), 1, TimeUnit.SECONDS);
+            if (combat.getRemainingTeamCount() <= 1) {
+                schedule(() -> activeCombats.remove(combatId), 1, TimeUnit.SECONDS);
             }
         }
     }
@@ -749,8 +1078,8 @@ public class GameSession implements CombatEventListener {
             return;
         }
         if(inviterUser.getTeamId() == null) {
-            inviterUser.setTeamId(UUID.randomUUID().toString());
-            publishTeamUpdated(inviterUser.getTeamId());
+            changeTeam(inviterUser, UUID.randomUUID().toString());
+            publishTeamMembersChanged(inviterUser.getTeamId(), Set.of(inviterUser.getId()), Set.of());
         }
 
         this.pendingInvites.put(targetUser.getUserId(), inviterUser.getTeamId());
@@ -760,21 +1089,39 @@ public class GameSession implements CombatEventListener {
     }
 
     /**
-     * Собирает актуальный состав команды по её ID и инициирует рассылку
+     * Берет актуальный состав команды из индекса и инициирует рассылку
      * события {@link TeamUpdatedEvent} для обновления состояния на клиентах.
      *
      * @param teamId ID команды, которую нужно обновить.
      */
     public void publishTeamUpdated(String teamId) {
-        Set<String> membersIds = this.entities.values().stream()
-                .filter(e -> Objects.equals(e.getTeamId(), teamId))
-                .map(Entity::getId)
-                .collect(Collectors.toSet());
+        Set<String> membersIds = new HashSet<>(getTeamMemberIds(teamId));
 
         TeamUpdatedEvent event = new TeamUpdatedEvent(teamId, membersIds);
         publishEvent(event);
     }
 
+    /**
+     * Сообщает клиентам об изменении состава команды. Небольшие команды рассылаются
+     * полным составом ({@link TeamUpdatedEvent}), для команд больше
+     * {@value #TEAM_DELTA_MIN_SIZE} участников отправляются только изменения
+     * ({@link TeamMembersChangedEvent}).
+     *
+     * @param teamId  ID команды.
+     * @param added   ID вступивших участников.
+     * @param removed ID покинувших команду участников.
+     */
+    public void publishTeamMembersChanged(String teamId, Set<String> added, Set<String> removed) {
+        if (teamId == null) {
+            return;
+        }
+        if (getTeamMemberIds(teamId).size() <= TEAM_DELTA_MIN_SIZE) {
+            publishTeamUpdated(teamId);
+            return;
+        }
+        publishEvent(new TeamMembersChangedEvent(teamId, added, removed));
+    }
+
     /**
      * Обрабатывает ответ игрока на приглашение в команду.
      * <p>
@@ -800,14 +1147,13 @@ public class GameSession implements CombatEventListener {
         if (accepted) {
             log.info("Player {} accepted invite to team {}", invitedUser.getName(), teamIdToJoin);
 
-            String oldTeamId = invitedUser.getTeamId();
+            String oldTeamId = changeTeam(invitedUser, teamIdToJoin);
             if (oldTeamId != null && !oldTeamId.equals(teamIdToJoin)) {
                 log.info("Player {} is leaving old team {}", invitedUser.getName(), oldTeamId);
-                publishTeamUpdated(oldTeamId);
+                publishTeamMembersChanged(oldTeamId, Set.of(), Set.of(invitedUser.getId()));
             }
-            invitedUser.setTeamId(teamIdToJoin);
 
-            publishTeamUpdated(teamIdToJoin);
+            publishTeamMembersChanged(teamIdToJoin, Set.of(invitedUser.getId()), Set.of());
 
         } else {
             log.info("Player {} declined invite to team {}", invitedUser.getName(), teamIdToJoin);
@@ -821,25 +1167,17 @@ public class GameSession implements CombatEventListener {
      * @return объект {@link Player}, который имеет этот userId
      */
     public Player getPlayerByUserId(String invitedUserId) {
-        return entities.values().stream()
-                .filter(e -> (e instanceof Player) &&
-                             ((Player) e).getUserId().equals(invitedUserId))
-                .map(e -> (Player) e)
-                .findFirst()
-                .orElse(null);
+        return invitedUserId != null ? playersByUserId.get(invitedUserId) : null;
     }
 
     /**
-     * Получает сущность, находящуюся на указанном гексе.
+     * Получает живую сущность, находящуюся на указанном гексе.
      *
      * @param centerHex координата для поиска.
      * @return объект {@link Entity} на этой координате или {@code null}, если она пуста.
      */
     public Entity getEntityAt(Hex centerHex) {
-        return entities.values().stream()
-                .filter(e -> e.getPosition().equals(centerHex))
-                .findFirst()
-                .orElse(null);
+        return spatialIndex.getAt(centerHex);
     }
 
     /**
@@ -954,17 +1292,19 @@ public class GameSession implements CombatEventListener {
         if(playerWhoLeaves == null)
             return;
 
-        String oldTeamId = playerWhoLeaves.getTeamId();
-
         String newSoloTeamId = UUID.randomUUID().toString();
-        playerWhoLeaves.setTeamId(newSoloTeamId);
+        String oldTeamId = changeTeam(playerWhoLeaves, newSoloTeamId);
 
-        publishTeamUpdated(oldTeamId);
-        publishTeamUpdated(playerWhoLeaves.getTeamId());
+        publishTeamMembersChanged(oldTeamId, Set.of(), Set.of(playerWhoLeaves.getId()));
+        publishTeamMembersChanged(newSoloTeamId, Set.of(playerWhoLeaves.getId()), Set.of());
     }
 
     /**
      * Обработчик отключения игрока от сессии.
+     * <p>
+     * Сущность игрока остается в сессии на время {@code resumeGraceMillis}: если игрок успеет
+     * переподключиться ({@link #rebindPlayer(Player, String)}), он продолжит игру без пересоздания
+     * сущности. Иначе по истечении этого времени игрок удаляется из сессии.
      * @param websocketSessionId ID отключенной WebSocket-сессии.
      */
     public void handlePlayerDisconnect(String websocketSessionId) {
@@ -972,14 +1312,68 @@ public class GameSession implements CombatEventListener {
         if (disconnectedPlayer == null) {
             return;
         }
-        endTurn(disconnectedPlayer.getId());
+        if (resumeGraceMillis <= 0) {
+            removeDisconnectedPlayer(disconnectedPlayer);
+            return;
+        }
+
+        playersByWebsocketSessionId.remove(websocketSessionId, disconnectedPlayer);
+        disconnectedPlayer.setWebsocketSessionId(null);
+        endTurnIfCurrent(disconnectedPlayer);
+
+        String playerId = disconnectedPlayer.getId();
+        pendingRemovals.put(playerId, schedule(() -> expireDisconnectedPlayer(playerId), resumeGraceMillis, TimeUnit.MILLISECONDS));
+        log.info("Player {} disconnected from session {}, waiting {} ms for reconnect", playerId, this.sessionID, resumeGraceMillis);
+    }
+
+    /**
+     * Привязывает игрока к новому WebSocket-соединению и отменяет его удаление, если игрок был отключен.
+     * @param player             игрок сессии.
+     * @param websocketSessionId ID нового WebSocket-соединения.
+     * @return ID прежнего соединения игрока или {@code null}, если игрок был отключен.
+     */
+    public String rebindPlayer(Player player, String websocketSessionId) {
+        HashedWheelTimer.Timeout removal = pendingRemovals.remove(player.getId());
+        if (removal != null) {
+            removal.cancel();
+        }
+
+        String previousWebsocketSessionId = player.getWebsocketSessionId();
+        if (previousWebsocketSessionId != null) {
+            playersByWebsocketSessionId.remove(previousWebsocketSessionId, player);
+        }
+        player.setWebsocketSessionId(websocketSessionId);
+        playersByWebsocketSessionId.put(websocketSessionId, player);
+        return previousWebsocketSessionId;
+    }
+
+    private void expireDisconnectedPlayer(String playerId) {
+        // таймер мог сработать уже после переподключения игрока
+        if (pendingRemovals.remove(playerId) == null) {
+            return;
+        }
+        if (entities.get(playerId) instanceof Player player) {
+            log.info("Player {} did not reconnect to session {} in time", playerId, this.sessionID);
+            removeDisconnectedPlayer(player);
+        }
+    }
 
+    private void endTurnIfCurrent(Player player) {
+        CombatInstance combat = findCombatForEntity(player.getId());
+        if (combat != null && combat.isCurrentTurn(player)) {
+            endTurn(player.getId());
+        }
+    }
+
+    private void removeDisconnectedPlayer(Player disconnectedPlayer) {
+        // ход передается до удаления: после него игрок уже не найдет свой бой
+        endTurnIfCurrent(disconnectedPlayer);
         this.removeEntity(disconnectedPlayer);
         PlayerLeftEvent event = new PlayerLeftEvent(disconnectedPlayer.getId());
         publishEvent(event);
 
         if (!disconnectedPlayer.getTeamId().equals(disconnectedPlayer.getId())) {
-            publishTeamUpdated(disconnectedPlayer.getTeamId());
+            publishTeamMembersChanged(disconnectedPlayer.getTeamId(), Set.of(), Set.of(disconnectedPlayer.getId()));
         }
 
         if (!hasHumanPlayers()) {
@@ -989,8 +1383,7 @@ public class GameSession implements CombatEventListener {
     }
 
     private boolean hasHumanPlayers() {
-        return this.entities.values().stream()
-                .anyMatch(entity -> entity instanceof Player);
+        return !playersByUserId.isEmpty();
     }
 
     @Override
@@ -998,9 +1391,25 @@ public class GameSession implements CombatEventListener {
         return this.entities.get(id);
     }
 
+    @Override
+    public Entity getEntityByHandle(int handle) {
+        return handle > 0 && handle <= entitiesByHandle.size() ? entitiesByHandle.get(handle - 1) : null;
+    }
+
     @Override
     public void scheduleAiTurn(String monsterId) {
-        this.scheduler.schedule(() -> aiService.executeMonsterTurn(monsterId, this), 1, TimeUnit.SECONDS);
+        schedule(() -> aiService.executeMonsterTurn(monsterId, this), 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void scheduleTurnSkip(String playerId) {
+        schedule(() -> {
+            // игрок мог переподключиться или уже быть удален из сессии
+            if (entities.get(playerId) instanceof Player player && player.getWebsocketSessionId() == null) {
+                log.info("Skipping turn of disconnected player {} in session {}", playerId, this.sessionID);
+                endTurnIfCurrent(player);
+            }
+        }, disconnectedTurnSkipMillis, TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -0,0 +1,174 @@
+package dev.mygame.domain.session;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Множество положительных {@code int} (дескрипторов сущностей) без упаковки в {@link Integer}.
+ * <p>
+ * Открытая адресация с линейным пробированием; 0 - признак пустой ячейки, поэтому
+ * ключи должны быть положительными. Удаление сдвигает следующие элементы цепочки
+ * назад, так что надгробия не накапливаются.
+ */
+public final class IntHashSet {
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int size;
+
+    public IntHashSet() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize ожидаемое количество элементов.
+     */
+    public IntHashSet(int expectedSize) {
+        int capacity = 8;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+    }
+
+    /**
+     * @return {@code true}, если элемента не было в множестве.
+     */
+    public boolean add(int key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size > keys.length * 3 / 4) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        if (key <= 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true}, если элемент был в множестве.
+     */
+    public boolean remove(int key) {
+        if (key <= 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // сдвигаем элементы цепочки, чтобы не разорвать поиск
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Обходит элементы в порядке хранения. Множество нельзя изменять во время обхода.
+     */
+    public void forEach(IntConsumer action) {
+        for (int key : keys) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true}, если хотя бы один элемент удовлетворяет условию.
+     */
+    public boolean anyMatch(IntPredicate predicate) {
+        for (int key : keys) {
+            if (key != EMPTY && predicate.test(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        keys = new int[capacity];
+        int mask = capacity - 1;
+        for (int key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        // последовательные дескрипторы иначе легли бы в соседние ячейки одной цепочкой
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.mygame.domain.session;
+
+import dev.mygame.dto.websocket.event.CasterStateUpdatedEvent;
+import dev.mygame.dto.websocket.event.TeamUpdatedEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Накопитель событий сессии, разосланных во время выполнения одной команды.
+ * <p>
+ * Пока пакет открыт, события не отправляются клиентам сразу, а собираются и затем уходят одним
+ * сообщением. События, описывающие полное текущее состояние объекта ({@link CasterStateUpdatedEvent},
+ * {@link TeamUpdatedEvent}), сливаются: из нескольких событий об одном объекте остается последнее,
+ * на месте последнего. Остальные события (урон, перемещения, изменения состава) сохраняются все и по порядку.
+ * <p>
+ * Пакет не потокобезопасен и должен использоваться только из очереди команд сессии.
+ */
+public class SessionEventBatch {
+    private final List<Object> payloads = new ArrayList<>();
+    private boolean open;
+
+    /**
+     * Начинает сбор событий.
+     */
+    public void open() {
+        open = true;
+    }
+
+    /**
+     * Завершает сбор событий. Накопленные события нужно предварительно забрать через {@link #drain()}.
+     */
+    public void close() {
+        open = false;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void add(Object payload) {
+        payloads.add(payload);
+    }
+
+    /**
+     * Забирает накопленные события после слияния повторов. Пакет остается открытым.
+     * @return события в порядке рассылки.
+     */
+    public List<Object> drain() {
+        if (payloads.isEmpty()) {
+            return List.of();
+        }
+        List<Object> result = new ArrayList<>(payloads.size());
+        Set<String> seenKeys = new HashSet<>();
+        // идем с конца, чтобы из повторов осталось последнее событие
+        for (int i = payloads.size() - 1; i >= 0; i--) {
+            Object payload = payloads.get(i);
+            String key = coalescingKey(payload);
+            if (key == null || seenKeys.add(key)) {
+                result.add(payload);
+            }
+        }
+        payloads.clear();
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * @return ключ объекта, состояние которого целиком описывает событие, или {@code null},
+     *         если событие нельзя заменить более поздним.
+     */
+    private static String coalescingKey(Object payload) {
+        if (payload instanceof CasterStateUpdatedEvent event) {
+            return "caster:" + event.getCasterId();
+        }
+        if (payload instanceof TeamUpdatedEvent event) {
+            return "team:" + event.getTeamId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package dev.mygame.domain.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал последних событий сессии для досылки пропущенных событий переподключившемуся клиенту.
+ * <p>
+ * Каждому событию, рассылаемому клиентам сессии, присваивается порядковый номер (начиная с 1).
+ * Последние {@code capacity} событий хранятся в кольцевом буфере: событие с номером {@code seq}
+ * лежит в ячейке {@code (seq - 1) % capacity}, поэтому добавление вытесняет самое старое событие
+ * без сдвигов и выделения памяти.
+ * <p>
+ * Журнал не потокобезопасен и должен использоваться только из очереди команд сессии.
+ */
+public class SessionEventLog {
+    /** Количество хранимых событий по умолчанию. */
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final Object[] payloads;
+    private long lastSequence;
+
+    public SessionEventLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SessionEventLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.payloads = new Object[capacity];
+    }
+
+    /**
+     * Добавляет событие в журнал.
+     * @return порядковый номер события.
+     */
+    public long append(Object payload) {
+        lastSequence++;
+        payloads[slot(lastSequence)] = payload;
+        return lastSequence;
+    }
+
+    /**
+     * @return номер последнего события; 0, если событий еще не было.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return номер самого старого события, которое еще хранится в журнале.
+     */
+    public long getOldestSequence() {
+        return Math.max(1, lastSequence - payloads.length + 1);
+    }
+
+    /**
+     * @return {@code true}, если в журнале есть все события после {@code sinceSequence}.
+     */
+    public boolean canReplayFrom(long sinceSequence) {
+        return sinceSequence >= 0
+                && sinceSequence <= lastSequence
+                && sinceSequence + 1 >= getOldestSequence();
+    }
+
+    /**
+     * Возвращает события с номерами больше {@code sinceSequence} в порядке их рассылки.
+     * Перед вызовом нужно проверить {@link #canReplayFrom(long)}.
+     */
+    public List<SequencedEvent> getEventsAfter(long sinceSequence) {
+        if (!canReplayFrom(sinceSequence)) {
+            throw new IllegalArgumentException("Events after " + sinceSequence + " are no longer available");
+        }
+        List<SequencedEvent> events = new ArrayList<>((int) (lastSequence - sinceSequence));
+        for (long seq = sinceSequence + 1; seq <= lastSequence; seq++) {
+            events.add(new SequencedEvent(seq, payloads[slot(seq)]));
+        }
+        return events;
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - 1) % payloads.length);
+    }
+
+    /**
+     * Событие журнала вместе с его порядковым номером.
+     */
+    public static final class SequencedEvent {
+        private final long sequence;
+        private final Object payload;
+
+        public SequencedEvent(long sequence, Object payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Object getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.mygame.domain.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Почтовый ящик (mailbox) игровой сессии.
+ * <p>
+ * Все команды, изменяющие состояние сессии (действия игроков, подключение,
+ * отключение, ходы AI, голосование за мир), помещаются в одну очередь и
+ * выполняются строго по очереди. В каждый момент времени очередь разбирает
+ * не более одного потока, поэтому внутреннее состояние {@link GameSession}
+ * не требует блокировок, а разные сессии обрабатываются параллельно
+ * на общем пуле потоков.
+ */
+public class SessionMailbox {
+    private static final Logger log = LoggerFactory.getLogger(SessionMailbox.class);
+
+    /** Сколько команд обрабатывается за один захват потока, прежде чем уступить его другим сессиям. */
+    private static final int DEFAULT_THROUGHPUT = 64;
+
+    private final String name;
+    private final Executor executor;
+    private final int throughput;
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public SessionMailbox(String name, Executor executor) {
+        this(name, executor, DEFAULT_THROUGHPUT);
+    }
+
+    public SessionMailbox(String name, Executor executor, int throughput) {
+        this.name = name;
+        this.executor = executor;
+        this.throughput = Math.max(1, throughput);
+    }
+
+    /**
+     * Ставит команду в очередь сессии.
+     * Если очередь в этот момент никем не обрабатывается, запускает её разбор.
+     * @param command команда, которая будет выполнена в потоке сессии.
+     */
+    public void submit(Runnable command) {
+        commands.add(command);
+        if (pending.getAndIncrement() == 0) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * @return количество команд, ожидающих выполнения (включая выполняемую).
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    private void scheduleDrain() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            log.error("Mailbox {} rejected by executor, dropping {} pending commands", name, pending.get(), e);
+            commands.clear();
+            pending.set(0);
+        }
+    }
+
+    private void drain() {
+        for (int i = 0; i < throughput; i++) {
+            Runnable command = commands.poll();
+            if (command != null) {
+                try {
+                    command.run();
+                } catch (Throwable e) {
+                    // в том числе Error: иначе счетчик не уменьшится и очередь сессии остановится навсегда
+                    log.error("Command failed in session mailbox {}", name, e);
+                }
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+        }
+        // в очереди остались команды - отдаем поток другим сессиям и продолжаем позже
+        scheduleDrain();
+    }
+}
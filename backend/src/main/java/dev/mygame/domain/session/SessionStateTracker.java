@@ -0,0 +1,189 @@
+package dev.mygame.domain.session;
+
+import dev.mygame.dto.websocket.event.*;
+import dev.mygame.dto.websocket.response.CombatTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Версия состояния игровой сессии для дельта-синхронизации клиентов.
+ * <p>
+ * Каждое изменение состояния, видимое клиенту, увеличивает версию сессии, а для затронутых
+ * сущностей запоминается версия их последнего изменения. Клиент, знающий версию {@code v},
+ * получает только сущности, изменившиеся после {@code v}, и ID удаленных сущностей;
+ * тайлы карты - только если после {@code v} менялся рельеф.
+ * <p>
+ * Изменения определяются по событиям, которые сессия рассылает клиентам ({@link #onEvent(Object)}),
+ * а также по добавлению и удалению сущностей. История удалений хранится для последних
+ * {@value #MAX_DELTA_GAP} версий; при большем отставании клиенту отправляется полный снимок.
+ * <p>
+ * Трекер не потокобезопасен и должен использоваться только из очереди команд сессии.
+ */
+public class SessionStateTracker {
+    /** Максимальное отставание версии клиента, при котором еще отправляется дельта. */
+    public static final int MAX_DELTA_GAP = 1024;
+
+    private long version;
+    private final Map<String, Long> entityVersions = new HashMap<>();
+    // порядок вставки совпадает с порядком версий, поэтому устаревшие записи - в начале
+    private final Map<String, Long> removedEntityVersions = new LinkedHashMap<>();
+    private long knownTerrainVersion = Long.MIN_VALUE;
+    private long terrainChangedAt;
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Отмечает добавление сущности в сессию.
+     */
+    public void markEntityAdded(String entityId) {
+        version++;
+        entityVersions.put(entityId, version);
+        removedEntityVersions.remove(entityId);
+    }
+
+    /**
+     * Отмечает изменение одной сущности. Сущности, которых нет в сессии, игнорируются.
+     */
+    public void markEntityChanged(String entityId) {
+        if (entityId != null) {
+            version++;
+            touch(entityId);
+        }
+    }
+
+    /**
+     * Отмечает изменение нескольких сущностей одной новой версией.
+     */
+    public void markEntitiesChanged(Collection<String> entityIds) {
+        if (entityIds == null || entityIds.isEmpty()) {
+            return;
+        }
+        version++;
+        for (String entityId : entityIds) {
+            touch(entityId);
+        }
+    }
+
+    /**
+     * Отмечает удаление сущности из сессии.
+     */
+    public void markEntityRemoved(String entityId) {
+        if (entityVersions.remove(entityId) == null) {
+            return;
+        }
+        version++;
+        removedEntityVersions.put(entityId, version);
+        pruneRemoved();
+    }
+
+    /**
+     * Сверяет версию рельефа карты с последней известной и при изменении отмечает новую версию.
+     * Первое наблюдение карты изменением не считается: рельеф приходит клиенту в полном снимке.
+     */
+    public void observeTerrain(long mapTerrainVersion) {
+        if (knownTerrainVersion == Long.MIN_VALUE) {
+            knownTerrainVersion = mapTerrainVersion;
+        } else if (knownTerrainVersion != mapTerrainVersion) {
+            knownTerrainVersion = mapTerrainVersion;
+            terrainChangedAt = ++version;
+        }
+    }
+
+    /**
+     * Отмечает сущности, состояние которых описывает событие для клиентов.
+     */
+    public void onEvent(Object payload) {
+        if (payload instanceof EntityMovedEvent event) {
+            markEntityChanged(event.getEntityId());
+        } else if (payload instanceof EntityStatsUpdatedEvent event) {
+            markEntityChanged(event.getTargetEntityId());
+        } else if (payload instanceof EntityAttackEvent event) {
+            markEntitiesChanged(Arrays.asList(event.getAttackerEntityId(), event.getTargetEntityId()));
+        } else if (payload instanceof CasterStateUpdatedEvent event) {
+            markEntityChanged(event.getCasterId());
+        } else if (payload instanceof CombatNextTurnEvent event) {
+            markEntityChanged(event.getCurrentTurnEntityId());
+        } else if (payload instanceof EntityTurnEndEvent event) {
+            markEntityChanged(event.getCurrentTurnEntityId());
+        } else if (payload instanceof EntityDiedEvent event) {
+            markEntityChanged(event.getEntityId());
+        } else if (payload instanceof CombatParticipantsJoinedEvent event) {
+            markEntitiesChanged(event.getParticipantIds());
+        } else if (payload instanceof CombatStartedEvent event) {
+            List<String> ids = new ArrayList<>();
+            for (CombatTeamDto team : event.getTeams()) {
+                ids.addAll(team.getMemberIds());
+            }
+            markEntitiesChanged(ids);
+        } else if (payload instanceof TeamUpdatedEvent event) {
+            markEntitiesChanged(event.getMemberIds());
+        } else if (payload instanceof TeamMembersChangedEvent event) {
+            List<String> ids = new ArrayList<>(event.getAddedMemberIds());
+            ids.addAll(event.getRemovedMemberIds());
+            markEntitiesChanged(ids);
+        }
+    }
+
+    /**
+     * @return {@code true}, если клиенту с версией {@code lastVersion} можно отправить дельту.
+     *         Версия 0 означает, что клиент еще не получал снимка.
+     */
+    public boolean canSendDelta(long lastVersion) {
+        return lastVersion > 0 && lastVersion <= version && version - lastVersion <= MAX_DELTA_GAP;
+    }
+
+    /**
+     * @return ID сущностей, изменившихся после версии {@code lastVersion}.
+     */
+    public List<String> getChangedEntityIds(long lastVersion) {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entityVersions.entrySet()) {
+            if (entry.getValue() > lastVersion) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return ID сущностей, удаленных после версии {@code lastVersion}.
+     */
+    public List<String> getRemovedEntityIds(long lastVersion) {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : removedEntityVersions.entrySet()) {
+            if (entry.getValue() > lastVersion) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return {@code true}, если рельеф карты менялся после версии {@code lastVersion}.
+     */
+    public boolean isTerrainChangedSince(long lastVersion) {
+        return terrainChangedAt > lastVersion;
+    }
+
+    private void touch(String entityId) {
+        if (entityId != null && entityVersions.containsKey(entityId)) {
+            entityVersions.put(entityId, version);
+        }
+    }
+
+    private void pruneRemoved() {
+        Iterator<Long> versions = removedEntityVersions.values().iterator();
+        while (versions.hasNext() && version - versions.next() > MAX_DELTA_GAP) {
+            versions.remove();
+        }
+    }
+}
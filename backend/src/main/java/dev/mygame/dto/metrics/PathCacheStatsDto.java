@@ -0,0 +1,18 @@
+package dev.mygame.dto.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO с суммарной статистикой кэшей путей всех активных сессий
+ */
+@Data
+@AllArgsConstructor
+public class PathCacheStatsDto {
+    private int sessions;
+    private int cachedPaths;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,15 @@
+package dev.mygame.dto.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * DTO с состоянием одного шарда планировщика игровых сессий
+ */
+@Data
+@AllArgsConstructor
+public class SchedulerShardStatsDto {
+    private int shard;
+    private int queueDepth;
+    private long completedTasks;
+}
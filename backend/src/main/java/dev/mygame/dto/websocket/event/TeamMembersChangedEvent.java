@@ -0,0 +1,18 @@
+package dev.mygame.dto.websocket.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * Изменение состава команды: вариант {@link TeamUpdatedEvent} для больших команд,
+ * содержащий только вступивших и покинувших команду участников.
+ */
+@Data
+@AllArgsConstructor
+public class TeamMembersChangedEvent {
+    private String teamId;
+    private Set<String> addedMemberIds;
+    private Set<String> removedMemberIds;
+}
@@ -0,0 +1,15 @@
+package dev.mygame.dto.websocket.request;
+
+import lombok.Data;
+
+/**
+ * DTO запроса досылки пропущенных событий сессии.
+ * {@code sinceSequence} - номер последнего события, полученного клиентом;
+ * {@code lastVersion} - последняя версия состояния, по которой сервер соберет изменения,
+ * если нужные события уже вытеснены из журнала.
+ */
+@Data
+public class EventReplayRequest {
+    private long sinceSequence;
+    private Long lastVersion;
+}
@@ -0,0 +1,13 @@
+package dev.mygame.dto.websocket.request;
+
+import lombok.Data;
+
+/**
+ * DTO запроса ресинхронизации состояния сессии.
+ * {@code lastVersion} - последняя версия состояния, известная клиенту;
+ * {@code null} - клиенту нужен полный снимок.
+ */
+@Data
+public class StateSyncRequest {
+    private Long lastVersion;
+}
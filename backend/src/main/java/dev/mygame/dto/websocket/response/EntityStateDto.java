@@ -9,6 +9,7 @@ import java.util.List;
 @Data
 public class EntityStateDto {
     public String id;
+    public int handle; // короткий ID сущности в рамках сессии
     public String name;
     public Hex position;
     public int currentHp;
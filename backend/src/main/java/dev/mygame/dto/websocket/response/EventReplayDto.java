@@ -0,0 +1,18 @@
+package dev.mygame.dto.websocket.response;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * События сессии, пропущенные клиентом: с номером больше {@code fromSequence}
+ * и не больше {@code lastSequence}, в порядке рассылки.
+ */
+@Data
+public class EventReplayDto {
+    public String sessionId;
+    public long fromSequence;
+    public long lastSequence;
+    public List<Map<String, Object>> events; // те же обертки, что и в топике обновлений сессии
+}
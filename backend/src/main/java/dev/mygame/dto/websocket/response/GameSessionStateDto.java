@@ -7,6 +7,8 @@ import java.util.List;
 @Data
 public class GameSessionStateDto {
     public String sessionId;
+    public long version; // версия состояния сессии, к которой относится снимок
+    public long lastEventSequence; // номер последнего события сессии, учтенного в снимке
     public String yourPlayerId; // id сущности, которой управляет клиент
     public MapStateDto mapState;
     public List<EntityStateDto> entities;
@@ -0,0 +1,19 @@
+package dev.mygame.dto.websocket.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Изменения состояния сессии между версией клиента ({@code fromVersion}) и текущей ({@code version}).
+ */
+@Data
+public class SessionStateDeltaDto {
+    public String sessionId;
+    public long fromVersion;
+    public long version;
+    public long lastEventSequence; // номер последнего события сессии, учтенного в изменениях
+    public List<EntityStateDto> entities; // изменившиеся и добавленные сущности
+    public List<String> removedEntityIds;
+    public MapStateDto mapState; // null, если рельеф не менялся
+}
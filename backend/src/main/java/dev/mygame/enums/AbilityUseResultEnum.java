@@ -5,6 +5,7 @@ public enum AbilityUseResultEnum {
     NOT_ENOUGH_AP,          // недостаточно ap
     ON_COOLDOWN,            // способность на кулдауне
     OUT_OF_RANGE,           // цель слишком далеко
+    NOT_IN_LINE_OF_SIGHT,   // цель не видна (закрыта стеной)
     INVALID_TARGET,         // неподходящая цель
     CASTER_IS_DEAD          // кастер мертв
 }
@@ -0,0 +1,13 @@
+package dev.mygame.enums;
+
+/**
+ * Отношение между двумя фракциями (командами).
+ */
+public enum FactionRelation {
+    /** Союзники: не атакуют друг друга и не вступают в бой. */
+    ALLIED,
+    /** Нейтралы: не союзники, но и не начинают бой друг с другом. */
+    NEUTRAL,
+    /** Враги. */
+    HOSTILE
+}
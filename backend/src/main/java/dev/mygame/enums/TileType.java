@@ -9,19 +9,22 @@ import lombok.Getter;
  */
 @Getter
 public enum TileType {
-    FLOOR(true, false),
-    WALL(false, false),
-    PIT(true, false),
-    DOOR(true, false),
-    WATER(true, false);
+    FLOOR(true, false, false),
+    WALL(false, false, true),
+    PIT(true, false, false),
+    DOOR(true, false, true),
+    WATER(true, false, false);
 
     /** Если true, сущности могут перемещаться по этому тайлу. */
     private final boolean walkable;
     /** Если true, тайл может быть разрушен способностями или действиями. */
     private final boolean destructible;
+    /** Если true, тайл закрывает обзор: клетки за ним не видны. */
+    private final boolean opaque;
 
-    TileType(boolean walkable, boolean destructible) {
+    TileType(boolean walkable, boolean destructible, boolean opaque) {
         this.walkable = walkable;
         this.destructible = destructible;
+        this.opaque = opaque;
     }
 }
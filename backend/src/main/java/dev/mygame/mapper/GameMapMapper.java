@@ -12,12 +12,12 @@ import java.util.List;
 public class GameMapMapper {
     public MapStateDto toGameMapState(GameMapHex gameMap) {
         MapStateDto mapClientState = new MapStateDto();
-        List<TileDto> tiles = gameMap.getTileEntries().stream()
-                        .map(entry -> new TileDto(
-                                entry.getKey().getQ(),
-                                entry.getKey().getR(),
-                                entry.getValue().getType()))
-                        .toList();
+        List<TileDto> tiles = new ArrayList<>(gameMap.getTileCount());
+        for (int index = 0; index < gameMap.getCellCount(); index++) {
+            if (gameMap.hasTile(index)) {
+                tiles.add(new TileDto(gameMap.qOfIndex(index), gameMap.rOfIndex(index), gameMap.getTileType(index)));
+            }
+        }
         mapClientState.setTiles(tiles);
 
         List<Hex> spawnPoints = new ArrayList<>();
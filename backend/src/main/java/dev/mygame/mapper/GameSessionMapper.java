@@ -2,9 +2,10 @@ package dev.mygame.mapper;
 
 import dev.mygame.dto.websocket.response.EntityStateDto;
 import dev.mygame.dto.websocket.response.GameSessionStateDto;
-import dev.mygame.domain.model.Entity;
+import dev.mygame.dto.websocket.response.SessionStateDeltaDto;
 import dev.mygame.domain.model.Player;
 import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionStateTracker;
 import dev.mygame.mapper.context.MappingContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -21,13 +22,11 @@ public class GameSessionMapper {
     public GameSessionStateDto toGameSessionState(GameSession session, MappingContext mappingContext) {
         GameSessionStateDto gameSessionStateDto = new GameSessionStateDto();
         gameSessionStateDto.setSessionId(session.getSessionID());
+        gameSessionStateDto.setVersion(session.getStateTracker().getVersion());
+        gameSessionStateDto.setLastEventSequence(session.getEventLog().getLastSequence());
 
-        String yourPlayerId = session.getEntities().values().stream()
-                .filter(en -> en instanceof Player && ((Player) en).getUserId().equals(mappingContext.getForUserId()))
-                .findFirst()
-                .map(Entity::getId)
-                .orElse(null);
-        gameSessionStateDto.setYourPlayerId(yourPlayerId);
+        Player yourPlayer = session.getPlayerByUserId(mappingContext.getForUserId());
+        gameSessionStateDto.setYourPlayerId(yourPlayer != null ? yourPlayer.getId() : null);
 
         if(session.getGameMap() != null)
             gameSessionStateDto.setMapState(gameMapMapper.toGameMapState(session.getGameMap()));
@@ -40,4 +39,30 @@ public class GameSessionMapper {
 
         return gameSessionStateDto;
     }
+
+    /**
+     * Собирает изменения состояния сессии после версии клиента: изменившиеся сущности,
+     * удаленные сущности и карту, если менялся рельеф.
+     */
+    public SessionStateDeltaDto toSessionStateDelta(GameSession session, long fromVersion) {
+        SessionStateTracker tracker = session.getStateTracker();
+        SessionStateDeltaDto delta = new SessionStateDeltaDto();
+        delta.setSessionId(session.getSessionID());
+        delta.setFromVersion(fromVersion);
+        delta.setVersion(tracker.getVersion());
+        delta.setLastEventSequence(session.getEventLog().getLastSequence());
+
+        List<EntityStateDto> changed = tracker.getChangedEntityIds(fromVersion).stream()
+                .map(session.getEntities()::get)
+                .filter(Objects::nonNull)
+                .map(entityMapper::toState)
+                .toList();
+        delta.setEntities(changed);
+        delta.setRemovedEntityIds(tracker.getRemovedEntityIds(fromVersion));
+
+        if (session.getGameMap() != null && tracker.isTerrainChangedSince(fromVersion))
+            delta.setMapState(gameMapMapper.toGameMapState(session.getGameMap()));
+
+        return delta;
+    }
 }
@@ -3,14 +3,15 @@ package dev.mygame.service;
 import dev.mygame.domain.model.Entity;
 import dev.mygame.domain.model.Monster;
 import dev.mygame.domain.model.map.Hex;
-import dev.mygame.domain.model.map.Tile;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.MapConnectivity;
+import dev.mygame.domain.session.FactionTable;
 import dev.mygame.domain.session.GameSession;
 import dev.mygame.enums.ActionType;
 import dev.mygame.service.internal.EntityAction;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -23,7 +24,8 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class AIService {
     /**
-     * Передать управление монстру и выполнить логику AI
+     * Передать управление монстру и выполнить логику AI.
+     * Должен вызываться из очереди команд сессии (см. {@link GameSession#schedule}).
      * @param monsterId уникальный идентификатор монстра в рамках сессии
      * @param session сессия, в которой необходимо сделать ход монстру
      */
@@ -34,7 +36,8 @@ public class AIService {
             session.endTurn(monsterId);
             return;
         }
-        List<Entity> enemies = findVisibleEnemies(currentMonsterState, session.getEntities(), session.getFactionService());
+        List<Entity> enemies = findVisibleEnemies(currentMonsterState, session.getEntities(),
+                session.getFactions(), session.getGameMap());
         if (enemies.isEmpty()) {
             session.endTurn(monsterId);
             return;
@@ -48,7 +51,7 @@ public class AIService {
         boolean actionTaken = performNextAction(currentMonsterState.getId(), bestTargetId, session);
 
         if (actionTaken) {
-            session.getScheduler().schedule(() -> executeMonsterTurn(monsterId, session), 500, TimeUnit.MILLISECONDS);
+            session.schedule(() -> executeMonsterTurn(monsterId, session), 500, TimeUnit.MILLISECONDS);
         } else {
             session.endTurn(monsterId);
         }
@@ -74,7 +77,9 @@ public class AIService {
         int attackRange = monster.getAttackRange();
         int attackCost = session.getStandartEntityGameSettings().getDefaultAttackCost();
 
-        if (distanceToTarget <= attackRange && monster.getCurrentAP() >= attackCost) {
+        boolean canAttack = distanceToTarget <= attackRange
+                && session.getGameMap().canSee(monster.getPosition(), target.getPosition());
+        if (canAttack && monster.getCurrentAP() >= attackCost) {
             EntityAction attackAction = EntityAction.builder()
                     .actionType(ActionType.ATTACK)
                     .targetId(target.getId())
@@ -85,20 +90,9 @@ public class AIService {
 
         int moveCost = session.getStandartEntityGameSettings().getDefaultMovementCost();
         if (monster.getCurrentAP() >= moveCost) {
-            Hex movementTargetHex = findBestAdjacentHex(monster, target, session);
+            Hex nextStep = findNextStep(monster, target, session);
 
-            if (movementTargetHex == null) {
-                return false;
-            }
-            List<Hex> path = session.getGameMap()
-                    .findPath(monster.getPosition(),
-                            movementTargetHex,
-                            session.getEntities().values(),
-                            monster.getId()
-                    );
-
-            if (path != null && path.size() > 1) {
-                Hex nextStep = path.get(1);
+            if (nextStep != null) {
                 EntityAction moveAction = EntityAction.builder()
                         .actionType(ActionType.MOVE)
                         .targetHex(nextStep)
@@ -116,6 +110,31 @@ public class AIService {
         return false;
     }
 
+    /**
+     * Определяет следующий шаг монстра к цели.
+     * <p>
+     * Сначала используется общее для сессии поле потока к цели: все монстры, преследующие
+     * одного игрока, читают шаг из одного поля без отдельного поиска пути. Если поле не дает
+     * свободного шага (например, проход перекрыт другими сущностями), строится путь A*
+     * до лучшей свободной клетки рядом с целью.
+     * @return клетка следующего шага или null, если двигаться некуда.
+     */
+    private Hex findNextStep(Entity monster, Entity target, GameSession session) {
+        GameMapHex map = session.getGameMap();
+        Hex nextStep = session.getFlowFields()
+                .nextStep(map, monster.getPosition(), target.getId(), target.getPosition());
+        if (nextStep != null) {
+            return nextStep;
+        }
+
+        Hex movementTargetHex = findBestAdjacentHex(monster, target, session);
+        if (movementTargetHex == null) {
+            return null;
+        }
+        List<Hex> path = map.findPath(monster.getPosition(), movementTargetHex);
+        return path.size() > 1 ? path.get(1) : null;
+    }
+
     /**
      * Находит лучшую соседнюю с целью клетку, на которую может встать атакующая сущность.
      * "Лучшая" - значит, самая близкая к текущей позиции атакующего.
@@ -126,35 +145,51 @@ public class AIService {
      */
     private Hex findBestAdjacentHex(Entity self, Entity target, GameSession session) {
         Hex targetPosition = target.getPosition();
-
-        List<Hex> validAdjacentHexes = targetPosition.getNeighbors().stream()
-                .filter(hex -> {
-                    Tile tile = session.getGameMap().getTile(hex);
-                    return tile != null && tile.isPassable() && !tile.isOccupied();
-                })
-                .toList();
-
-        if (validAdjacentHexes.isEmpty()) {
-            return null;
+        Hex selfPosition = self.getPosition();
+        GameMapHex map = session.getGameMap();
+        MapConnectivity connectivity = map.getConnectivity();
+        int selfIndex = map.indexOf(selfPosition.getQ(), selfPosition.getR());
+
+        int bestQ = 0;
+        int bestR = 0;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+            int q = Hex.neighborQ(targetPosition.getQ(), direction);
+            int r = Hex.neighborR(targetPosition.getR(), direction);
+            if (!map.isPassable(q, r) || map.isOccupied(q, r)) {
+                continue;
+            }
+            // клетка за стеной в другой компоненте ближе, но дойти до нее нельзя
+            if (!connectivity.isConnected(selfIndex, map.indexOf(q, r))) {
+                continue;
+            }
+            int distance = Hex.distance(selfPosition.getQ(), selfPosition.getR(), q, r);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestQ = q;
+                bestR = r;
+            }
         }
 
-        return validAdjacentHexes.stream()
-                .min(Comparator.comparingInt(hex -> self.getPosition().distanceTo(hex)))
-                .orElse(null);
+        return bestDistance == Integer.MAX_VALUE ? null : new Hex(bestQ, bestR);
     }
 
     /**
      * Находит видимых врагов
      * @param self Монстр или игрок, для которого ищем врагов.
      * @param worldState Текущее состояние всех сущностей в игре.
-     * @param factionService Сервис для проверки фракций.
+     * @param factions Таблица фракций сессии.
+     * @param map Карта сессии для проверки линии видимости.
      * @return Список враждебных сущностей.
      */
-    private List<Entity> findVisibleEnemies(Entity self, Map<String, Entity> worldState, FactionService factionService) {
+    private List<Entity> findVisibleEnemies(Entity self, Map<String, Entity> worldState, FactionTable factions,
+                                            GameMapHex map) {
+        Hex selfPosition = self.getPosition();
         return worldState.values().stream()
                 .filter(Entity::isAlive) // Ищем только живых
                 .filter(e -> !e.getId().equals(self.getId())) // Исключаем самого себя
-                .filter(e -> factionService.areEnemies(self, e)) // Фильтруем по враждебности
+                .filter(e -> factions.areEnemies(self, e)) // Фильтруем по враждебности
+                .filter(e -> e.getPosition() != null && map.canSee(selfPosition, e.getPosition())) // Только в поле зрения
                 .toList();
     }
 
@@ -170,10 +205,20 @@ public class AIService {
             return null;
         }
 
-        return enemies.stream()
-                .filter(e -> e.getPosition() != null)
-                .min(Comparator.comparingInt(e -> self.getPosition().distanceTo(e.getPosition())))
-                .map(Entity::getId)
-                .orElse(null);
+        Hex selfPosition = self.getPosition();
+        Entity bestTarget = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Entity enemy : enemies) {
+            Hex position = enemy.getPosition();
+            if (position == null) {
+                continue;
+            }
+            int distance = Hex.distance(selfPosition.getQ(), selfPosition.getR(), position.getQ(), position.getR());
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestTarget = enemy;
+            }
+        }
+        return bestTarget != null ? bestTarget.getId() : null;
     }
 }
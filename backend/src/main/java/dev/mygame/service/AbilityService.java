@@ -79,6 +79,14 @@ public class AbilityService {
                     .build();
         }
 
+        // сообщение об ошибке отправляет вызывающий (GameSession), по результату использования
+        if(!gameSession.getGameMap().canSee(caster.getPosition(), targetHex)) {
+            return AbilityUseResult.builder()
+                    .caster(caster)
+                    .success(AbilityUseResultEnum.NOT_IN_LINE_OF_SIGHT)
+                    .build();
+        }
+
         if (isInCombat) {
             caster.setCurrentAP(caster.getCurrentAP() - abilityTemplate.getCostAp());
             // в бою устанавливаем КД в ходах
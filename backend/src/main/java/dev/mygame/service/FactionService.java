@@ -1,25 +1,38 @@
 package dev.mygame.service;
 
-import dev.mygame.domain.model.Entity;
+import dev.mygame.config.FactionProperties;
+import dev.mygame.domain.session.FactionTable;
+import dev.mygame.enums.FactionRelation;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Сервис для определения взаимоотношений между различными персонажами
  * <p>
- * Предоставляет единый метод {@link #areEnemies} для определения, являются ли
- * две сущности врагами на основе их {@code teamId}
+ * Создает для каждой игровой сессии {@link FactionTable} с отношениями из настроек
+ * ({@link FactionProperties}); сами проверки враждебности выполняет таблица сессии
+ * по целочисленным дескрипторам фракций сущностей.
  */
 @Service
+@RequiredArgsConstructor
 public class FactionService {
-    public boolean areEnemies(Entity entity1, Entity entity2) {
-        if(entity1.equals(entity2))
-            return false;
+    private final FactionProperties properties;
 
-        if (entity1.getTeamId() == null || entity2.getTeamId() == null) {
-            // если у кого-то нет команды, то они враждебны всем
-            return true;
+    /**
+     * @return новая таблица фракций для игровой сессии.
+     */
+    public FactionTable createTable() {
+        Map<String, Map<String, FactionRelation>> relations = new HashMap<>();
+        for (FactionProperties.Relation rule : properties.getRelations()) {
+            if (rule.getFirst() == null || rule.getSecond() == null || rule.getRelation() == null) {
+                continue;
+            }
+            relations.computeIfAbsent(rule.getFirst(), k -> new HashMap<>()).put(rule.getSecond(), rule.getRelation());
+            relations.computeIfAbsent(rule.getSecond(), k -> new HashMap<>()).put(rule.getFirst(), rule.getRelation());
         }
-        // команды враждебны, если их ID команды не совпадают
-        return !entity1.getTeamId().equals(entity2.getTeamId());
+        return new FactionTable(properties.getDefaultRelation(), relations);
     }
 }
@@ -2,14 +2,20 @@ package dev.mygame.service;
 
 import dev.mygame.config.WebSocketDestinations;
 import dev.mygame.domain.event.SessionEvent;
+import dev.mygame.domain.model.Entity;
 import dev.mygame.domain.model.Player;
 import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionEventLog;
 import dev.mygame.dto.websocket.event.*;
+import dev.mygame.dto.websocket.response.EventReplayDto;
+import dev.mygame.service.codec.BinarySubscriptionRegistry;
+import dev.mygame.service.codec.WireProtocolCodec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,23 +32,40 @@ import java.util.Map;
 public class GameEventNotifier {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final WireProtocolCodec wireCodec;
+    private final BinarySubscriptionRegistry binarySubscriptions;
 
+    /**
+     * Рассылает события одной команды сессии. Одно событие уходит как есть, несколько -
+     * одним сообщением {@code "batch"}, в котором {@code payload} - массив оберток событий.
+     */
     @EventListener
-    public void handleSessionEvent(SessionEvent<?> event) {
+    public void handleSessionEvent(SessionEvent event) {
         GameSession session = event.getSession();
-        Object payload = event.getPayload();
+        List<Map<String, Object>> wrappedEvents = wrapEvents(event.getEvents());
+        if (wrappedEvents.isEmpty()) {
+            return;
+        }
 
-        String eventType = resolveEventType(payload);
+        String destination = WebSocketDestinations.GAME_UPDATES_TOPIC.replace("{sessionId}", session.getSessionID());
+        Object message = wrappedEvents.size() == 1 ? wrappedEvents.get(0) : wrapPayload("batch", wrappedEvents);
+        messagingTemplate.convertAndSend(destination, message);
 
-        if (eventType != null) {
-            String destination = WebSocketDestinations.GAME_UPDATES_TOPIC.replace("{sessionId}", session.getSessionID());
-            sendWrappedMessage(destination, eventType, payload);
+        if (binarySubscriptions.hasSubscribers(destination)) {
+            // byte[] без явного типа содержимого уходит как application/octet-stream - двоичным WebSocket-кадром
+            byte[] frame = wireCodec.encode(wrappedEvents, entityId -> entityHandle(session, entityId));
+            messagingTemplate.convertAndSend(destination + WireProtocolCodec.DESTINATION_SUFFIX, frame);
         }
     }
 
-    private String resolveEventType(Object payload) {
+    /**
+     * Возвращает тип события сессии, под которым оно уходит клиентам.
+     * @return тип события или {@code null}, если для этого класса события тип не задан.
+     */
+    public static String resolveEventType(Object payload) {
         if (payload instanceof PlayerLeftEvent) return "player_left";
         if (payload instanceof TeamUpdatedEvent) return "team_updated";
+        if (payload instanceof TeamMembersChangedEvent) return "team_members_changed";
         if (payload instanceof EntityAttackEvent) return "entity_attack";
         if (payload instanceof EntityStatsUpdatedEvent) return "entity_stats_updated";
         if (payload instanceof EntityMovedEvent) return "entity_moved";
@@ -78,11 +101,7 @@ public class GameEventNotifier {
      * @param payload   Объект с данными события.
      */
     public void notifyPlayer(Player player, String eventType, Object payload) {
-        messagingTemplate.convertAndSendToUser(
-                player.getUserId(),
-                WebSocketDestinations.PRIVATE_EVENTS_QUEUE,
-                wrapPayload(eventType, payload)
-        );
+        sendPrivateEvent(player.getUserId(), wrapPayload(eventType, payload));
     }
 
     /**
@@ -94,11 +113,7 @@ public class GameEventNotifier {
     public void notifyPlayers(List<Player> players, String eventType, Object payload) {
         Map<String, Object> wrappedMessage = wrapPayload(eventType, payload);
         for (Player player : players) {
-            messagingTemplate.convertAndSendToUser(
-                    player.getUserId(),
-                    WebSocketDestinations.PRIVATE_EVENTS_QUEUE,
-                    wrappedMessage
-            );
+            sendPrivateEvent(player.getUserId(), wrappedMessage);
         }
     }
 
@@ -117,6 +132,22 @@ public class GameEventNotifier {
         );
     }
 
+    /**
+     * Подтверждает пользователю вход (или возвращение) в сессию и передает токен восстановления,
+     * с которым клиент переподключается после обрыва соединения.
+     * @param userId      ID пользователя-получателя.
+     * @param sessionId   ID сессии.
+     * @param resumeToken Подписанный токен восстановления.
+     */
+    public void notifyJoinAccepted(String userId, String sessionId, String resumeToken) {
+        Map<String, String> response = Map.of(
+                "status", "success",
+                "sessionId", sessionId,
+                "resumeToken", resumeToken
+        );
+        messagingTemplate.convertAndSendToUser(userId, WebSocketDestinations.JOIN_SESSION_RESPONSE_QUEUE, response);
+    }
+
     /**
      * Отправляет полное состояние игровой сессии конкретному пользователю.
      * Используется при первом подключении или при ресинхронизации.
@@ -131,6 +162,70 @@ public class GameEventNotifier {
         messagingTemplate.convertAndSendToUser(userId, destination, sessionState);
     }
 
+    /**
+     * Отправляет конкретному пользователю изменения состояния сессии после известной ему версии.
+     * @param userId    ID пользователя-получателя.
+     * @param sessionId ID текущей сессии.
+     * @param delta     Объект DTO с изменениями.
+     */
+    public void notifyGameStateDelta(String userId, String sessionId, Object delta) {
+        String destination = WebSocketDestinations.SESSION_STATE_DELTA_QUEUE
+                .replace("{sessionId}", sessionId);
+
+        messagingTemplate.convertAndSendToUser(userId, destination, delta);
+    }
+
+    /**
+     * Досылает конкретному пользователю пропущенные события сессии в тех же обертках,
+     * что и в топике обновлений сессии.
+     * @param userId        ID пользователя-получателя.
+     * @param session       Текущая игровая сессия.
+     * @param sinceSequence Номер последнего события, полученного клиентом.
+     * @param events        События после {@code sinceSequence} в порядке рассылки.
+     */
+    public void notifyEventReplay(String userId, GameSession session, long sinceSequence, List<SessionEventLog.SequencedEvent> events) {
+        List<Map<String, Object>> wrappedEvents = wrapEvents(events);
+
+        EventReplayDto replay = new EventReplayDto();
+        replay.setSessionId(session.getSessionID());
+        replay.setFromSequence(sinceSequence);
+        replay.setLastSequence(events.isEmpty() ? sinceSequence : events.get(events.size() - 1).getSequence());
+        replay.setEvents(wrappedEvents);
+
+        String destination = WebSocketDestinations.EVENT_REPLAY_QUEUE
+                .replace("{sessionId}", session.getSessionID());
+        messagingTemplate.convertAndSendToUser(userId, destination, replay);
+    }
+
+    private List<Map<String, Object>> wrapEvents(List<SessionEventLog.SequencedEvent> events) {
+        List<Map<String, Object>> wrappedEvents = new ArrayList<>(events.size());
+        for (SessionEventLog.SequencedEvent event : events) {
+            // события без типа отклоняются при публикации (GameSession#publishEvent), до присвоения номера
+            wrappedEvents.add(wrapPayload(resolveEventType(event.getPayload()), event.getPayload(), event.getSequence()));
+        }
+        return wrappedEvents;
+    }
+
+    /**
+     * Отправляет обертку события в личную очередь пользователя и, если пользователь
+     * запросил двоичный формат при подписке, - еще и двоичным кадром.
+     */
+    private void sendPrivateEvent(String userId, Map<String, Object> wrappedMessage) {
+        messagingTemplate.convertAndSendToUser(userId, WebSocketDestinations.PRIVATE_EVENTS_QUEUE, wrappedMessage);
+
+        String binaryKey = BinarySubscriptionRegistry.userKey(userId, WebSocketDestinations.PRIVATE_EVENTS_QUEUE);
+        if (binarySubscriptions.hasSubscribers(binaryKey)) {
+            // личные события не относятся к сессии, поэтому сущности передаются строковыми ID
+            byte[] frame = wireCodec.encode(List.of(wrappedMessage), entityId -> Entity.NO_HANDLE);
+            messagingTemplate.convertAndSendToUser(userId, WebSocketDestinations.PRIVATE_EVENTS_QUEUE + WireProtocolCodec.DESTINATION_SUFFIX, frame);
+        }
+    }
+
+    private static int entityHandle(GameSession session, String entityId) {
+        Entity entity = session.getEntityById(entityId);
+        return entity != null ? entity.getHandle() : Entity.NO_HANDLE;
+    }
+
     private void sendWrappedMessage(String destination, String eventType, Object payload) {
         messagingTemplate.convertAndSend(destination, wrapPayload(eventType, payload));
     }
@@ -141,4 +236,10 @@ public class GameEventNotifier {
         action.put("payload", payload);
         return action;
     }
+
+    private Map<String, Object> wrapPayload(String eventType, Object payload, long sequence) {
+        Map<String, Object> action = wrapPayload(eventType, payload);
+        action.put("seq", sequence);
+        return action;
+    }
 }
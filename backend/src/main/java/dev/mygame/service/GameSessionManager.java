@@ -1,12 +1,18 @@
 package dev.mygame.service;
 
+import dev.mygame.config.GameExecutionProperties;
 import dev.mygame.config.StandartEntityGameSettings;
 import dev.mygame.config.MapGenerationProperties;
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.config.ResumeProperties;
+import dev.mygame.config.VisibilityProperties;
 import dev.mygame.config.WebSocketDestinations;
 import dev.mygame.data.MapLoader;
 import dev.mygame.domain.factory.EntityFactory;
+import dev.mygame.domain.model.map.FieldOfView;
 import dev.mygame.domain.model.map.GameMapHex;
 import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.PathCache;
 import dev.mygame.dto.websocket.event.PlayerJoinedEvent;
 import dev.mygame.dto.websocket.request.JoinRequest;
 import dev.mygame.dto.websocket.request.PlayerAction;
@@ -15,12 +21,16 @@ import dev.mygame.domain.model.Player;
 import dev.mygame.domain.event.GameSessionEndListener;
 import dev.mygame.data.GameDataLoader;
 import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionMailbox;
 import dev.mygame.dto.websocket.response.GameSessionStateDto;
 import dev.mygame.dto.websocket.response.PlayerStateDto;
 import dev.mygame.mapper.EntityActionMapper;
 import dev.mygame.mapper.EntityMapper;
 import dev.mygame.mapper.GameSessionMapper;
 import dev.mygame.mapper.context.MappingContext;
+import dev.mygame.service.internal.PlayerSessionBinding;
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import dev.mygame.service.scheduling.ShardedScheduler;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.slf4j.Logger;
@@ -40,6 +50,8 @@ import java.util.concurrent.ScheduledExecutorService;
  * Отвечает за создание, хранения активных сессий и маршрутизацию
  * всех входящих запросов от игроков (подключение, действия)
  * в соответствующий экземпляр {@link GameSession}.
+ * Все команды, затрагивающие состояние сессии, ставятся в её очередь
+ * ({@link SessionMailbox}) и выполняются последовательно.
  * Также отслеживает завершение сессий для их удаления.
  */
 @Data
@@ -47,6 +59,8 @@ import java.util.concurrent.ScheduledExecutorService;
 @Service
 public class GameSessionManager implements GameSessionEndListener {
     public Map<String, GameSession> activeSessions;
+    // ID WebSocket-соединения -> сессия и игрок: маршрутизация отключений без перебора сессий
+    private final Map<String, PlayerSessionBinding> playerBindings = new ConcurrentHashMap<>();
 
     private final GameEventNotifier notifier;
     private final ApplicationEventPublisher eventPublisher;
@@ -67,7 +81,13 @@ public class GameSessionManager implements GameSessionEndListener {
     private final EntityFactory entityFactory;
 
     private static final Logger log = LoggerFactory.getLogger(GameSessionManager.class);
-    private final ScheduledExecutorService scheduler;
+    private final ShardedScheduler gameScheduler;
+    private final HashedWheelTimer gameTimer;
+    private final GameExecutionProperties executionProperties;
+    private final PathfindingProperties pathfindingProperties;
+    private final VisibilityProperties visibilityProperties;
+    private final ResumeProperties resumeProperties;
+    private final ResumeTokenService resumeTokenService;
 
     @Autowired
     public GameSessionManager(
@@ -85,7 +105,13 @@ public class GameSessionManager implements GameSessionEndListener {
             MonsterSpawnerService spawnerService,
             AIService aiService,
             EntityFactory entityFactory,
-            ScheduledExecutorService scheduler
+            ShardedScheduler gameScheduler,
+            HashedWheelTimer gameTimer,
+            GameExecutionProperties executionProperties,
+            PathfindingProperties pathfindingProperties,
+            VisibilityProperties visibilityProperties,
+            ResumeProperties resumeProperties,
+            ResumeTokenService resumeTokenService
     ) {
         this.notifier = gameEventNotifier;
         this.eventPublisher = eventPublisher;
@@ -99,7 +125,13 @@ public class GameSessionManager implements GameSessionEndListener {
         this.spawnerService = spawnerService;
         this.aiService = aiService;
         this.entityFactory = entityFactory;
-        this.scheduler = scheduler;
+        this.gameScheduler = gameScheduler;
+        this.gameTimer = gameTimer;
+        this.executionProperties = executionProperties;
+        this.pathfindingProperties = pathfindingProperties;
+        this.visibilityProperties = visibilityProperties;
+        this.resumeProperties = resumeProperties;
+        this.resumeTokenService = resumeTokenService;
         this.activeSessions = new ConcurrentHashMap<>();
         this.standartEntityGameSettings = standartEntityGameSettings;
         this.mapGenerator = mapGenerator;
@@ -115,22 +147,36 @@ public class GameSessionManager implements GameSessionEndListener {
             log.error("Failed to load map file!", e);
             throw new RuntimeException("Could not create game session, map failed to load.", e);
         }
+        if (pathfindingProperties.getPathCacheSize() > 0) {
+            gameMapHex.setPathCache(new PathCache(pathfindingProperties.getPathCacheSize()));
+        }
+        if (gameMapHex.getFieldOfView() == null && visibilityProperties.getRadius() > 0) {
+            // шаблон без готового поля зрения: сессия считает его лениво
+            gameMapHex.setFieldOfView(new FieldOfView(gameMapHex, visibilityProperties.getRadius()));
+        }
 
         Map<String, GameObject> initialGameObjects = new ConcurrentHashMap<>();
 
+        // очередь команд сессии всегда разбирается одним и тем же шардом,
+        // а сработавшие таймеры ставят свои команды в эту же очередь
+        ScheduledExecutorService sessionShard = gameScheduler.shardFor(sessionId);
+
         GameSession gameSession = GameSession.builder()
                 .sessionID(sessionId)
-                .scheduler(scheduler)
+                .timer(gameTimer)
+                .mailbox(new SessionMailbox(sessionId, sessionShard, executionProperties.getMailboxThroughput()))
                 .gameMap(gameMapHex)
                 .standartEntityGameSettings(this.standartEntityGameSettings)
                 .notifier(notifier)
                 .gameObjects(initialGameObjects)
-                .factionService(factionService)
+                .factions(factionService.createTable())
                 .entityMapper(entityMapper)
                 .abilityService(abilityService)
                 .aiService(aiService)
                 .eventPublisher(eventPublisher)
                 .gameSessionMapper(gameSessionMapper)
+                .resumeGraceMillis(resumeProperties.getGraceWindowMs())
+                .disconnectedTurnSkipMillis(resumeProperties.getTurnSkipDelayMs())
                 .build();
         gameSession.addGameSessionEndListener(this);
         spawnerService.spawnMonsters(gameSession);
@@ -145,14 +191,15 @@ public class GameSessionManager implements GameSessionEndListener {
         if (gameSession == null) {
             throw new IllegalArgumentException("Game Session with ID " + sessionId + " not found.");
         }
-        boolean userAlreadyInSession = gameSession.getEntities().values().stream()
-                .filter(en -> en instanceof Player)
-                .map(en -> (Player) en)
-                .anyMatch(player -> player.getUserId().equals(userId));
-
-         if (userAlreadyInSession) {
-             // TODO: Обработать случай переподключения или ошибки (пользователь уже есть)
-         }
+        gameSession.submit(() -> addPlayerToSession(gameSession, request, userId, websocketSessionId));
+    }
+
+    private void addPlayerToSession(GameSession gameSession, JoinRequest request, String userId, String websocketSessionId) {
+        Player existingPlayer = gameSession.getPlayerByUserId(userId);
+        if (existingPlayer != null) {
+            resumePlayer(gameSession, existingPlayer, websocketSessionId);
+            return;
+        }
         GameMapHex gameMap = gameSession.getGameMap();
 
         String playerClassId = request.getTemplateId();
@@ -165,8 +212,10 @@ public class GameSessionManager implements GameSessionEndListener {
         );
 
         gameSession.addEntity(player);
+        playerBindings.put(websocketSessionId, new PlayerSessionBinding(gameSession, player));
 
         gameSession.sendInitialStateToPlayer(userId);
+        notifier.notifyJoinAccepted(userId, gameSession.getSessionID(), resumeTokenService.issue(userId));
 
         PlayerJoinedEvent joinedEvent = new PlayerJoinedEvent(entityMapper.toPlayerState(player));
         gameSession.publishEvent(joinedEvent);
@@ -174,21 +223,43 @@ public class GameSessionManager implements GameSessionEndListener {
         gameSession.checkForCombatStart(player);
     }
 
+    /**
+     * Возвращает в игру пользователя, который уже есть в сессии (переподключение по токену восстановления):
+     * сущность игрока сохраняется и привязывается к новому WebSocket-соединению.
+     * Состояние заново не отправляется - клиент сам запрашивает пропущенные события.
+     */
+    private void resumePlayer(GameSession gameSession, Player player, String websocketSessionId) {
+        String previousWebsocketSessionId = gameSession.rebindPlayer(player, websocketSessionId);
+        if (previousWebsocketSessionId != null && !previousWebsocketSessionId.equals(websocketSessionId)) {
+            // старое соединение еще не закрыто: его отключение не должно затронуть игрока
+            playerBindings.remove(previousWebsocketSessionId);
+        }
+        playerBindings.put(websocketSessionId, new PlayerSessionBinding(gameSession, player));
+
+        log.info("Player {} resumed session {} on websocket session {}", player.getId(), gameSession.getSessionID(), websocketSessionId);
+        notifier.notifyJoinAccepted(player.getUserId(), gameSession.getSessionID(), resumeTokenService.issue(player.getUserId()));
+    }
+
     public void handlePlayerAction(String sessionId, String websocketSessionId, PlayerAction playerAction) {
         GameSession gameSession = activeSessions.get(sessionId);
         if (gameSession == null)
             throw new IllegalArgumentException("Session not found: " + sessionId);
 
-        Player actingPlayer = gameSession.getPlayerByWebsocketSessionId(websocketSessionId);
+        gameSession.submit(() -> {
+            Player actingPlayer = gameSession.getPlayerByWebsocketSessionId(websocketSessionId);
 
-        if(actingPlayer == null)
-            throw new IllegalArgumentException("Player not found.");
+            if (actingPlayer == null) {
+                log.warn("Player with websocket session {} not found in session {}", websocketSessionId, sessionId);
+                return;
+            }
 
-        gameSession.handleEntityAction(actingPlayer.getId(), entityActionMapper.toEntityAction(playerAction));
+            gameSession.handleEntityAction(actingPlayer.getId(), entityActionMapper.toEntityAction(playerAction));
+        });
     }
 
     @Override
     public void onGameSessionEnd(GameSession session) {
+        playerBindings.values().removeIf(binding -> binding.getSession() == session);
         boolean removed = this.activeSessions.remove(session.getSessionID(), session);
         if (removed) {
             // TODO: Возможно, разослать сообщение всем клиентам, которые были в этой сессии, о ее завершении
@@ -203,11 +274,13 @@ public class GameSessionManager implements GameSessionEndListener {
         if(session == null)
             return;
 
-        Player inviterUser = session.getPlayerByUserId(inviterUserId);
-        Player targetUser = session.getPlayerByEntityId(targetPlayerId);
+        session.submit(() -> {
+            Player inviterUser = session.getPlayerByUserId(inviterUserId);
+            Player targetUser = session.getPlayerByEntityId(targetPlayerId);
 
-        if(inviterUser != null && targetUser != null)
-            session.handleInvitationPlayerToTeam(inviterUser, targetUser);
+            if(inviterUser != null && targetUser != null)
+                session.handleInvitationPlayerToTeam(inviterUser, targetUser);
+        });
     }
 
     public void respondPlayerToTeamInvite(String sessionId, String invitedUserId, boolean accepted) {
@@ -215,52 +288,62 @@ public class GameSessionManager implements GameSessionEndListener {
         if(session == null)
             return;
 
-        Player invitedUser = session.getPlayerByUserId(invitedUserId);
+        session.submit(() -> {
+            Player invitedUser = session.getPlayerByUserId(invitedUserId);
 
-        if(invitedUser != null)
-            session.handleRespondPlayerToTeamInvite(invitedUser, accepted);
+            if(invitedUser != null)
+                session.handleRespondPlayerToTeamInvite(invitedUser, accepted);
+        });
     }
 
     public void handlePeaceProposal(String sessionId, String initiatorUserId, String combatId) {
         GameSession session = activeSessions.get(sessionId);
         if(session == null)
             return;
-        session.handlePeaceProposal(combatId, initiatorUserId);
+        session.submit(() -> session.handlePeaceProposal(combatId, initiatorUserId));
     }
 
     public void handlePeaceResponse(String sessionId, String name, String combatId, boolean accepted) {
         GameSession session = activeSessions.get(sessionId);
         if(session == null)
             return;
-        session.handlePeaceResponse(combatId, name, accepted);
+        session.submit(() -> session.handlePeaceResponse(combatId, name, accepted));
     }
 
     public void leaveFromTeam(String sessionId, String userId) {
         GameSession session = activeSessions.get(sessionId);
         if(session == null)
             return;
-        session.handleLeaveFromTeam(userId);
+        session.submit(() -> session.handleLeaveFromTeam(userId));
     }
 
-    public void resendStateToPlayer(String sessionId, String userId) {
+    public void resendStateToPlayer(String sessionId, String userId, Long lastVersion) {
         GameSession gameSession = activeSessions.get(sessionId);
         if (gameSession == null) {
             log.warn("Attempted to resend state for non-existent session: {}", sessionId);
             return;
         }
 
-        gameSession.sendInitialStateToPlayer(userId);
+        gameSession.submit(() -> gameSession.sendStateToPlayer(userId, lastVersion));
+    }
+
+    public void replayEventsToPlayer(String sessionId, String userId, long sinceSequence, Long lastVersion) {
+        GameSession gameSession = activeSessions.get(sessionId);
+        if (gameSession == null) {
+            log.warn("Attempted to replay events for non-existent session: {}", sessionId);
+            return;
+        }
+
+        gameSession.submit(() -> gameSession.replayEventsToPlayer(userId, sinceSequence, lastVersion));
     }
 
     public void handlePlayerDisconnect(String websocketSessionId) {
-        Optional<GameSession> sessionOptional = activeSessions.values().stream()
-                .filter(session -> session.getPlayerByWebsocketSessionId(websocketSessionId) != null)
-                .findFirst();
+        PlayerSessionBinding binding = playerBindings.remove(websocketSessionId);
 
-        if (sessionOptional.isPresent()) {
-            GameSession session = sessionOptional.get();
+        if (binding != null) {
+            GameSession session = binding.getSession();
             log.info("Player with websocket session {} disconnected from game session {}", websocketSessionId, session.getSessionID());
-            session.handlePlayerDisconnect(websocketSessionId);
+            session.submit(() -> session.handlePlayerDisconnect(websocketSessionId));
         } else {
             log.warn("No active game session found for disconnected websocket session: {}", websocketSessionId);
         }
@@ -1,9 +1,11 @@
 package dev.mygame.service;
 
 import dev.mygame.config.MapGenerationProperties;
+import dev.mygame.config.PathfindingProperties;
 import dev.mygame.data.MapLoader;
 import dev.mygame.domain.model.map.*;
 import dev.mygame.enums.TileType;
+import dev.mygame.service.internal.SpawnPointInfo;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,9 +22,131 @@ import java.util.Random;
  *             Функционал не реализован полностью.
  */
 @Component
-@RequiredArgsConstructor
 public class MapGenerator {
     private final Random random = new Random();
+    private final PathfindingProperties pathfindingProperties;
+
+    public MapGenerator() {
+        this(new PathfindingProperties());
+    }
+
+    @Autowired
+    public MapGenerator(PathfindingProperties pathfindingProperties) {
+        this.pathfindingProperties = pathfindingProperties;
+    }
+
+    /**
+     * Генерирует подземелье из прямоугольных комнат, соединенных коридорами,
+     * по настройкам {@code game.map.generation}.
+     */
+    public GameMapHex generateRoomDungeon(MapGenerationProperties props) {
+        int roomCount = props.getMinRooms() + random.nextInt(Math.max(1, props.getMaxRooms() - props.getMinRooms() + 1));
+        return generateRoomDungeon(props.getDungeonWidth(), props.getDungeonHeight(), roomCount,
+                props.getMinRoomSize(), props.getMaxRoomSize(), random.nextLong());
+    }
+
+    /**
+     * Генерирует подземелье из прямоугольных комнат, соединенных коридорами.
+     * <p>
+     * Карта задается прямоугольником {@code width x height} в "offset"-координатах
+     * (как в текстовых картах): всё заполняется стенами, затем вырезаются комнаты
+     * и L-образные коридоры между последовательными комнатами. Игрок появляется
+     * в первой комнате, монстры - в центрах остальных. Для карты сразу строится
+     * граф иерархического поиска пути.
+     *
+     * @param seed зерно генератора, чтобы одинаковые параметры давали одинаковую карту.
+     */
+    public GameMapHex generateRoomDungeon(int width, int height, int roomCount,
+                                          int minRoomSize, int maxRoomSize, long seed) {
+        Random rnd = new Random(seed);
+        int maxSize = Math.max(1, Math.min(maxRoomSize, Math.min(width, height) - 2));
+        int minSize = Math.max(1, Math.min(minRoomSize, maxSize));
+
+        List<Hex> playerSpawnPoints = new ArrayList<>();
+        List<SpawnPointInfo> monsterSpawnPoints = new ArrayList<>();
+        GameMapHex map = GameMapHex.builder()
+                .minQ(-((height - 1) / 2))
+                .minR(0)
+                .width(width + (height - 1) / 2)
+                .height(height)
+                .playerSpawnPoints(playerSpawnPoints)
+                .monsterSpawnPoints(monsterSpawnPoints)
+                .build();
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                map.setTileType(col - row / 2, row, TileType.WALL);
+            }
+        }
+
+        // комнаты: {col, row, ширина, высота}
+        List<int[]> rooms = new ArrayList<>();
+        for (int attempt = 0; attempt < roomCount * 20 && rooms.size() < roomCount; attempt++) {
+            int roomWidth = minSize + rnd.nextInt(maxSize - minSize + 1);
+            int roomHeight = minSize + rnd.nextInt(maxSize - minSize + 1);
+            int col = 1 + rnd.nextInt(Math.max(1, width - roomWidth - 1));
+            int row = 1 + rnd.nextInt(Math.max(1, height - roomHeight - 1));
+            int[] room = {col, row, roomWidth, roomHeight};
+            if (rooms.stream().noneMatch(other -> roomsOverlap(room, other))) {
+                rooms.add(room);
+                carveRect(map, col, row, roomWidth, roomHeight);
+            }
+        }
+
+        for (int i = 0; i + 1 < rooms.size(); i++) {
+            carveCorridor(map, roomCenter(rooms.get(i)), roomCenter(rooms.get(i + 1)));
+        }
+        for (int i = 0; i < rooms.size(); i++) {
+            int[] center = roomCenter(rooms.get(i));
+            Hex hex = new Hex(center[0] - center[1] / 2, center[1]);
+            if (i == 0) {
+                playerSpawnPoints.add(hex);
+            } else {
+                monsterSpawnPoints.add(new SpawnPointInfo(hex, 'M'));
+            }
+        }
+
+        map.getConnectivity();
+        if (pathfindingProperties.getClusterSize() > 0) {
+            map.setPathGraph(HierarchicalPathGraph.build(map,
+                    pathfindingProperties.getClusterSize(),
+                    pathfindingProperties.getHierarchicalMinDistance()));
+        }
+        return map;
+    }
+
+    private static boolean roomsOverlap(int[] a, int[] b) {
+        // комнаты должны разделяться хотя бы одной стеной
+        return a[0] <= b[0] + b[2] && b[0] <= a[0] + a[2]
+                && a[1] <= b[1] + b[3] && b[1] <= a[1] + a[3];
+    }
+
+    private static int[] roomCenter(int[] room) {
+        return new int[]{room[0] + room[2] / 2, room[1] + room[3] / 2};
+    }
+
+    private static void carveRect(GameMapHex map, int col, int row, int width, int height) {
+        for (int r = row; r < row + height; r++) {
+            for (int c = col; c < col + width; c++) {
+                map.setTileType(c - r / 2, r, TileType.FLOOR);
+            }
+        }
+    }
+
+    /**
+     * Вырезает коридор: сначала по строке первой точки, затем по столбцу второй.
+     * Соседние клетки одной строки или одного столбца в "offset"-координатах
+     * являются соседями на гексагональной сетке, поэтому коридор связный.
+     */
+    private static void carveCorridor(GameMapHex map, int[] from, int[] to) {
+        int row = from[1];
+        for (int col = Math.min(from[0], to[0]); col <= Math.max(from[0], to[0]); col++) {
+            map.setTileType(col - row / 2, row, TileType.FLOOR);
+        }
+        int col = to[0];
+        for (int r = Math.min(from[1], to[1]); r <= Math.max(from[1], to[1]); r++) {
+            map.setTileType(col - r / 2, r, TileType.FLOOR);
+        }
+    }
 
     public GameMapHex generateHexBattleArena(MapGenerationProperties props) {
         GameMapHex map = GameMapHex.builder().build();
@@ -30,10 +154,9 @@ public class MapGenerator {
 
         for (int q = -radius; q <= radius; q++) {
             for (int r = -radius; r <= radius; r++) {
-                Hex hex = new Hex(q, r);
                 TileType type = random.nextInt(10) <= 2 ? TileType.WALL : TileType.FLOOR;
-                if (hex.distanceTo(new Hex(0, 0)) <= radius) {
-                    map.setTile(hex, new Tile(type, null));
+                if (Hex.distance(q, r, 0, 0) <= radius) {
+                    map.setTileType(q, r, type);
                 }
             }
         }
@@ -0,0 +1,93 @@
+package dev.mygame.service;
+
+import dev.mygame.config.ResumeProperties;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Сервис выдачи и проверки подписанных токенов восстановления.
+ * <p>
+ * Токен выдается игроку при входе в сессию и позволяет после обрыва соединения
+ * подключиться под тем же ID пользователя. Формат: {@code base64url(userId:expiresAt).base64url(HMAC-SHA256)}.
+ */
+@Service
+public class ResumeTokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long tokenTtlMillis;
+
+    public ResumeTokenService(ResumeProperties properties) {
+        byte[] secret;
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = properties.getSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.tokenTtlMillis = properties.getTokenTtlSeconds() * 1000;
+    }
+
+    /**
+     * Выдает токен восстановления для пользователя.
+     * @param userId ID пользователя.
+     * @return подписанный токен.
+     */
+    public String issue(String userId) {
+        long expiresAt = System.currentTimeMillis() + tokenTtlMillis;
+        byte[] body = (userId + ":" + expiresAt).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(body) + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена.
+     * @param token токен восстановления (может быть {@code null}).
+     * @return ID пользователя из токена или {@code null}, если токен недействителен.
+     */
+    public String verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            byte[] body = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(body), signature)) {
+                return null;
+            }
+            String payload = new String(body, StandardCharsets.UTF_8);
+            int separator = payload.lastIndexOf(':');
+            if (separator <= 0) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(payload.substring(separator + 1));
+            return expiresAt > System.currentTimeMillis() ? payload.substring(0, separator) : null;
+        } catch (IllegalArgumentException e) {
+            // некорректный base64 или срок действия
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(body);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
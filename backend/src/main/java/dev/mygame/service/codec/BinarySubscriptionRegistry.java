@@ -0,0 +1,63 @@
+package dev.mygame.service.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр подписок, запросивших двоичный формат событий.
+ * <p>
+ * Хранит количество двоичных подписок на каждый адрес, чтобы кодировать и отправлять
+ * двоичные сообщения только тогда, когда их кто-то получает. Для личных очередей ключ
+ * включает ID пользователя ({@link #userKey(String, String)}).
+ */
+@Component
+public class BinarySubscriptionRegistry {
+    // ID соединения + ID подписки -> ключ адреса
+    private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+    // ключ адреса -> количество двоичных подписок
+    private final Map<String, Integer> subscriberCounts = new ConcurrentHashMap<>();
+
+    public static String userKey(String userId, String queue) {
+        return userId + ":" + queue;
+    }
+
+    public void register(String websocketSessionId, String subscriptionId, String key) {
+        if (subscriptions.putIfAbsent(subscriptionKey(websocketSessionId, subscriptionId), key) == null) {
+            subscriberCounts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    public void unregister(String websocketSessionId, String subscriptionId) {
+        String key = subscriptions.remove(subscriptionKey(websocketSessionId, subscriptionId));
+        if (key != null) {
+            subscriberCounts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Удаляет все двоичные подписки закрытого соединения.
+     */
+    public void unregisterAll(String websocketSessionId) {
+        String prefix = websocketSessionId + "/";
+        subscriptions.keySet().removeIf(subscription -> {
+            if (!subscription.startsWith(prefix)) {
+                return false;
+            }
+            String key = subscriptions.get(subscription);
+            if (key != null) {
+                subscriberCounts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            }
+            return true;
+        });
+    }
+
+    public boolean hasSubscribers(String key) {
+        return subscriberCounts.containsKey(key);
+    }
+
+    private static String subscriptionKey(String websocketSessionId, String subscriptionId) {
+        return websocketSessionId + "/" + subscriptionId;
+    }
+}
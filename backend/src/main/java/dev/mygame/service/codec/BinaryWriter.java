@@ -0,0 +1,87 @@
+package dev.mygame.service.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Расширяемый буфер для записи сообщений двоичного протокола.
+ * <p>
+ * Целые числа пишутся как varint (7 бит на байт, старший бит - признак продолжения),
+ * знаковые - предварительно в zigzag-кодировке, чтобы небольшие отрицательные значения
+ * (координаты, смещения пути) тоже занимали 1-2 байта.
+ */
+public final class BinaryWriter {
+    private byte[] buffer;
+    private int size;
+
+    public BinaryWriter() {
+        this(256);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Записывает неотрицательное число как varint.
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Записывает знаковое число в zigzag-кодировке.
+     */
+    public void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Записывает строку: длина UTF-8 + 1 (0 - {@code null}), затем байты.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Записывает массив байт: длина + 1, затем содержимое.
+     */
+    public void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dev.mygame.service.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.dto.websocket.event.*;
+import dev.mygame.dto.websocket.response.AbilityCooldownDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Кодек компактного двоичного протокола для событий сессии.
+ * <p>
+ * Клиент запрашивает двоичный формат, указав при подписке заголовок
+ * {@code content-type: application/x-dungeon-events}. Сообщение (кадр) содержит те же обертки
+ * {@code {actionType, payload, seq}}, что и JSON-сообщение, в виде:
+ * <pre>
+ * кадр    = версия:byte, количество:varint, запись*
+ * запись  = тег:varint, seq:varint (0 - без номера), тело
+ * ссылка  = дескриптор:varint; если 0 - далее ID сущности строкой
+ * гекс    = q:zigzag, r:zigzag
+ * путь    = количество:varint, первый гекс, далее смещения (dq:zigzag, dr:zigzag)
+ * строка  = длина UTF-8 + 1:varint (0 - null), байты
+ * </pre>
+ * Сущности передаются дескрипторами сессии ({@code handle} в состоянии сущности) вместо строковых ID.
+ * Частые события боя имеют собственные схемы (теги 1-8); остальные передаются тегом
+ * {@value #TAG_JSON} - тип события строкой и payload в JSON.
+ */
+@Component
+public class WireProtocolCodec {
+    /** Значение заголовка {@code content-type} подписки, запрашивающее двоичный формат. */
+    public static final String CONTENT_TYPE = "application/x-dungeon-events";
+    /** Суффикс адреса, на который переписывается двоичная подписка. */
+    public static final String DESTINATION_SUFFIX = ".bin";
+
+    public static final int VERSION = 1;
+
+    public static final int TAG_JSON = 0;
+    public static final int TAG_ENTITY_MOVED = 1;
+    public static final int TAG_ENTITY_ATTACK = 2;
+    public static final int TAG_ENTITY_STATS_UPDATED = 3;
+    public static final int TAG_CASTER_STATE_UPDATED = 4;
+    public static final int TAG_COMBAT_NEXT_TURN = 5;
+    public static final int TAG_ENTITY_TURN_ENDED = 6;
+    public static final int TAG_ENTITY_DIED = 7;
+    public static final int TAG_ABILITY_CASTED = 8;
+
+    private static final int MOVED_HAS_POSITION = 1;
+    private static final int MOVED_REACHED_TARGET = 1 << 1;
+    private static final int MOVED_HAS_PATH = 1 << 2;
+    private static final int STATS_DEAD = 1;
+    private static final int STATS_HAS_HEAL = 1 << 1;
+
+    private final ObjectMapper objectMapper;
+
+    public WireProtocolCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Кодирует обертки событий в один двоичный кадр.
+     * @param envelopes обертки {@code {actionType, payload, seq}} в порядке рассылки.
+     * @param handles   дескриптор сущности по её ID; 0, если дескриптора нет.
+     * @return содержимое кадра.
+     */
+    public byte[] encode(List<Map<String, Object>> envelopes, ToIntFunction<String> handles) {
+        BinaryWriter writer = new BinaryWriter(32 + envelopes.size() * 24);
+        writer.writeByte(VERSION);
+        writer.writeVarInt(envelopes.size());
+        for (Map<String, Object> envelope : envelopes) {
+            Object sequence = envelope.get("seq");
+            writeRecord(writer, (String) envelope.get("actionType"), envelope.get("payload"),
+                    sequence instanceof Number number ? number.longValue() : 0, handles);
+        }
+        return writer.toByteArray();
+    }
+
+    private void writeRecord(BinaryWriter writer, String actionType, Object payload, long sequence, ToIntFunction<String> handles) {
+        if (payload instanceof EntityMovedEvent event) {
+            writeHeader(writer, TAG_ENTITY_MOVED, sequence);
+            writeEntity(writer, event.getEntityId(), handles);
+            int flags = (event.getNewPosition() != null ? MOVED_HAS_POSITION : 0)
+                    | (event.isReachedTarget() ? MOVED_REACHED_TARGET : 0)
+                    | (event.getPathToAnimate() != null ? MOVED_HAS_PATH : 0);
+            writer.writeByte(flags);
+            if (event.getNewPosition() != null) {
+                writeHex(writer, event.getNewPosition());
+            }
+            writer.writeZigZag(event.getCurrentAP());
+            if (event.getPathToAnimate() != null) {
+                writePath(writer, event.getPathToAnimate());
+            }
+        } else if (payload instanceof EntityAttackEvent event) {
+            writeHeader(writer, TAG_ENTITY_ATTACK, sequence);
+            writeEntity(writer, event.getAttackerEntityId(), handles);
+            writeEntity(writer, event.getTargetEntityId(), handles);
+            writer.writeZigZag(event.getDamageCaused());
+            writer.writeZigZag(event.getAttackerCurrentAP());
+        } else if (payload instanceof EntityStatsUpdatedEvent event) {
+            writeHeader(writer, TAG_ENTITY_STATS_UPDATED, sequence);
+            writeEntity(writer, event.getTargetEntityId(), handles);
+            writer.writeZigZag(event.getAbsorbedByArmor());
+            writer.writeZigZag(event.getDamageToHp());
+            writer.writeZigZag(event.getCurrentHp());
+            writer.writeZigZag(event.getCurrentDefense());
+            writer.writeByte((event.isDead() ? STATS_DEAD : 0) | (event.getHealToHp() != null ? STATS_HAS_HEAL : 0));
+            if (event.getHealToHp() != null) {
+                writer.writeZigZag(event.getHealToHp());
+            }
+        } else if (payload instanceof CasterStateUpdatedEvent event) {
+            writeHeader(writer, TAG_CASTER_STATE_UPDATED, sequence);
+            writeEntity(writer, event.getCasterId(), handles);
+            writer.writeZigZag(event.getNewCurrentAP());
+            writeCooldowns(writer, event.getAbilityCooldowns());
+        } else if (payload instanceof CombatNextTurnEvent event) {
+            writeHeader(writer, TAG_COMBAT_NEXT_TURN, sequence);
+            writer.writeString(event.getCombatId());
+            writeEntity(writer, event.getCurrentTurnEntityId(), handles);
+            writer.writeZigZag(event.getCurrentAP());
+            writeCooldowns(writer, event.getAbilityCooldowns());
+        } else if (payload instanceof EntityTurnEndEvent event) {
+            writeHeader(writer, TAG_ENTITY_TURN_ENDED, sequence);
+            writeEntity(writer, event.getCurrentTurnEntityId(), handles);
+        } else if (payload instanceof EntityDiedEvent event) {
+            writeHeader(writer, TAG_ENTITY_DIED, sequence);
+            writeEntity(writer, event.getEntityId(), handles);
+        } else if (payload instanceof AbilityCastedEvent event) {
+            writeHeader(writer, TAG_ABILITY_CASTED, sequence);
+            writeEntity(writer, event.getCasterId(), handles);
+            writer.writeString(event.getAbilityTemplateId());
+            writer.writeByte(event.getTargetHex() != null ? 1 : 0);
+            if (event.getTargetHex() != null) {
+                writeHex(writer, event.getTargetHex());
+            }
+        } else {
+            writeHeader(writer, TAG_JSON, sequence);
+            writer.writeString(actionType);
+            writer.writeBytes(toJson(payload));
+        }
+    }
+
+    private static void writeHeader(BinaryWriter writer, int tag, long sequence) {
+        writer.writeVarInt(tag);
+        writer.writeVarLong(sequence);
+    }
+
+    private static void writeEntity(BinaryWriter writer, String entityId, ToIntFunction<String> handles) {
+        int handle = entityId != null ? handles.applyAsInt(entityId) : 0;
+        writer.writeVarInt(handle);
+        if (handle == 0) {
+            writer.writeString(entityId);
+        }
+    }
+
+    private static void writeHex(BinaryWriter writer, Hex hex) {
+        writer.writeZigZag(hex.getQ());
+        writer.writeZigZag(hex.getR());
+    }
+
+    private static void writePath(BinaryWriter writer, List<Hex> path) {
+        writer.writeVarInt(path.size());
+        int q = 0;
+        int r = 0;
+        // соседние клетки пути отличаются на единицу, поэтому смещения занимают по байту
+        for (Hex hex : path) {
+            writer.writeZigZag(hex.getQ() - q);
+            writer.writeZigZag(hex.getR() - r);
+            q = hex.getQ();
+            r = hex.getR();
+        }
+    }
+
+    private static void writeCooldowns(BinaryWriter writer, List<AbilityCooldownDto> cooldowns) {
+        if (cooldowns == null) {
+            writer.writeVarInt(0);
+            return;
+        }
+        writer.writeVarInt(cooldowns.size() + 1);
+        for (AbilityCooldownDto cooldown : cooldowns) {
+            writer.writeString(cooldown.getAbilityTemplateId());
+            writer.writeZigZag(cooldown.getTurnCooldown());
+            writer.writeZigZag(cooldown.getCooldownEndTime());
+        }
+    }
+
+    private byte[] toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.mygame.service.internal;
+
+import dev.mygame.domain.model.Player;
+import dev.mygame.domain.session.GameSession;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Привязка WebSocket-соединения к игровой сессии и игроку в ней.
+ */
+@Getter
+@AllArgsConstructor
+public class PlayerSessionBinding {
+    /**
+     * Сессия, в которой находится игрок.
+     */
+    private final GameSession session;
+
+    /**
+     * Игрок, которым управляет соединение.
+     */
+    private final Player player;
+}
@@ -0,0 +1,279 @@
+package dev.mygame.service.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Таймер на основе хэшированного колеса (hashed timing wheel) для игровых таймеров:
+ * ходов AI, очистки завершенных боёв и т.п.
+ * <p>
+ * Колесо состоит из {@code ticksPerWheel} ячеек, каждая ячейка - двусвязный список таймеров.
+ * Постановка и отмена таймера выполняются за O(1) независимо от количества ожидающих таймеров,
+ * а точность срабатывания ограничена длительностью одного тика.
+ * <p>
+ * Задачи выполняются прямо в потоке таймера, поэтому должны быть короткими -
+ * как правило, это просто постановка команды в очередь игровой сессии.
+ */
+public class HashedWheelTimer {
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    /** Ограничение на количество новых таймеров, переносимых в колесо за один тик. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    private final long tickDurationNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+
+    private final Thread workerThread;
+    private final long startTime;
+    private volatile boolean stopped = false;
+    private long tick = 0;
+
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int ticksPerWheel, String threadName) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel must be in (0, 2^30]: " + ticksPerWheel);
+        }
+        this.tickDurationNanos = unit.toNanos(tickDuration);
+
+        int wheelSize = Integer.highestOneBit(ticksPerWheel);
+        if (wheelSize < ticksPerWheel) {
+            wheelSize <<= 1;
+        }
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+
+        this.startTime = System.nanoTime();
+        this.workerThread = new Thread(this::run, threadName);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    /**
+     * Планирует однократное выполнение задачи через указанное время.
+     * @param task  задача, выполняемая в потоке таймера.
+     * @param delay задержка.
+     * @param unit  единица измерения задержки.
+     * @return дескриптор таймера, через который его можно отменить.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer is stopped");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0)) - startTime;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return количество запланированных, но еще не сработавших и не отмененных таймеров.
+     */
+    public int getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public long getTickDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickDurationNanos);
+    }
+
+    public void stop() {
+        stopped = true;
+        workerThread.interrupt();
+    }
+
+    private void run() {
+        while (!stopped) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            processCancelledTimeouts();
+            transferNewTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts();
+            tick++;
+        }
+    }
+
+    private boolean waitForNextTick() {
+        long deadline = tickDurationNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void transferNewTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != STATE_PENDING) {
+                continue;
+            }
+            long calculatedTick = timeout.deadline / tickDurationNanos;
+            timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+            // если дедлайн уже прошел, таймер сработает в текущем тике
+            long targetTick = Math.max(calculatedTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        while (true) {
+            Timeout timeout = cancelledTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Дескриптор запланированного таймера.
+     */
+    public static final class Timeout {
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = STATE_PENDING;
+
+        // поля ниже используются только потоком таймера
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Отменяет таймер, если он еще не сработал.
+         * @return {@code true}, если таймер был отменен этим вызовом.
+         */
+        public boolean cancel() {
+            synchronized (this) {
+                if (state != STATE_PENDING) {
+                    return false;
+                }
+                state = STATE_CANCELLED;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == STATE_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == STATE_EXPIRED;
+        }
+
+        private void expire() {
+            synchronized (this) {
+                if (state != STATE_PENDING) {
+                    return;
+                }
+                state = STATE_EXPIRED;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("Timer task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Ячейка колеса: двусвязный список таймеров, срабатывающих в одном тике (с точностью до оборотов).
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
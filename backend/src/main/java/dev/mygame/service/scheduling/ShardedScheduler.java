@@ -0,0 +1,88 @@
+package dev.mygame.service.scheduling;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планировщик задач игровых сессий, разбитый на независимые шарды.
+ * <p>
+ * Каждый шард - это отдельный однопоточный {@link ScheduledThreadPoolExecutor}.
+ * Сессия по своему ID всегда попадает в один и тот же шард, поэтому все её задачи
+ * (разбор очереди команд, ходы AI, очистка боёв) выполняются в одном потоке и
+ * в порядке постановки, а разные сессии распределяются по ядрам.
+ */
+public class ShardedScheduler {
+    private final ScheduledThreadPoolExecutor[] shards;
+
+    public ShardedScheduler(int shardCount, String threadNamePrefix) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shards = new ScheduledThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String threadName = threadNamePrefix + i;
+            ScheduledThreadPoolExecutor shard = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // отмененные таймеры (например, ход AI закончившегося боя) не должны копиться в очереди
+            shard.setRemoveOnCancelPolicy(true);
+            this.shards[i] = shard;
+        }
+    }
+
+    /**
+     * Возвращает шард, закрепленный за ключом (как правило, ID игровой сессии).
+     * @param key ключ шардирования.
+     * @return однопоточный планировщик шарда.
+     */
+    public ScheduledExecutorService shardFor(String key) {
+        return shards[shardIndexFor(key)];
+    }
+
+    public int shardIndexFor(String key) {
+        int hash = key.hashCode();
+        // перемешиваем биты, чтобы близкие хэши не попадали в один шард
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, shards.length);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param shardIndex номер шарда.
+     * @return количество задач, ожидающих выполнения в шарде (включая отложенные).
+     */
+    public int getQueueDepth(int shardIndex) {
+        return shards[shardIndex].getQueue().size();
+    }
+
+    /**
+     * @param shardIndex номер шарда.
+     * @return количество уже выполненных шардом задач.
+     */
+    public long getCompletedTaskCount(int shardIndex) {
+        return shards[shardIndex].getCompletedTaskCount();
+    }
+
+    public void shutdown() {
+        for (ScheduledThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ScheduledThreadPoolExecutor shard : shards) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !shard.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.map.AggroZoneTracker;
+import dev.mygame.domain.model.map.EntitySpatialIndex;
+import dev.mygame.domain.model.map.FieldOfView;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.enums.EntityStateType;
+import dev.mygame.enums.TileType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты инкрементального отслеживания зон агра.
+ */
+class AggroZoneTrackerTest {
+
+    private GameMapHex createOpenField() {
+        GameMapHex map = MapFixtures.openField(12);
+        map.setFieldOfView(new FieldOfView(map, 10));
+        return map;
+    }
+
+    private Monster createEntity(String id, Hex position, int aggroRadius) {
+        Monster monster = MapFixtures.monster(id, position);
+        monster.setAggroRadius(aggroRadius);
+        return monster;
+    }
+
+    @Test
+    @DisplayName("Проверка: переходом считается только вход в зону агра, а не шаги внутри нее")
+    void findTriggeredOwners_ShouldReportOnlyZoneEntry() {
+        GameMapHex map = createOpenField();
+        EntitySpatialIndex index = new EntitySpatialIndex();
+        AggroZoneTracker tracker = new AggroZoneTracker();
+        Monster monster = createEntity("monster", new Hex(0, 0), 3);
+        Monster walker = createEntity("walker", new Hex(5, 0), 0);
+        index.add(monster);
+        index.add(walker);
+        tracker.update(monster, map, index);
+
+        MapFixtures.move(walker, new Hex(4, 0), index);
+        assertTrue(tracker.findTriggeredOwners(walker, new Hex(5, 0), new Hex(4, 0)).isEmpty());
+
+        MapFixtures.move(walker, new Hex(3, 0), index);
+        assertEquals(List.of(monster), tracker.findTriggeredOwners(walker, new Hex(4, 0), new Hex(3, 0)));
+
+        MapFixtures.move(walker, new Hex(2, 0), index);
+        assertTrue(tracker.findTriggeredOwners(walker, new Hex(3, 0), new Hex(2, 0)).isEmpty(),
+                "Шаг внутри зоны не должен быть переходом");
+    }
+
+    @Test
+    @DisplayName("Проверка: зона агра не проходит сквозь стену")
+    void update_ShouldExcludeCellsBehindWall() {
+        GameMapHex map = createOpenField();
+        map.setTileType(1, 0, TileType.WALL);
+        map.setFieldOfView(new FieldOfView(map, 10));
+        EntitySpatialIndex index = new EntitySpatialIndex();
+        AggroZoneTracker tracker = new AggroZoneTracker();
+        Monster monster = createEntity("monster", new Hex(0, 0), 3);
+        Monster walker = createEntity("walker", new Hex(3, 0), 0);
+        index.add(monster);
+        index.add(walker);
+        tracker.update(monster, map, index);
+
+        MapFixtures.move(walker, new Hex(2, 0), index);
+        assertTrue(tracker.findTriggeredOwners(walker, new Hex(3, 0), new Hex(2, 0)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка: в бою зона агра заменяется зоной боя, после смерти зона удаляется")
+    void update_ShouldSwitchZone_WhenStateChanges() {
+        GameMapHex map = createOpenField();
+        EntitySpatialIndex index = new EntitySpatialIndex();
+        AggroZoneTracker tracker = new AggroZoneTracker();
+        Monster fighter = createEntity("fighter", new Hex(0, 0), 2);
+        Monster walker = createEntity("walker", new Hex(8, 0), 0);
+        index.add(fighter);
+        index.add(walker);
+        tracker.update(fighter, map, index);
+
+        MapFixtures.move(walker, new Hex(7, 0), index);
+        assertTrue(tracker.findTriggeredOwners(walker, new Hex(8, 0), new Hex(7, 0)).isEmpty());
+
+        fighter.setState(EntityStateType.COMBAT);
+        tracker.update(fighter, map, index);
+        MapFixtures.move(walker, new Hex(6, 0), index);
+        assertEquals(List.of(fighter), tracker.findTriggeredOwners(walker, new Hex(7, 0), new Hex(6, 0)));
+
+        fighter.takeDamage(fighter.getMaxHp());
+        assertFalse(fighter.isAlive());
+        tracker.update(fighter, map, index);
+        assertEquals(0, tracker.getZoneCount());
+    }
+}
@@ -0,0 +1,102 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.Player;
+import dev.mygame.domain.model.map.EntitySpatialIndex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.session.GameSession;
+import dev.mygame.enums.EntityStateType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты пространственного индекса сущностей (чанки 8x8 гексов).
+ */
+class EntitySpatialIndexTest {
+
+    private static Set<Entity> found(EntitySpatialIndex index, Hex center, int radius) {
+        return Set.copyOf(index.findInRadius(center, radius));
+    }
+
+    @Test
+    @DisplayName("Проверка: поиск по точке и радиусу находит сущности в соседних чанках")
+    void find_ShouldCrossChunkBorders() {
+        EntitySpatialIndex index = new EntitySpatialIndex();
+        // (7, 0) и (8, 0) - в разных чанках по q, (0, -1) и (-1, 0) - в чанках с отрицательными координатами
+        Monster east = MapFixtures.monster("east", new Hex(7, 0));
+        Monster eastNeighbor = MapFixtures.monster("east-neighbor", new Hex(8, 0));
+        Monster south = MapFixtures.monster("south", new Hex(0, -1));
+        Monster west = MapFixtures.monster("west", new Hex(-1, 0));
+        Monster far = MapFixtures.monster("far", new Hex(20, 20));
+        for (Monster monster : List.of(east, eastNeighbor, south, west, far)) {
+            index.add(monster);
+        }
+
+        assertEquals(5, index.size());
+        assertSame(eastNeighbor, index.getAt(new Hex(8, 0)));
+        assertSame(west, index.getAt(new Hex(-1, 0)));
+        assertNull(index.getAt(new Hex(9, 0)));
+
+        assertEquals(Set.of(east, eastNeighbor), found(index, new Hex(8, 0), 1));
+        assertEquals(Set.of(south, west), found(index, new Hex(0, 0), 1));
+        assertEquals(Set.of(east, eastNeighbor, south, west), found(index, new Hex(4, 0), 5));
+        assertTrue(found(index, new Hex(-10, -10), 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка: перемещение между чанками переносит сущность в индексе")
+    void move_ShouldRelocateEntityBetweenChunks() {
+        EntitySpatialIndex index = new EntitySpatialIndex();
+        Monster walker = MapFixtures.monster("walker", new Hex(7, 7));
+        index.add(walker);
+
+        MapFixtures.move(walker, new Hex(8, 7), index);
+        MapFixtures.move(walker, new Hex(8, 8), index);
+
+        assertEquals(1, index.size());
+        assertNull(index.getAt(new Hex(7, 7)));
+        assertSame(walker, index.getAt(new Hex(8, 8)));
+        assertTrue(found(index, new Hex(5, 5), 2).isEmpty(), "В старом чанке сущности быть не должно");
+        assertEquals(Set.of(walker), found(index, new Hex(9, 9), 2));
+
+        MapFixtures.move(walker, new Hex(9, 8), index);
+        assertSame(walker, index.getAt(new Hex(9, 8)), "Перемещение внутри чанка тоже должно учитываться");
+    }
+
+    @Test
+    @DisplayName("Проверка: погибшая сущность и отключившийся игрок удаляются из индекса сессии")
+    void session_ShouldRemoveDeadAndDisconnectedEntities() {
+        GameSession session = GameSession.builder()
+                .sessionID("session")
+                .eventPublisher(event -> { })
+                .build();
+        Monster monster = MapFixtures.monster("monster", new Hex(-1, 0));
+        Player player = Player.builder()
+                .id("player")
+                .userId("user")
+                .websocketSessionId("ws")
+                .teamId("player")
+                .position(new Hex(8, 0))
+                .currentHp(10)
+                .maxHp(10)
+                .state(EntityStateType.EXPLORING)
+                .build();
+        session.addEntity(monster);
+        session.addEntity(player);
+        EntitySpatialIndex index = session.getSpatialIndex();
+        assertEquals(2, index.size());
+
+        monster.takeDamage(monster.getMaxHp());
+        assertNull(index.getAt(new Hex(-1, 0)), "Погибшая сущность должна быть удалена из индекса");
+
+        session.handlePlayerDisconnect("ws");
+        assertNull(index.getAt(new Hex(8, 0)), "Отключившийся игрок должен быть удален из индекса");
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,53 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.map.FieldOfView;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.enums.TileType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты поля зрения {@link FieldOfView}.
+ */
+class FieldOfViewTest {
+
+    @Test
+    @DisplayName("Проверка: на открытой местности видны все клетки в радиусе")
+    void canSee_ShouldSeeEverythingInRadius_OnOpenField() {
+        GameMapHex map = MapFixtures.openField(8);
+        FieldOfView fieldOfView = new FieldOfView(map, 5);
+
+        assertTrue(fieldOfView.canSee(map, 0, 0, 5, -5));
+        assertTrue(fieldOfView.canSee(map, 0, 0, -3, 3));
+        assertFalse(fieldOfView.canSee(map, 0, 0, 6, 0), "Клетки дальше радиуса не видны");
+    }
+
+    @Test
+    @DisplayName("Проверка: стена закрывает клетки за собой, но сама видна")
+    void canSee_ShouldHideCellsBehindWall() {
+        GameMapHex map = MapFixtures.openField(8);
+        map.setTileType(1, 0, TileType.WALL);
+        map.setFieldOfView(new FieldOfView(map, 5));
+
+        assertTrue(map.canSee(0, 0, 1, 0));
+        assertFalse(map.canSee(0, 0, 2, 0));
+        assertFalse(map.canSee(0, 0, 4, 0));
+        assertTrue(map.canSee(0, 0, 2, -1), "Клетка сбоку от стены остается видимой");
+    }
+
+    @Test
+    @DisplayName("Проверка: поле зрения пересчитывается после изменения рельефа")
+    void canSee_ShouldRecompute_AfterTerrainChange() {
+        GameMapHex map = MapFixtures.openField(8);
+        map.setFieldOfView(new FieldOfView(map, 5));
+        assertTrue(map.canSee(0, 0, 3, 0));
+
+        map.setTileType(2, 0, TileType.WALL);
+        assertFalse(map.canSee(0, 0, 3, 0));
+
+        map.setTileType(2, 0, TileType.FLOOR);
+        assertTrue(map.canSee(0, 0, 3, 0));
+    }
+}
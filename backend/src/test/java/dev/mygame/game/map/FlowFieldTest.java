@@ -0,0 +1,63 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.map.FlowField;
+import dev.mygame.domain.model.map.FlowFieldCache;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.enums.TileType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты полей потока для преследования цели.
+ */
+class FlowFieldTest {
+
+    private GameMapHex map;
+
+    @BeforeEach
+    void setUp() {
+        map = MapFixtures.openHexagon(5);
+    }
+
+    @Test
+    @DisplayName("Проверка: расстояния поля совпадают с длиной кратчайшего пути в обход стены")
+    void build_ShouldMeasureDistanceAroundWalls() {
+        map.setTileType(1, 0, TileType.WALL);
+
+        FlowField field = FlowField.build(map, 2, 0);
+
+        assertEquals(0, field.distanceAt(map, 2, 0));
+        assertEquals(map.findPath(new Hex(0, 0), new Hex(2, 0)).size() - 1, field.distanceAt(map, 0, 0));
+        assertEquals(FlowField.UNREACHABLE, field.distanceAt(map, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Проверка: следующий шаг не ведет на занятую клетку")
+    void nextStep_ShouldSkipOccupiedTiles() {
+        // из (0, 0) к цели ведут две клетки: (1, 0) и (1, -1)
+        FlowField field = FlowField.build(map, 3, -1);
+        map.setOccupantId(1, 0, "blocker");
+
+        Hex step = field.nextStep(map, new Hex(0, 0));
+
+        assertEquals(new Hex(1, -1), step);
+        assertEquals(2, field.distanceAt(map, step.getQ(), step.getR()));
+    }
+
+    @Test
+    @DisplayName("Проверка: поле переиспользуется, пока цель стоит на месте")
+    void cache_ShouldRebuildOnlyWhenTargetMoves() {
+        FlowFieldCache cache = new FlowFieldCache();
+
+        cache.nextStep(map, new Hex(-3, 0), "player", new Hex(3, 0));
+        cache.nextStep(map, new Hex(0, -3), "player", new Hex(3, 0));
+        assertEquals(1, cache.getBuilds());
+
+        cache.nextStep(map, new Hex(0, -3), "player", new Hex(2, 0));
+        assertEquals(2, cache.getBuilds());
+    }
+}
@@ -0,0 +1,103 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.PathCache;
+import dev.mygame.domain.model.map.Tile;
+import dev.mygame.enums.TileType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты плотного хранения тайлов в {@link GameMapHex}.
+ */
+class GameMapHexTest {
+
+    @Test
+    @DisplayName("Проверка: тайлы сохраняются при расширении карты за исходные границы")
+    void setTile_ShouldGrowBounds_AndKeepExistingTiles() {
+        GameMapHex map = GameMapHex.builder().minQ(0).minR(0).width(2).height(2).build();
+        map.setTile(new Hex(0, 0), new Tile(TileType.WALL, null));
+        map.setTile(new Hex(1, 1), new Tile(TileType.FLOOR, "entity-1"));
+
+        map.setTile(new Hex(-20, 30), new Tile(TileType.DOOR, null));
+
+        assertEquals(TileType.WALL, map.getTile(new Hex(0, 0)).getType());
+        assertEquals("entity-1", map.getTile(new Hex(1, 1)).getOccupiedById());
+        assertEquals(TileType.DOOR, map.getTile(-20, 30).getType());
+        assertEquals(3, map.getTileCount());
+        assertNull(map.getTile(new Hex(1, 0)), "Клетка без тайла должна возвращать null");
+    }
+
+    @Test
+    @DisplayName("Проверка: изменения через тайл сразу видны в карте")
+    void tileView_ShouldWriteThroughToMap() {
+        GameMapHex map = GameMapHex.builder().minQ(-1).minR(-1).width(3).height(3).build();
+        map.setTileType(0, 0, TileType.FLOOR);
+
+        map.getTile(new Hex(0, 0)).setOccupiedById("entity-1");
+        assertTrue(map.isOccupied(0, 0));
+
+        map.getTile(0, 0).setOccupiedById(null);
+        assertFalse(map.getTile(new Hex(0, 0)).isOccupied());
+    }
+
+    @Test
+    @DisplayName("Проверка: занятость по дескриптору сессии и по ID указывает на одну сущность")
+    void setOccupant_ShouldShareHandleWithOccupantId() {
+        GameMapHex map = GameMapHex.builder().minQ(0).minR(0).width(3).height(1).build();
+        for (int q = 0; q < 3; q++) {
+            map.setTileType(q, 0, TileType.FLOOR);
+        }
+
+        map.setOccupantId(0, 0, "legacy");
+        map.setOccupant(1, 0, 3, "entity-3");
+        map.getTile(2, 0).setOccupiedById("entity-3");
+
+        assertEquals("legacy", map.getOccupantId(0, 0));
+        assertEquals("entity-3", map.getOccupantId(1, 0));
+        assertEquals(3, map.getOccupantHandle(2, 0));
+
+        map.clearOccupant(1, 0);
+        assertFalse(map.isOccupied(1, 0));
+        assertNull(map.getOccupantId(1, 0));
+    }
+
+    @Test
+    @DisplayName("Проверка: координаты за пределами карты непроходимы")
+    void isPassable_ShouldReturnFalse_OutsideBounds() {
+        GameMapHex map = GameMapHex.builder().minQ(0).minR(0).width(1).height(1).build();
+        map.setTileType(0, 0, TileType.FLOOR);
+
+        assertTrue(map.isPassable(0, 0));
+        assertFalse(map.isPassable(5, -5));
+        assertEquals(-1, map.indexOf(5, -5));
+    }
+
+    @Test
+    @DisplayName("Проверка: кэш путей сбрасывается при изменении занятости клеток")
+    void findPath_ShouldUseCache_UntilOccupancyChanges() {
+        GameMapHex map = GameMapHex.builder().build();
+        for (int q = 0; q < 6; q++) {
+            for (int r = 0; r < 3; r++) {
+                map.setTileType(q, r, TileType.FLOOR);
+            }
+        }
+        PathCache cache = new PathCache(8);
+        map.setPathCache(cache);
+
+        List<Hex> first = map.findPath(new Hex(0, 1), new Hex(5, 1));
+        List<Hex> second = map.findPath(new Hex(0, 1), new Hex(5, 1));
+        assertSame(first, second, "Повторный запрос должен вернуть путь из кэша");
+        assertEquals(1, cache.getHits());
+
+        map.setOccupantId(first.get(1).getQ(), first.get(1).getR(), "blocker");
+        List<Hex> third = map.findPath(new Hex(0, 1), new Hex(5, 1));
+        assertFalse(third.contains(first.get(1)), "После изменения занятости путь должен быть пересчитан");
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -0,0 +1,62 @@
+package dev.mygame.game.map;
+
+import dev.mygame.config.PathfindingProperties;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.HierarchicalPathGraph;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.HexPathfinder;
+import dev.mygame.service.MapGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты иерархического поиска пути на сгенерированном подземелье.
+ */
+class HierarchicalPathGraphTest {
+
+    @Test
+    @DisplayName("Проверка: иерархический путь корректен и находится там же, где и обычный")
+    void findPath_ShouldMatchFlatSearchReachability() {
+        PathfindingProperties properties = new PathfindingProperties();
+        properties.setClusterSize(8);
+        GameMapHex map = new MapGenerator(properties).generateRoomDungeon(96, 96, 20, 4, 10, 7L);
+        HierarchicalPathGraph graph = map.getPathGraph();
+        assertNotNull(graph, "Генератор должен построить граф для карты");
+
+        List<Hex> floor = new ArrayList<>();
+        for (int index = 0; index < map.getCellCount(); index++) {
+            if (map.isPassable(index)) {
+                floor.add(new Hex(map.qOfIndex(index), map.rOfIndex(index)));
+            }
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 50; i++) {
+            Hex start = floor.get(random.nextInt(floor.size()));
+            Hex end = floor.get(random.nextInt(floor.size()));
+
+            List<Hex> flat = HexPathfinder.findPath(map, start, end);
+            List<Hex> hierarchical = graph.findPath(map, start, end);
+
+            assertNotNull(hierarchical);
+            assertEquals(flat.isEmpty(), hierarchical.isEmpty(), "Достижимость должна совпадать");
+            if (hierarchical.isEmpty()) {
+                continue;
+            }
+            assertEquals(start, hierarchical.get(0));
+            assertEquals(end, hierarchical.get(hierarchical.size() - 1));
+            assertTrue(hierarchical.size() >= flat.size(), "Путь не может быть короче кратчайшего");
+            for (int step = 1; step < hierarchical.size(); step++) {
+                Hex hex = hierarchical.get(step);
+                assertEquals(1, hierarchical.get(step - 1).distanceTo(hex), "Шаги пути должны быть соседними");
+                assertTrue(map.isPassable(hex.getQ(), hex.getR()), "Путь должен проходить по проходимым клеткам");
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.model.map.MapConnectivity;
+import dev.mygame.enums.TileType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты компонент связности карты и быстрого отклонения невозможных запросов пути.
+ */
+class MapConnectivityTest {
+
+    /**
+     * Полоса 7x3 с поперечной стеной в столбце q = 3 и дверью в её середине.
+     */
+    private GameMapHex createTwoRooms(TileType middle) {
+        GameMapHex map = GameMapHex.builder().build();
+        for (int q = 0; q < 7; q++) {
+            for (int r = 0; r < 3; r++) {
+                map.setTileType(q, r, q == 3 ? TileType.WALL : TileType.FLOOR);
+            }
+        }
+        map.setTileType(3, 1, middle);
+        return map;
+    }
+
+    @Test
+    @DisplayName("Проверка: дверь объединяет две комнаты в одну компоненту")
+    void build_ShouldJoinRoomsThroughDoor() {
+        GameMapHex map = createTwoRooms(TileType.DOOR);
+        MapConnectivity connectivity = map.getConnectivity();
+
+        assertEquals(2, connectivity.getRoomCount());
+        assertEquals(1, connectivity.getDoorCount());
+        assertEquals(1, connectivity.getComponentCount());
+        assertTrue(connectivity.isConnected(map.indexOf(0, 1), map.indexOf(6, 1)));
+        assertNotEquals(connectivity.getRoomId(map.indexOf(0, 1)), connectivity.getRoomId(map.indexOf(6, 1)));
+    }
+
+    @Test
+    @DisplayName("Проверка: путь между разделенными стеной комнатами отклоняется без поиска")
+    void findPath_ShouldRejectPath_BetweenComponents() {
+        GameMapHex map = createTwoRooms(TileType.WALL);
+
+        assertEquals(2, map.getConnectivity().getComponentCount());
+        assertFalse(map.isPathPossible(map.indexOf(0, 1), map.indexOf(6, 1)));
+        assertTrue(map.findPath(new Hex(0, 1), new Hex(6, 1)).isEmpty());
+
+        // после замены стены на дверь компоненты пересчитываются
+        map.setTileType(3, 1, TileType.DOOR);
+        assertFalse(map.findPath(new Hex(0, 1), new Hex(6, 1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка: окруженная сущностями цель недостижима")
+    void isPathPossible_ShouldReturnFalse_WhenTargetIsSurrounded() {
+        GameMapHex map = createTwoRooms(TileType.DOOR);
+        Hex target = new Hex(5, 1);
+        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+            Hex neighbor = target.getNeighbor(direction);
+            map.setOccupantId(neighbor.getQ(), neighbor.getR(), "guard-" + direction);
+        }
+
+        assertFalse(map.isPathPossible(map.indexOf(0, 1), map.indexOf(5, 1)));
+        assertTrue(map.findPath(new Hex(0, 1), target).isEmpty());
+        assertTrue(map.isPathPossible(map.indexOf(5, 0), map.indexOf(5, 1)), "Соседняя клетка всегда может шагнуть к цели");
+    }
+}
@@ -0,0 +1,69 @@
+package dev.mygame.game.map;
+
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.model.map.EntitySpatialIndex;
+import dev.mygame.domain.model.map.GameMapHex;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.enums.EntityStateType;
+import dev.mygame.enums.TileType;
+
+/**
+ * Общие заготовки карт и сущностей для юнит-тестов.
+ */
+public final class MapFixtures {
+
+    private MapFixtures() {
+    }
+
+    /**
+     * Карта без стен: все клетки с {@code |q| <= size} и {@code |r| <= size} проходимы.
+     */
+    public static GameMapHex openField(int size) {
+        GameMapHex map = GameMapHex.builder().build();
+        for (int q = -size; q <= size; q++) {
+            for (int r = -size; r <= size; r++) {
+                map.setTileType(q, r, TileType.FLOOR);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Шестиугольная карта без стен: проходимы все клетки на расстоянии не больше {@code radius} от центра.
+     */
+    public static GameMapHex openHexagon(int radius) {
+        GameMapHex map = GameMapHex.builder().build();
+        for (int q = -radius; q <= radius; q++) {
+            for (int r = -radius; r <= radius; r++) {
+                if (Hex.distance(q, r, 0, 0) <= radius) {
+                    map.setTileType(q, r, TileType.FLOOR);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Живой монстр вне боя в собственной команде.
+     */
+    public static Monster monster(String id, Hex position) {
+        return Monster.builder()
+                .id(id)
+                .teamId(id)
+                .position(position)
+                .currentHp(10)
+                .maxHp(10)
+                .state(EntityStateType.EXPLORING)
+                .build();
+    }
+
+    /**
+     * Перемещает сущность и переносит её в индексе, как это делает сессия.
+     */
+    public static void move(Entity entity, Hex to, EntitySpatialIndex index) {
+        Hex from = entity.getPosition();
+        entity.setPosition(to);
+        index.move(entity, from, to);
+    }
+}
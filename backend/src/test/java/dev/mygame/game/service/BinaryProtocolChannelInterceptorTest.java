@@ -0,0 +1,64 @@
+package dev.mygame.game.service;
+
+import dev.mygame.config.BinaryProtocolChannelInterceptor;
+import dev.mygame.config.CustomHandshakeHandler;
+import dev.mygame.service.codec.BinarySubscriptionRegistry;
+import dev.mygame.service.codec.WireProtocolCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты согласования двоичного формата событий при подписке.
+ */
+class BinaryProtocolChannelInterceptorTest {
+
+    private static final String TOPIC = "/topic/session/s-1/game-updates";
+
+    private final BinarySubscriptionRegistry registry = new BinarySubscriptionRegistry();
+    private final BinaryProtocolChannelInterceptor interceptor = new BinaryProtocolChannelInterceptor(registry);
+
+    private static Message<byte[]> subscribe(Map<String, Object> sessionAttributes) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("ws-1");
+        accessor.setSubscriptionId("sub-1");
+        accessor.setDestination(TOPIC);
+        accessor.setNativeHeader("content-type", WireProtocolCodec.CONTENT_TYPE);
+        accessor.setSessionAttributes(sessionAttributes);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static String destinationOf(Message<?> message) {
+        return StompHeaderAccessor.wrap(message).getDestination();
+    }
+
+    @Test
+    @DisplayName("Проверка: подписка через чистый WebSocket переводится на двоичный адрес")
+    void preSend_ShouldRewriteSubscription_OnNativeConnection() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(CustomHandshakeHandler.BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+
+        Message<?> result = interceptor.preSend(subscribe(attributes), null);
+
+        assertEquals(TOPIC + WireProtocolCodec.DESTINATION_SUFFIX, destinationOf(result));
+        assertTrue(registry.hasSubscribers(TOPIC));
+    }
+
+    @Test
+    @DisplayName("Проверка: на SockJS-соединении заголовок игнорируется, подписка остается в JSON")
+    void preSend_ShouldKeepJson_OnSockJsConnection() {
+        Message<?> result = interceptor.preSend(subscribe(new HashMap<>()), null);
+
+        assertEquals(TOPIC, destinationOf(result));
+        assertFalse(registry.hasSubscribers(TOPIC));
+    }
+}
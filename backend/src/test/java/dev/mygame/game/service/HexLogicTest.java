@@ -74,6 +74,22 @@ class HexLogicTest {
         assertFalse(canAttack, "Герой не должен мочь атаковать, т.к. дистанция (3) > радиус атаки (2)");
     }
 
+    @Test
+    @DisplayName("Проверка: примитивные операции с гексами совпадают с объектными")
+    void primitiveHexApi_ShouldMatchObjectApi() {
+        Hex hex = new Hex(-7, 12);
+        Hex other = new Hex(3, -4);
+
+        assertEquals(hex.distanceTo(other), Hex.distance(-7, 12, 3, -4));
+        assertEquals(hex, Hex.fromKey(hex.toKey()));
+        assertEquals(-7, Hex.unpackIntQ(Hex.packInt(-7, 12)));
+        assertEquals(12, Hex.unpackIntR(Hex.packInt(-7, 12)));
+        for (int direction = 0; direction < Hex.DIRECTION_COUNT; direction++) {
+            Hex expected = hex.add(Hex.DIRECTIONS.get(direction));
+            assertEquals(expected, new Hex(Hex.neighborQ(-7, direction), Hex.neighborR(12, direction)));
+        }
+    }
+
     @Test
     @DisplayName("Проверка: Перемещение на свободную проходимую клетку успешно")
     void move_ShouldSucceed_ToEmptyWalkableTile() {
@@ -97,33 +113,34 @@ class HexLogicTest {
     @Test
     @DisplayName("Проверка: возврат пути при перемещении игрока")
     void move_ShouldSucceed_FromHexToHex() {
-//        GameMapHex gameMap = new GameMapHex();
-//
-//        Hex startPos = new Hex(0, 0);
-//        Hex endPos = new Hex(3, -2);
-//
-//        int mapRadius = 5;
-//        for (int q = -mapRadius; q <= mapRadius; q++) {
-//            for (int r = -mapRadius; r <= mapRadius; r++) {
-//                Hex hex = new Hex(q, r);
-//                if (hex.distanceTo(new Hex(0,0)) <= mapRadius) {
-//                    gameMap.setTile(hex, new Tile(TileType.FLOOR, null));
-//                }
-//            }
-//        }
-//
-//        List<Hex> path = gameMap.findPath(startPos, endPos);
-//
-//        assertNotNull(path, "Путь не должен быть null");
-//        assertFalse(path.isEmpty(), "Путь не должен быть пустым");
-//
-//        int expectedDistance = startPos.distanceTo(endPos);
-//        assertEquals(expectedDistance + 1, path.size(), "Длина пути должна быть равна расстоянию + 1");
-//
-//        // Проверка 3: Путь начинается и заканчивается там, где нужно?
-//        assertEquals(startPos, path.get(0), "Путь должен начинаться со стартовой точки");
-//        assertEquals(endPos, path.get(path.size() - 1), "Путь должен заканчиваться в целевой точке");
-//
-//        System.out.println("Найденный путь: " + path);
+        GameMapHex gameMap = GameMapHex.builder().build();
+
+        Hex startPos = new Hex(0, 0);
+        Hex endPos = new Hex(3, -2);
+
+        int mapRadius = 5;
+        for (int q = -mapRadius; q <= mapRadius; q++) {
+            for (int r = -mapRadius; r <= mapRadius; r++) {
+                Hex hex = new Hex(q, r);
+                if (hex.distanceTo(new Hex(0,0)) <= mapRadius) {
+                    gameMap.setTile(hex, new Tile(TileType.FLOOR, null));
+                }
+            }
+        }
+        // занятая клетка на прямой линии должна обходиться
+        gameMap.getTile(new Hex(1, -1)).setOccupiedById("blocker");
+
+        List<Hex> path = gameMap.findPath(startPos, endPos);
+
+        assertNotNull(path, "Путь не должен быть null");
+        assertFalse(path.isEmpty(), "Путь не должен быть пустым");
+
+        int expectedDistance = startPos.distanceTo(endPos);
+        assertEquals(expectedDistance + 1, path.size(), "Длина пути должна быть равна расстоянию + 1");
+        assertFalse(path.contains(new Hex(1, -1)), "Путь не должен проходить через занятую клетку");
+
+        // Проверка 3: Путь начинается и заканчивается там, где нужно?
+        assertEquals(startPos, path.get(0), "Путь должен начинаться со стартовой точки");
+        assertEquals(endPos, path.get(path.size() - 1), "Путь должен заканчиваться в целевой точке");
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package dev.mygame.game.service;
+
+import dev.mygame.config.ResumeProperties;
+import dev.mygame.service.ResumeTokenService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты выдачи и проверки токенов восстановления.
+ */
+class ResumeTokenServiceTest {
+
+    private static ResumeTokenService service(String secret, long ttlSeconds) {
+        ResumeProperties properties = new ResumeProperties();
+        properties.setSecret(secret);
+        properties.setTokenTtlSeconds(ttlSeconds);
+        return new ResumeTokenService(properties);
+    }
+
+    @Test
+    @DisplayName("Проверка: действительный токен возвращает ID пользователя")
+    void verify_ShouldReturnUserId_ForIssuedToken() {
+        ResumeTokenService service = service("secret", 60);
+
+        String token = service.issue("user:42");
+
+        assertEquals("user:42", service.verify(token));
+    }
+
+    @Test
+    @DisplayName("Проверка: измененный, чужой или просроченный токен отклоняется")
+    void verify_ShouldRejectForgedOrExpiredTokens() {
+        ResumeTokenService service = service("secret", 60);
+        String token = service.issue("user-1");
+        int dot = token.indexOf('.');
+        // тело с чужим ID пользователя и прежней подписью
+        String body = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String forgedBody = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(body.replace("user-1", "user-2").getBytes(StandardCharsets.UTF_8));
+        // символ из середины подписи: последний символ base64 может содержать только биты выравнивания
+        int middle = dot + (token.length() - dot) / 2;
+        char replaced = token.charAt(middle) == 'A' ? 'B' : 'A';
+        String forgedSignature = token.substring(0, middle) + replaced + token.substring(middle + 1);
+
+        assertNull(service.verify(forgedBody + token.substring(dot)));
+        assertNull(service.verify(forgedSignature));
+        assertNull(service("other-secret", 60).verify(token));
+        assertNull(service("secret", 0).verify(service("secret", 0).issue("user-1")));
+        assertNull(service.verify("not-a-token"));
+        assertNull(service.verify(null));
+    }
+}
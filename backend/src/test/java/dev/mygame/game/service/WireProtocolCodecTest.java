@@ -0,0 +1,79 @@
+package dev.mygame.game.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.dto.websocket.event.EntityMovedEvent;
+import dev.mygame.dto.websocket.event.EntityTurnEndEvent;
+import dev.mygame.service.codec.WireProtocolCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты двоичного кодирования событий сессии.
+ */
+class WireProtocolCodecTest {
+
+    private final WireProtocolCodec codec = new WireProtocolCodec(new ObjectMapper());
+
+    private static Map<String, Object> envelope(String actionType, Object payload, Long sequence) {
+        Map<String, Object> envelope = new HashMap<>();
+        envelope.put("actionType", actionType);
+        envelope.put("payload", payload);
+        if (sequence != null) {
+            envelope.put("seq", sequence);
+        }
+        return envelope;
+    }
+
+    @Test
+    @DisplayName("Проверка: сущность с дескриптором кодируется одним байтом, без дескриптора - строкой ID")
+    void encode_ShouldUseHandle_WhenEntityHasOne() {
+        byte[] withHandle = codec.encode(
+                List.of(envelope("entity_turn_ended", new EntityTurnEndEvent("hero"), 300L)), id -> 3);
+        byte[] withoutHandle = codec.encode(
+                List.of(envelope("entity_turn_ended", new EntityTurnEndEvent("ab"), null)), id -> 0);
+
+        // версия, количество, тег, seq=300 (varint), дескриптор
+        assertArrayEquals(new byte[]{1, 1, 6, (byte) 0xAC, 0x02, 3}, withHandle);
+        // seq=0, дескриптор 0, длина строки + 1, байты ID
+        assertArrayEquals(new byte[]{1, 1, 6, 0, 0, 3, 'a', 'b'}, withoutHandle);
+    }
+
+    @Test
+    @DisplayName("Проверка: путь перемещения кодируется смещениями в zigzag")
+    void encode_ShouldDeltaEncodePath() {
+        EntityMovedEvent event = new EntityMovedEvent("hero", new Hex(3, -1), 2,
+                List.of(new Hex(2, -1), new Hex(3, -1)), true);
+
+        byte[] frame = codec.encode(List.of(envelope("entity_moved", event, 1L)), id -> 5);
+
+        assertArrayEquals(new byte[]{
+                1, 1, 1, 1, 5,
+                0b111,      // есть позиция, цель достигнута, есть путь
+                6, 1,       // позиция (3, -1)
+                4,          // ОД = 2
+                2, 4, 1,    // два гекса: (2, -1)
+                2, 0        // смещение (+1, 0)
+        }, frame);
+    }
+
+    @Test
+    @DisplayName("Проверка: событие без собственной схемы передается тегом JSON")
+    void encode_ShouldFallBackToJson_ForUnknownPayload() {
+        byte[] frame = codec.encode(List.of(envelope("team_updated", Map.of("x", 1), 7L)), id -> 0);
+
+        byte[] json = "{\"x\":1}".getBytes(StandardCharsets.UTF_8);
+        assertEquals(WireProtocolCodec.TAG_JSON, frame[2]);
+        assertEquals(7, frame[3]);
+        assertEquals("team_updated".length() + 1, frame[4]);
+        assertEquals(json.length + 1, frame[5 + "team_updated".length()]);
+        assertEquals("{\"x\":1}", new String(frame, frame.length - json.length, json.length, StandardCharsets.UTF_8));
+    }
+}
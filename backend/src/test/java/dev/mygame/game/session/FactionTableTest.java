@@ -0,0 +1,71 @@
+package dev.mygame.game.session;
+
+import dev.mygame.domain.model.Monster;
+import dev.mygame.domain.session.FactionTable;
+import dev.mygame.enums.FactionRelation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты таблицы фракций сессии.
+ */
+class FactionTableTest {
+
+    private Monster createMember(FactionTable table, String id, String teamId) {
+        Monster monster = Monster.builder().id(id).teamId(teamId).build();
+        monster.setFactionHandle(table.intern(teamId));
+        return monster;
+    }
+
+    @Test
+    @DisplayName("Проверка: члены одной команды - союзники, разных - враги")
+    void areEnemies_ShouldDependOnTeam() {
+        FactionTable table = new FactionTable();
+        Monster first = createMember(table, "m1", "monster");
+        Monster second = createMember(table, "m2", "monster");
+        Monster player = createMember(table, "p1", "team-1");
+
+        assertFalse(table.areEnemies(first, second));
+        assertFalse(table.areEnemies(first, first));
+        assertTrue(table.areEnemies(first, player));
+        assertTrue(table.areEnemies(player, second));
+    }
+
+    @Test
+    @DisplayName("Проверка: сущность без команды враждебна всем")
+    void areEnemies_ShouldTreatEntityWithoutTeamAsHostile() {
+        FactionTable table = new FactionTable();
+        Monster loner = createMember(table, "l1", null);
+        Monster other = createMember(table, "l2", null);
+
+        assertEquals(FactionTable.NONE, loner.getFactionHandle());
+        assertTrue(table.areEnemies(loner, other));
+    }
+
+    @Test
+    @DisplayName("Проверка: отношения из настроек сохраняются при росте таблицы")
+    void intern_ShouldApplyConfiguredRelations() {
+        FactionTable table = new FactionTable(FactionRelation.HOSTILE, Map.of(
+                "monster", Map.of("undead", FactionRelation.ALLIED, "merchant", FactionRelation.NEUTRAL),
+                "undead", Map.of("monster", FactionRelation.ALLIED),
+                "merchant", Map.of("monster", FactionRelation.NEUTRAL)));
+        int monster = table.intern("monster");
+        for (int i = 0; i < 40; i++) {
+            table.intern("team-" + i);
+        }
+        int undead = table.intern("undead");
+        int merchant = table.intern("merchant");
+
+        assertEquals(monster, table.intern("monster"));
+        assertEquals(FactionRelation.ALLIED, table.getRelation(monster, undead));
+        assertEquals(FactionRelation.ALLIED, table.getRelation(undead, monster));
+        assertEquals(FactionRelation.NEUTRAL, table.getRelation(merchant, monster));
+        assertEquals(FactionRelation.HOSTILE, table.getRelation(undead, merchant));
+        assertEquals(FactionRelation.HOSTILE, table.getRelation(monster, table.intern("team-3")));
+        assertEquals(43, table.size());
+    }
+}
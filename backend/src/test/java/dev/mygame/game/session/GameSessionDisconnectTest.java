@@ -0,0 +1,146 @@
+package dev.mygame.game.session;
+
+import dev.mygame.config.StandartEntityGameSettings;
+import dev.mygame.domain.model.Entity;
+import dev.mygame.domain.model.Player;
+import dev.mygame.domain.model.map.Hex;
+import dev.mygame.domain.session.CombatInstance;
+import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionMailbox;
+import dev.mygame.game.map.MapFixtures;
+import dev.mygame.enums.EntityStateType;
+import dev.mygame.mapper.EntityMapperImpl;
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты хода в бою для игрока, отключившегося в ожидании переподключения.
+ */
+class GameSessionDisconnectTest {
+
+    private HashedWheelTimer timer;
+    private Player hero;
+    private Player ally;
+
+    @BeforeEach
+    void setUp() {
+        timer = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 64, "test-timer");
+        hero = createPlayer("hero", "ws-hero", new Hex(0, 0), 10);
+        ally = createPlayer("ally", "ws-ally", new Hex(1, 0), 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    private Player createPlayer(String id, String websocketSessionId, Hex position, int initiative) {
+        return Player.builder()
+                .id(id)
+                .name(id)
+                .userId("user-" + id)
+                .websocketSessionId(websocketSessionId)
+                .teamId(id)
+                .position(position)
+                .currentHp(10)
+                .maxHp(10)
+                .maxAP(6)
+                .initiative(initiative)
+                .abilities(new ArrayList<>())
+                .state(EntityStateType.EXPLORING)
+                .build();
+    }
+
+    private GameSession createSession(long graceMillis, long turnSkipMillis) {
+        StandartEntityGameSettings settings = new StandartEntityGameSettings();
+        settings.setDefaultEntityCurrentAp(4);
+
+        GameSession session = GameSession.builder()
+                .sessionID("session")
+                .timer(timer)
+                .mailbox(new SessionMailbox("session", Runnable::run))
+                .gameMap(MapFixtures.openField(3))
+                .standartEntityGameSettings(settings)
+                .entityMapper(new EntityMapperImpl())
+                .eventPublisher(event -> { })
+                .resumeGraceMillis(graceMillis)
+                .disconnectedTurnSkipMillis(turnSkipMillis)
+                .build();
+        run(session, () -> {
+            session.addEntity(hero);
+            session.addEntity(ally);
+            session.startCombat(List.of(hero, ally));
+        });
+        return session;
+    }
+
+    private static void run(GameSession session, Runnable command) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        session.submit(() -> {
+            command.run();
+            done.complete(null);
+        });
+        done.join();
+    }
+
+    private static <T> T query(GameSession session, Supplier<T> query) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        session.submit(() -> result.complete(query.get()));
+        return result.join();
+    }
+
+    private static boolean isCurrentTurn(GameSession session, Entity entity) {
+        return query(session, () -> {
+            CombatInstance combat = session.getCombatsByEntityId().get(entity.getId());
+            return combat != null && combat.isCurrentTurn(entity);
+        });
+    }
+
+    private static void awaitCondition(Supplier<Boolean> condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка: ход отключившегося игрока пропускается, бой не останавливается")
+    void turnOfDisconnectedPlayer_ShouldBeSkipped() throws InterruptedException {
+        GameSession session = createSession(60_000, 50);
+        assertTrue(isCurrentTurn(session, hero), "Первым ходит участник с большей инициативой");
+
+        run(session, () -> session.handlePlayerDisconnect("ws-ally"));
+        run(session, () -> session.endTurn(hero.getId()));
+
+        awaitCondition(() -> isCurrentTurn(session, hero), "Ход отключенного игрока должен быть пропущен");
+        assertNotNull(query(session, () -> session.getEntityById(ally.getId())),
+                "Игрок остается в сессии до конца окна переподключения");
+    }
+
+    @Test
+    @DisplayName("Проверка: при удалении не вернувшегося игрока его ход передается следующему")
+    void expiredPlayer_ShouldPassTurnBeforeRemoval() throws InterruptedException {
+        // пропуск хода отложен дольше окна переподключения: ход игрока застает истечение окна
+        GameSession session = createSession(100, 60_000);
+
+        run(session, () -> session.handlePlayerDisconnect("ws-ally"));
+        run(session, () -> session.endTurn(hero.getId()));
+        assertTrue(isCurrentTurn(session, ally), "Очередь дошла до отключенного игрока");
+
+        awaitCondition(() -> query(session, () -> session.getEntityById(ally.getId())) == null,
+                "Игрок должен быть удален по истечении окна переподключения");
+        assertTrue(isCurrentTurn(session, hero), "После удаления ход должен перейти к следующему участнику");
+    }
+}
@@ -0,0 +1,61 @@
+package dev.mygame.game.session;
+
+import dev.mygame.service.scheduling.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для игрового таймера на основе хэшированного колеса.
+ */
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        // маленькое колесо, чтобы проверить таймеры длиннее одного оборота
+        timer = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 8, "test-timer");
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    @DisplayName("Проверка: таймер срабатывает не раньше заданной задержки")
+    void newTimeout_ShouldFireAfterDelay() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.newTimeout(fired::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(fired.await(2, TimeUnit.SECONDS), "Таймер должен сработать");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 95, "Таймер сработал слишком рано: " + elapsedMs + " мс");
+    }
+
+    @Test
+    @DisplayName("Проверка: отмененный таймер не срабатывает")
+    void cancel_ShouldPreventExecution() throws InterruptedException {
+        AtomicBoolean executed = new AtomicBoolean(false);
+        CountDownLatch control = new CountDownLatch(1);
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> executed.set(true), 50, TimeUnit.MILLISECONDS);
+        timer.newTimeout(control::countDown, 150, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel(), "Таймер должен быть отменен");
+        assertTrue(control.await(2, TimeUnit.SECONDS), "Контрольный таймер должен сработать");
+        assertFalse(executed.get(), "Отмененный таймер не должен выполняться");
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, timer.getPendingTimeouts());
+    }
+}
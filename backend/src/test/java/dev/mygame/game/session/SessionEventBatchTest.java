@@ -0,0 +1,47 @@
+package dev.mygame.game.session;
+
+import dev.mygame.domain.session.SessionEventBatch;
+import dev.mygame.dto.websocket.event.CasterStateUpdatedEvent;
+import dev.mygame.dto.websocket.event.EntityStatsUpdatedEvent;
+import dev.mygame.dto.websocket.event.TeamUpdatedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты сбора и слияния событий одной команды сессии.
+ */
+class SessionEventBatchTest {
+
+    @Test
+    @DisplayName("Проверка: из повторных обновлений состояния остается последнее, остальные события сохраняются")
+    void drain_ShouldCoalesceStateUpdates_AndKeepOtherEvents() {
+        SessionEventBatch batch = new SessionEventBatch();
+        batch.open();
+        CasterStateUpdatedEvent firstCasterUpdate = CasterStateUpdatedEvent.builder().casterId("hero").newCurrentAP(4).build();
+        EntityStatsUpdatedEvent firstHit = EntityStatsUpdatedEvent.builder().targetEntityId("goblin").build();
+        EntityStatsUpdatedEvent secondHit = EntityStatsUpdatedEvent.builder().targetEntityId("goblin").build();
+        CasterStateUpdatedEvent lastCasterUpdate = CasterStateUpdatedEvent.builder().casterId("hero").newCurrentAP(2).build();
+        TeamUpdatedEvent teamUpdate = new TeamUpdatedEvent("team", Set.of("hero"));
+
+        batch.add(firstCasterUpdate);
+        batch.add(firstHit);
+        batch.add(teamUpdate);
+        batch.add(secondHit);
+        batch.add(lastCasterUpdate);
+
+        List<Object> events = batch.drain();
+
+        assertEquals(4, events.size());
+        assertSame(firstHit, events.get(0));
+        assertSame(teamUpdate, events.get(1));
+        assertSame(secondHit, events.get(2));
+        assertSame(lastCasterUpdate, events.get(3), "Должно остаться последнее состояние заклинателя");
+        assertTrue(batch.drain().isEmpty());
+        assertTrue(batch.isOpen());
+    }
+}
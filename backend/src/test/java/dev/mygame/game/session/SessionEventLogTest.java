@@ -0,0 +1,63 @@
+package dev.mygame.game.session;
+
+import dev.mygame.domain.session.GameSession;
+import dev.mygame.domain.session.SessionEventLog;
+import dev.mygame.dto.websocket.event.PlayerLeftEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты журнала событий сессии для досылки после переподключения.
+ */
+class SessionEventLogTest {
+
+    @Test
+    @DisplayName("Проверка: досылаются только события после номера клиента, по порядку")
+    void getEventsAfter_ShouldReturnMissedEventsInOrder() {
+        SessionEventLog log = new SessionEventLog(8);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, log.append("event-" + i));
+        }
+
+        List<SessionEventLog.SequencedEvent> missed = log.getEventsAfter(2);
+
+        assertEquals(List.of(3L, 4L, 5L), missed.stream().map(SessionEventLog.SequencedEvent::getSequence).toList());
+        assertEquals("event-3", missed.get(0).getPayload());
+        assertTrue(log.getEventsAfter(5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка: после вытеснения старых событий досылка с них невозможна")
+    void canReplayFrom_ShouldRejectEvictedSequences() {
+        SessionEventLog log = new SessionEventLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append("event-" + i);
+        }
+
+        assertEquals(7, log.getOldestSequence());
+        assertTrue(log.canReplayFrom(6));
+        assertFalse(log.canReplayFrom(5));
+        assertFalse(log.canReplayFrom(11), "Номер из будущего не может быть досылаемым");
+        assertEquals("event-7", log.getEventsAfter(6).get(0).getPayload());
+        assertThrows(IllegalArgumentException.class, () -> log.getEventsAfter(5));
+    }
+
+    @Test
+    @DisplayName("Проверка: событие без типа отклоняется до присвоения номера, пропуска в журнале нет")
+    void publishEvent_ShouldRejectUnmappedEvent_BeforeSequencing() {
+        GameSession session = GameSession.builder()
+                .sessionID("session")
+                .eventPublisher(event -> { })
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> session.publishEvent(new Object()));
+        assertEquals(0, session.getEventLog().getLastSequence());
+
+        session.publishEvent(new PlayerLeftEvent("player"));
+        assertEquals(1, session.getEventLog().getLastSequence());
+    }
+}
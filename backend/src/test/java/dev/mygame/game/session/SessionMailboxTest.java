@@ -0,0 +1,91 @@
+package dev.mygame.game.session;
+
+import dev.mygame.domain.session.SessionMailbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты для очереди команд игровой сессии.
+ */
+class SessionMailboxTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Проверка: команды одной сессии выполняются по одной и в порядке постановки")
+    void submit_ShouldRunCommandsSeriallyInOrder() throws InterruptedException {
+        SessionMailbox mailbox = new SessionMailbox("test", executor, 8);
+        int commandsCount = 10_000;
+        List<Integer> executionOrder = new ArrayList<>();
+        AtomicInteger concurrentRuns = new AtomicInteger();
+        AtomicInteger maxConcurrentRuns = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(commandsCount);
+
+        for (int i = 0; i < commandsCount; i++) {
+            int commandNumber = i;
+            mailbox.submit(() -> {
+                int running = concurrentRuns.incrementAndGet();
+                maxConcurrentRuns.accumulateAndGet(running, Math::max);
+                executionOrder.add(commandNumber);
+                concurrentRuns.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Все команды должны быть выполнены");
+        assertEquals(1, maxConcurrentRuns.get(), "Команды одной сессии не должны выполняться параллельно");
+        for (int i = 0; i < commandsCount; i++) {
+            assertEquals(i, executionOrder.get(i), "Порядок выполнения должен совпадать с порядком постановки");
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка: ошибка в команде не останавливает очередь")
+    void submit_ShouldContinue_WhenCommandThrows() throws InterruptedException {
+        SessionMailbox mailbox = new SessionMailbox("test", executor);
+        CountDownLatch done = new CountDownLatch(1);
+
+        mailbox.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        mailbox.submit(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Команда после упавшей должна быть выполнена");
+    }
+
+    @Test
+    @DisplayName("Проверка: Error в команде тоже не останавливает очередь")
+    void submit_ShouldContinue_WhenCommandThrowsError() throws InterruptedException {
+        SessionMailbox mailbox = new SessionMailbox("test", executor);
+        CountDownLatch done = new CountDownLatch(1);
+
+        mailbox.submit(() -> {
+            throw new AssertionError("boom");
+        });
+        mailbox.submit(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Команда после упавшей с Error должна быть выполнена");
+    }
+}
@@ -0,0 +1,78 @@
+package dev.mygame.game.session;
+
+import dev.mygame.domain.session.SessionStateTracker;
+import dev.mygame.dto.websocket.event.EntityMovedEvent;
+import dev.mygame.dto.websocket.event.TeamMembersChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты версионирования состояния сессии для дельта-синхронизации.
+ */
+class SessionStateTrackerTest {
+
+    @Test
+    @DisplayName("Проверка: дельта содержит только сущности, изменившиеся после версии клиента")
+    void getChangedEntityIds_ShouldReturnEntitiesChangedAfterVersion() {
+        SessionStateTracker tracker = new SessionStateTracker();
+        tracker.markEntityAdded("a");
+        tracker.markEntityAdded("b");
+        long clientVersion = tracker.getVersion();
+
+        tracker.onEvent(EntityMovedEvent.builder().entityId("b").build());
+
+        assertTrue(tracker.canSendDelta(clientVersion));
+        assertEquals(List.of("b"), tracker.getChangedEntityIds(clientVersion));
+        assertTrue(tracker.getRemovedEntityIds(clientVersion).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка: удаленная сущность не возвращается событием о ней")
+    void markEntityRemoved_ShouldNotBeUndoneByLaterEvents() {
+        SessionStateTracker tracker = new SessionStateTracker();
+        tracker.markEntityAdded("player");
+        long clientVersion = tracker.getVersion();
+
+        tracker.markEntityRemoved("player");
+        tracker.onEvent(new TeamMembersChangedEvent("team", Set.of(), Set.of("player")));
+
+        assertTrue(tracker.getChangedEntityIds(clientVersion).isEmpty());
+        assertEquals(List.of("player"), tracker.getRemovedEntityIds(clientVersion));
+    }
+
+    @Test
+    @DisplayName("Проверка: при большом отставании и без снимка отправляется полное состояние")
+    void canSendDelta_ShouldRejectUnknownOrStaleVersions() {
+        SessionStateTracker tracker = new SessionStateTracker();
+        tracker.markEntityAdded("a");
+        long clientVersion = tracker.getVersion();
+        for (int i = 0; i < SessionStateTracker.MAX_DELTA_GAP + 1; i++) {
+            tracker.markEntityChanged("a");
+        }
+
+        assertFalse(tracker.canSendDelta(0));
+        assertFalse(tracker.canSendDelta(clientVersion));
+        assertFalse(tracker.canSendDelta(tracker.getVersion() + 1));
+        assertTrue(tracker.canSendDelta(tracker.getVersion()));
+    }
+
+    @Test
+    @DisplayName("Проверка: изменение рельефа после версии клиента попадает в дельту")
+    void observeTerrain_ShouldMarkTerrainChange() {
+        SessionStateTracker tracker = new SessionStateTracker();
+        tracker.markEntityAdded("a");
+        tracker.observeTerrain(5);
+        long clientVersion = tracker.getVersion();
+
+        tracker.observeTerrain(5);
+        assertFalse(tracker.isTerrainChangedSince(clientVersion));
+
+        tracker.observeTerrain(6);
+        assertTrue(tracker.isTerrainChangedSince(clientVersion));
+    }
+}
@@ -0,0 +1,72 @@
+package dev.mygame.game.session;
+
+import dev.mygame.service.scheduling.ShardedScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Юнит-тесты шардированного планировщика игровых сессий.
+ */
+class ShardedSchedulerTest {
+
+    private ShardedScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ShardedScheduler(4, "test-shard-");
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Проверка: сессия всегда попадает в один и тот же шард")
+    void shardFor_ShouldReturnSameShard_ForSameKey() {
+        for (int i = 0; i < 100; i++) {
+            String sessionId = UUID.randomUUID().toString();
+            int shardIndex = scheduler.shardIndexFor(sessionId);
+
+            assertTrue(shardIndex >= 0 && shardIndex < scheduler.getShardCount());
+            assertEquals(shardIndex, scheduler.shardIndexFor(new String(sessionId)));
+            assertSame(scheduler.shardFor(sessionId), scheduler.shardFor(sessionId));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка: задачи одного шарда выполняются в одном потоке в порядке постановки")
+    void shardFor_ShouldRunTasksInSubmissionOrder() throws InterruptedException {
+        ScheduledExecutorService shard = scheduler.shardFor("session-1");
+        int tasksCount = 1_000;
+        List<Integer> executionOrder = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(tasksCount);
+
+        for (int i = 0; i < tasksCount; i++) {
+            int taskNumber = i;
+            shard.execute(() -> {
+                executionOrder.add(taskNumber);
+                threads.add(Thread.currentThread());
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Все задачи должны быть выполнены");
+        for (int i = 0; i < tasksCount; i++) {
+            assertEquals(i, executionOrder.get(i), "Порядок выполнения должен совпадать с порядком постановки");
+        }
+        assertEquals(1, threads.stream().distinct().count(), "Задачи шарда должны выполняться в одном потоке");
+    }
+}
@@ -1,5 +1,6 @@
-import { useEffect, useState, type FC } from 'react';
-import { connect, disconnect, publish, subscribe } from './api/websocketService';
+import { useEffect, useRef, useState, type FC } from 'react';
+import { rememberEntityHandles } from './api/binaryProtocol';
+import { connect, disconnect, publish, setResumeToken, subscribe } from './api/websocketService';
 import AbilityBar from './components/AbilityBar';
 import CombatOutcomeNotification from './components/CombatOutcomeNotification';
 import GameCanvas from './components/GameCanvas';
@@ -26,7 +27,9 @@ import type {
     EntityStatsUpdatedEvent,
     EntityTurnEndedEvent,
     ErrorEvent,
+    EventReplayDto,
     GameSessionStateDto,
+    SessionStateDeltaDto,
     GameUpdatePayload,
     JoinRequest,
     PeaceProposalEvent,
@@ -34,6 +37,7 @@ import type {
     PlayerClassTemplateDto,
     PlayerLeftEvent,
     TeamInviteEvent,
+    TeamMembersChangedEvent,
     TeamUpdatedEvent
 } from './types/dto';
 
@@ -45,6 +49,14 @@ const Game: FC = () => {
     const [isConnectedToServer, setIsConnectedToServer] = useState<boolean>(false);
     const [joinSessionId, setJoinSessionId] = useState<string>('');
 
+    // номера событий сессии: последнее примененное и наибольшее полученное
+    const lastEventSeqRef = useRef<number>(0);
+    const highestEventSeqRef = useRef<number>(0);
+    const replayPendingRef = useRef<boolean>(false);
+    const eventSessionIdRef = useRef<string | null>(null);
+    const stateVersionRef = useRef<number>(0);
+    stateVersionRef.current = gameState.version;
+
     const player = gameState.entities.find(e => e.id === gameState.yourPlayerId);
     const teamMembers = player ? gameState.entities.filter(e => e.teamId === player.teamId) : [];
     const teamCompositionKey = teamMembers.map(m => m.id).sort().join(',');
@@ -96,11 +108,13 @@ const Game: FC = () => {
                 }
             );
 
-            subscribe<{ status: string; message?: string }>(
+            subscribe<{ status: string; message?: string; resumeToken?: string }>(
                 '/user/queue/join-session-response',
                 (response) => {
                     if (response.status !== 'success') {
                         setErrorMessage(response.message || 'Failed to join session.');
+                    } else if (response.resumeToken) {
+                        setResumeToken(response.resumeToken);
                     }
                 }
             );
@@ -146,7 +160,8 @@ const Game: FC = () => {
                             break;
                         }
                     }
-                }
+                },
+                true
             );
             
         };
@@ -157,7 +172,12 @@ const Game: FC = () => {
             setErrorMessage('Failed to connect to the server. Please refresh.');
         };
 
-        connect(onStompConnect, onError);
+        // при обрыве клиент переподключается сам; подписки сессии оформляются заново после onConnect
+        const onClose = () => {
+            setIsConnectedToServer(false);
+        };
+
+        connect(onStompConnect, onError, onClose);
 
         return () => {
             disconnect();
@@ -169,11 +189,130 @@ const Game: FC = () => {
 
         //console.log(`Subscribing to session-specific topics for session: ${sessionId}`);
 
+        if (eventSessionIdRef.current !== sessionId) {
+            eventSessionIdRef.current = sessionId;
+            lastEventSeqRef.current = 0;
+            highestEventSeqRef.current = 0;
+        }
+        replayPendingRef.current = false;
+
+        const requestReplay = () => {
+            if (replayPendingRef.current) return;
+            replayPendingRef.current = true;
+            publish(`/app/session/${sessionId}/replay-events`, {
+                sinceSequence: lastEventSeqRef.current,
+                lastVersion: stateVersionRef.current,
+            });
+        };
+
+        // после снимка, изменений или досылки догоняем события, пришедшие с пропуском
+        const onSequenceSynced = (lastSequence: number) => {
+            replayPendingRef.current = false;
+            lastEventSeqRef.current = Math.max(lastEventSeqRef.current, lastSequence);
+            if (highestEventSeqRef.current > lastEventSeqRef.current) {
+                requestReplay();
+            }
+        };
+
+        const applyGameUpdate = (update: GameUpdatePayload<any>) => {
+            setErrorMessage('');
+
+            switch (update.actionType) {
+                case 'entity_moved':
+                    dispatch({ type: 'ENTITY_MOVED', payload: update.payload as EntityMovedEvent });
+                    break;
+                case 'entity_attack':
+                    dispatch({ type: 'ENTITY_ATTACKED', payload: update.payload as EntityAttackEvent });
+                    break;
+                case 'entity_stats_updated':
+                    dispatch({ type: 'ENTITY_TOOK_DAMAGE', payload: update.payload as EntityStatsUpdatedEvent });
+                    break;
+                case 'player_joined':
+                    dispatch({ type: 'ADD_NEW_ENTITY', payload: update.payload.player });
+                    break;
+                case 'player_left':
+                    dispatch({ type: 'REMOVE_ENTITY', payload: update.payload as PlayerLeftEvent });
+                    break;
+                case 'combat_started':
+                    dispatch({ type: 'COMBAT_STARTED', payload: update.payload as CombatStartedEvent });
+                    break;
+                case 'combat_next_turn':
+                    dispatch({ type: 'NEXT_TURN', payload: update.payload as CombatNextTurnEvent });
+                    break;
+                case 'combat_participants_joined':
+                    dispatch({ type: 'COMBAT_PARTICIPANTS_JOINED', payload: update.payload as CombatParticipantsJoinedEvent });
+                    break;
+                case 'combat_ended':
+                    dispatch({ type: 'COMBAT_ENDED', payload: update.payload as CombatEndedEvent });
+                    break;
+                case 'caster_state_updated':
+                    dispatch({ type: 'CASTER_STATE_UPDATED', payload: update.payload as CasterStateUpdatedEvent });
+                    break;
+                
+                case 'ability_casted':
+                    dispatch({ type: 'ABILITY_CASTED', payload: update.payload as AbilityCastedEvent });
+                    break;
+                case 'team_updated':
+                    dispatch({ type: 'TEAM_UPDATED', payload: update.payload as TeamUpdatedEvent });
+                    break;
+                case 'team_members_changed':
+                    dispatch({ type: 'TEAM_MEMBERS_CHANGED', payload: update.payload as TeamMembersChangedEvent });
+                    break;
+                case 'player_left':
+                    dispatch({ type: 'REMOVE_ENTITY', payload: update.payload as PlayerLeftEvent });
+                    break;
+                case 'entity_turn_ended':
+                dispatch({ type: 'ENTITY_TURN_ENDED', payload: update.payload as EntityTurnEndedEvent });
+                    break;
+                case 'entity_died':
+                    dispatch({ type: 'ENTITY_DIED', payload: update.payload as EntityDiedEvent });
+                    break;
+            }
+        };
+
+        // события применяются строго по порядку номеров: повторы отбрасываются, при пропуске запрашивается досылка
+        const applySequencedUpdate = (update: GameUpdatePayload<any>) => {
+            if (update.seq !== undefined) {
+                if (update.seq <= lastEventSeqRef.current) return;
+                highestEventSeqRef.current = Math.max(highestEventSeqRef.current, update.seq);
+                if (lastEventSeqRef.current > 0 && update.seq > lastEventSeqRef.current + 1) {
+                    requestReplay();
+                    return;
+                }
+                lastEventSeqRef.current = update.seq;
+            }
+            applyGameUpdate(update);
+        };
+
         const initialStateSubscription = subscribe<GameSessionStateDto>(
             `/user/queue/session/${sessionId}/state`, 
             (state) => {
                 //console.log('Received initial game state:', state);
+                rememberEntityHandles(state.entities);
                 dispatch({ type: 'SET_INITIAL_STATE', payload: state });
+                lastEventSeqRef.current = state.lastEventSequence;
+                onSequenceSynced(state.lastEventSequence);
+            }
+        );
+
+        const stateDeltaSubscription = subscribe<SessionStateDeltaDto>(
+            `/user/queue/session/${sessionId}/state-delta`,
+            (delta) => {
+                rememberEntityHandles(delta.entities);
+                dispatch({ type: 'APPLY_STATE_DELTA', payload: delta });
+                onSequenceSynced(delta.lastEventSequence);
+            }
+        );
+
+        const eventReplaySubscription = subscribe<EventReplayDto>(
+            `/user/queue/session/${sessionId}/event-replay`,
+            (replay) => {
+                replay.events.forEach((update) => {
+                    if (update.seq !== undefined && update.seq <= lastEventSeqRef.current) return;
+                    lastEventSeqRef.current = update.seq ?? lastEventSeqRef.current;
+                    applyGameUpdate(update);
+                });
+                onSequenceSynced(replay.lastSequence);
             }
         );
 
@@ -181,73 +320,27 @@ const Game: FC = () => {
             `/topic/session/${sessionId}/game-updates`, 
             (update) => {
                 //console.log(`%c[CLIENT] Received event: ${update.actionType}`, 'color: purple; font-weight: bold;', update.payload);
-
-                if (update.actionType === 'entity_moved') {
-                    //const payload = update.payload as EntityMovedEvent;
-                    //console.log(`%c    Moved entity ${payload.entityId} to new position: (${payload.newPosition.q},${payload.newPosition.r})`, 'color: #2c3e50;');
-                }
-
-                if (update.actionType === 'combat_started') {
-                    //const payload = update.payload as CombatStartedEvent;
-                    //console.log(`%c    Combat has started! ID: ${payload.combatId}. Initial turn order:`, 'color: red; font-weight: bold;', payload.initialTurnOrder);
+                // события одной команды сервера приходят одним сообщением
+                if (update.actionType === 'batch') {
+                    (update.payload as GameUpdatePayload<any>[]).forEach(applySequencedUpdate);
+                    return;
                 }
-                setErrorMessage('');
-
-                switch (update.actionType) {
-                    case 'entity_moved':
-                        dispatch({ type: 'ENTITY_MOVED', payload: update.payload as EntityMovedEvent });
-                        break;
-                    case 'entity_attack':
-                        dispatch({ type: 'ENTITY_ATTACKED', payload: update.payload as EntityAttackEvent });
-                        break;
-                    case 'entity_stats_updated':
-                        dispatch({ type: 'ENTITY_TOOK_DAMAGE', payload: update.payload as EntityStatsUpdatedEvent });
-                        break;
-                    case 'player_joined':
-                        dispatch({ type: 'ADD_NEW_ENTITY', payload: update.payload.player });
-                        break;
-                    case 'player_left':
-                        dispatch({ type: 'REMOVE_ENTITY', payload: update.payload as PlayerLeftEvent });
-                        break;
-                    case 'combat_started':
-                        dispatch({ type: 'COMBAT_STARTED', payload: update.payload as CombatStartedEvent });
-                        break;
-                    case 'combat_next_turn':
-                        dispatch({ type: 'NEXT_TURN', payload: update.payload as CombatNextTurnEvent });
-                        break;
-                    case 'combat_participants_joined':
-                        dispatch({ type: 'COMBAT_PARTICIPANTS_JOINED', payload: update.payload as CombatParticipantsJoinedEvent });
-                        break;
-                    case 'combat_ended':
-                        dispatch({ type: 'COMBAT_ENDED', payload: update.payload as CombatEndedEvent });
-                        break;
-                    case 'caster_state_updated':
-                        dispatch({ type: 'CASTER_STATE_UPDATED', payload: update.payload as CasterStateUpdatedEvent });
-                        break;
-                    
-                    case 'ability_casted':
-                        dispatch({ type: 'ABILITY_CASTED', payload: update.payload as AbilityCastedEvent });
-                        break;
-                    case 'team_updated':
-                        dispatch({ type: 'TEAM_UPDATED', payload: update.payload as TeamUpdatedEvent });
-                        break;
-                    case 'player_left':
-                        dispatch({ type: 'REMOVE_ENTITY', payload: update.payload as PlayerLeftEvent });
-                        break;
-                    case 'entity_turn_ended':
-                    dispatch({ type: 'ENTITY_TURN_ENDED', payload: update.payload as EntityTurnEndedEvent });
-                        break;
-                    case 'entity_died':
-                        dispatch({ type: 'ENTITY_DIED', payload: update.payload as EntityDiedEvent });
-                        break;
-                }
-            }
+                applySequencedUpdate(update);
+            },
+            true
         );
+
+        // переподключение к уже открытой сессии: досылаем только пропущенные события
+        if (lastEventSeqRef.current > 0) {
+            requestReplay();
+        }
         
         publish('/app/join-session', { sessionId: sessionId });
 
         return () => {
             initialStateSubscription?.unsubscribe();
+            stateDeltaSubscription?.unsubscribe();
+            eventReplaySubscription?.unsubscribe();
             updatesSubscription?.unsubscribe();
         };
 
@@ -272,7 +365,8 @@ const Game: FC = () => {
                 //console.log('Tab became visible. Requesting state sync.');
                 
                 if (isConnectedToServer && sessionId) {
-                    publish(`/app/session/${sessionId}/request-state`, {});
+                    // сервер ответит изменениями после известной версии или полным снимком
+                    publish(`/app/session/${sessionId}/request-state`, { lastVersion: gameState.version });
                 }
             }
         };
@@ -280,7 +374,7 @@ const Game: FC = () => {
         return () => {
             document.removeEventListener('visibilitychange', handleVisibilityChange);
         };
-    }, [isConnectedToServer, sessionId]);
+    }, [isConnectedToServer, sessionId, gameState.version]);
 
     const handleCreateGame = () => {
         if (isConnectedToServer && !isLobbyFormInvalid) {
@@ -0,0 +1,199 @@
+import type { AbilityStateDto, GameUpdatePayload, Hex } from '../types/dto';
+
+/**
+ * Значение заголовка content-type подписки, запрашивающее у сервера двоичный формат событий.
+ * Схема кадра описана в WireProtocolCodec на сервере.
+ */
+export const BINARY_CONTENT_TYPE = 'application/x-dungeon-events';
+
+const PROTOCOL_VERSION = 1;
+
+const TAG_JSON = 0;
+const TAG_ENTITY_MOVED = 1;
+const TAG_ENTITY_ATTACK = 2;
+const TAG_ENTITY_STATS_UPDATED = 3;
+const TAG_CASTER_STATE_UPDATED = 4;
+const TAG_COMBAT_NEXT_TURN = 5;
+const TAG_ENTITY_TURN_ENDED = 6;
+const TAG_ENTITY_DIED = 7;
+const TAG_ABILITY_CASTED = 8;
+
+// дескриптор сущности в сессии -> её ID; дескрипторы не переиспользуются, поэтому записи не устаревают
+const entityIdsByHandle = new Map<number, string>();
+
+/**
+ * Запоминает дескрипторы сущностей из состояния сессии, чтобы раскрывать их в двоичных событиях.
+ */
+export const rememberEntityHandles = (entities: { id: string; handle: number }[]) => {
+    for (const entity of entities) {
+        if (entity.handle > 0) {
+            entityIdsByHandle.set(entity.handle, entity.id);
+        }
+    }
+};
+
+const textDecoder = new TextDecoder();
+
+class BinaryReader {
+    private readonly bytes: Uint8Array;
+    private pos = 0;
+
+    constructor(bytes: Uint8Array) {
+        this.bytes = bytes;
+    }
+
+    byte(): number {
+        return this.bytes[this.pos++];
+    }
+
+    // без побитовых операций: они обрезают числа до 32 бит
+    varint(): number {
+        let result = 0;
+        let multiplier = 1;
+        let b: number;
+        do {
+            b = this.bytes[this.pos++];
+            result += (b & 0x7f) * multiplier;
+            multiplier *= 128;
+        } while (b & 0x80);
+        return result;
+    }
+
+    zigzag(): number {
+        const n = this.varint();
+        return n % 2 === 0 ? n / 2 : -(n + 1) / 2;
+    }
+
+    bytesField(): Uint8Array | null {
+        const length = this.varint();
+        if (length === 0) return null;
+        const slice = this.bytes.subarray(this.pos, this.pos + length - 1);
+        this.pos += length - 1;
+        return slice;
+    }
+
+    string(): string | null {
+        const bytes = this.bytesField();
+        return bytes === null ? null : textDecoder.decode(bytes);
+    }
+
+    entity(): string {
+        const handle = this.varint();
+        if (handle === 0) return this.string() ?? '';
+        return entityIdsByHandle.get(handle) ?? `#${handle}`;
+    }
+
+    hex(): Hex {
+        return { q: this.zigzag(), r: this.zigzag() };
+    }
+
+    path(): Hex[] {
+        const count = this.varint();
+        const path: Hex[] = [];
+        let q = 0;
+        let r = 0;
+        for (let i = 0; i < count; i++) {
+            q += this.zigzag();
+            r += this.zigzag();
+            path.push({ q, r });
+        }
+        return path;
+    }
+
+    cooldowns(): AbilityStateDto[] {
+        const count = this.varint();
+        const cooldowns: AbilityStateDto[] = [];
+        for (let i = 0; i < count - 1; i++) {
+            cooldowns.push({
+                abilityTemplateId: this.string() ?? '',
+                turnCooldown: this.zigzag(),
+                cooldownEndTime: this.zigzag(),
+            });
+        }
+        return cooldowns;
+    }
+}
+
+const readRecord = (reader: BinaryReader): GameUpdatePayload<any> => {
+    const tag = reader.varint();
+    const seq = reader.varint() || undefined;
+
+    switch (tag) {
+        case TAG_ENTITY_MOVED: {
+            const entityId = reader.entity();
+            const flags = reader.byte();
+            const newPosition = flags & 1 ? reader.hex() : null;
+            const currentAP = reader.zigzag();
+            const pathToAnimate = flags & 4 ? reader.path() : null;
+            return { actionType: 'entity_moved', seq, payload: { entityId, newPosition, currentAP, pathToAnimate, reachedTarget: (flags & 2) !== 0 } };
+        }
+        case TAG_ENTITY_ATTACK:
+            return {
+                actionType: 'entity_attack', seq,
+                payload: { attackerEntityId: reader.entity(), targetEntityId: reader.entity(), damageCaused: reader.zigzag(), attackerCurrentAP: reader.zigzag() },
+            };
+        case TAG_ENTITY_STATS_UPDATED: {
+            const targetEntityId = reader.entity();
+            const absorbedByArmor = reader.zigzag();
+            const damageToHp = reader.zigzag();
+            const currentHp = reader.zigzag();
+            const currentDefense = reader.zigzag();
+            const flags = reader.byte();
+            const healToHp = flags & 2 ? reader.zigzag() : null;
+            return {
+                actionType: 'entity_stats_updated', seq,
+                payload: { targetEntityId, absorbedByArmor, damageToHp, currentHp, currentDefense, dead: (flags & 1) !== 0, healToHp },
+            };
+        }
+        case TAG_CASTER_STATE_UPDATED:
+            return {
+                actionType: 'caster_state_updated', seq,
+                payload: { casterId: reader.entity(), newCurrentAP: reader.zigzag(), abilityCooldowns: reader.cooldowns() },
+            };
+        case TAG_COMBAT_NEXT_TURN:
+            return {
+                actionType: 'combat_next_turn', seq,
+                payload: { combatId: reader.string(), currentTurnEntityId: reader.entity(), currentAP: reader.zigzag(), abilityCooldowns: reader.cooldowns() },
+            };
+        case TAG_ENTITY_TURN_ENDED:
+            return { actionType: 'entity_turn_ended', seq, payload: { currentTurnEntityId: reader.entity() } };
+        case TAG_ENTITY_DIED:
+            return { actionType: 'entity_died', seq, payload: { entityId: reader.entity() } };
+        case TAG_ABILITY_CASTED: {
+            const casterId = reader.entity();
+            const abilityTemplateId = reader.string();
+            const targetHex = reader.byte() ? reader.hex() : null;
+            return { actionType: 'ability_casted', seq, payload: { casterId, abilityTemplateId, targetHex } };
+        }
+        case TAG_JSON: {
+            const actionType = reader.string() ?? '';
+            const json = reader.string();
+            const payload = json === null ? null : JSON.parse(json);
+            // новая сущность может упоминаться дескриптором уже в следующих записях этого же кадра
+            if (actionType === 'player_joined' && payload?.player) {
+                rememberEntityHandles([payload.player]);
+            }
+            return { actionType, seq, payload };
+        }
+        default:
+            throw new Error(`Unknown binary event tag: ${tag}`);
+    }
+};
+
+/**
+ * Декодирует двоичный кадр событий в ту же обертку, что приходит в JSON:
+ * одно событие - как есть, несколько - как событие 'batch' с массивом оберток.
+ */
+export const decodeFrame = (bytes: Uint8Array): GameUpdatePayload<any> => {
+    const reader = new BinaryReader(bytes);
+    const version = reader.byte();
+    if (version !== PROTOCOL_VERSION) {
+        throw new Error(`Unsupported binary protocol version: ${version}`);
+    }
+    const count = reader.varint();
+    const records: GameUpdatePayload<any>[] = [];
+    for (let i = 0; i < count; i++) {
+        records.push(readRecord(reader));
+    }
+    return records.length === 1 ? records[0] : { actionType: 'batch', payload: records };
+};
@@ -1,18 +1,42 @@
 import { Client, type IFrame, type IMessage } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { BINARY_CONTENT_TYPE, decodeFrame } from './binaryProtocol';
 
 export let stompClient: Client | null = null;
 const WEBSOCKET_URL = import.meta.env.VITE_WEBSOCKET_URL || 'http://localhost:8080/gs-websocket';
+// SockJS передает только текстовые кадры, поэтому двоичный протокол работает через нативный WebSocket
+const NATIVE_WEBSOCKET_URL = import.meta.env.VITE_NATIVE_WEBSOCKET_URL || 'ws://localhost:8080/gs-websocket-native';
+
+/**
+ * Получать события сессии в компактном двоичном формате вместо JSON (VITE_WIRE_PROTOCOL=binary).
+ */
+export const useBinaryProtocol = import.meta.env.VITE_WIRE_PROTOCOL === 'binary';
+// токен восстановления: при переподключении сервер узнает по нему пользователя и возвращает его сущность
+let resumeToken: string | null = null;
+
+/**
+ * Запоминает токен восстановления, выданный сервером при входе в сессию.
+ * Используется при всех следующих (пере)подключениях.
+ */
+export const setResumeToken = (token: string | null) => {
+    resumeToken = token;
+};
+
+const buildWebSocketUrl = (baseUrl: string) =>
+    resumeToken ? `${baseUrl}?resumeToken=${encodeURIComponent(resumeToken)}` : baseUrl;
 
 export const connect = (
     onStompConnectCallback: (frame: IFrame) => void,
-    onErrorCallback: (error: any) => void
+    onErrorCallback: (error: any) => void,
+    onCloseCallback?: () => void
 ) => {
 
     if (stompClient?.active) return;
 
     stompClient = new Client({
-        webSocketFactory: () => new SockJS(WEBSOCKET_URL),
+        webSocketFactory: () => useBinaryProtocol
+            ? new WebSocket(buildWebSocketUrl(NATIVE_WEBSOCKET_URL))
+            : new SockJS(buildWebSocketUrl(WEBSOCKET_URL)),
         
         //debug: (str) => console.log('STOMP Debug:', str),
         reconnectDelay: 5000,
@@ -21,6 +45,9 @@ export const connect = (
     stompClient.onConnect = onStompConnectCallback;
     stompClient.onStompError = onErrorCallback;
     stompClient.onWebSocketError = onErrorCallback;
+    if (onCloseCallback) {
+        stompClient.onWebSocketClose = onCloseCallback;
+    }
 
     stompClient.activate();
 };
@@ -40,10 +67,16 @@ export const disconnect = () => {
  * Подписывается на указанный STOMP-топик.
  * @param topic - Адрес топика (например, '/topic/session/123/updates').
  * @param callback - Функция, которая будет вызвана при получении сообщения.
+ * @param binary - Запросить события сессии в двоичном формате (если он включен, см. useBinaryProtocol).
  * @returns Объект подписки, который можно использовать для отписки.
  */
-export const subscribe = <T>(topic: string, callback: (payload: T) => void) => {
+export const subscribe = <T>(topic: string, callback: (payload: T) => void, binary = false) => {
     if (stompClient && stompClient.connected) {
+        if (binary && useBinaryProtocol) {
+            return stompClient.subscribe(topic, (message: IMessage) => {
+                callback(decodeFrame(message.binaryBody) as T);
+            }, { 'content-type': BINARY_CONTENT_TYPE });
+        }
         return stompClient.subscribe(topic, (message: IMessage) => {
             callback(JSON.parse(message.body) as T);
         });
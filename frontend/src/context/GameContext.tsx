@@ -1,6 +1,7 @@
 import React, { createContext, useReducer, type Dispatch, useContext, useState } from 'react';
 import {
     type GameSessionStateDto,
+    type SessionStateDeltaDto,
     type EntityStatsUpdatedEvent,
     type EntityMovedEvent,
     type PlayerLeftEvent,
@@ -20,6 +21,7 @@ import {
     type CombatParticipantsJoinedEvent,
     type TeamInviteEvent,
     type TeamUpdatedEvent,
+    type TeamMembersChangedEvent,
     type AbilityTemplateDto,
     type EntityTurnEndedEvent,
     type EntityDiedEvent,
@@ -57,6 +59,7 @@ export interface NotificationState {
 
 const initialState: ExtendedGameSessionState = {
     sessionId: '',
+    version: 0,
     yourPlayerId: '',
     mapState: {
         tiles: [],
@@ -85,6 +88,7 @@ const initialState: ExtendedGameSessionState = {
 
 type GameAction =
     | { type: 'SET_INITIAL_STATE'; payload: GameSessionStateDto }
+    | { type: 'APPLY_STATE_DELTA'; payload: SessionStateDeltaDto }
     | { type: 'ENTITY_MOVED'; payload: EntityMovedEvent }
     | { type: 'ENTITY_ATTACKED'; payload: EntityAttackEvent }
     | { type: 'ENTITY_TOOK_DAMAGE'; payload: EntityStatsUpdatedEvent } 
@@ -109,6 +113,7 @@ type GameAction =
     | { type: 'TEAM_INVITE_RECEIVED'; payload: TeamInviteEvent }
     | { type: 'CLEAR_TEAM_INVITE' }
     | { type: 'TEAM_UPDATED'; payload: TeamUpdatedEvent }
+    | { type: 'TEAM_MEMBERS_CHANGED'; payload: TeamMembersChangedEvent }
     | { type: 'OPEN_CONTEXT_MENU'; payload: { x: number; y: number; targetPlayer: PlayerStateDto } }
     | { type: 'CLOSE_CONTEXT_MENU' }
     | { type: 'SET_ABILITY_TEMPLATES'; payload: AbilityTemplateDto[] }
@@ -149,6 +154,29 @@ const gameReducer = (state: ExtendedGameSessionState, action: GameAction): Exten
     switch (action.type) {
         case 'SET_INITIAL_STATE':
             return { ...state, ...action.payload };
+
+        case 'APPLY_STATE_DELTA': {
+            const { version, entities: changed, removedEntityIds, mapState } = action.payload;
+            const changedById = new Map(changed.map(entity => [entity.id, entity]));
+            const removedIdSet = new Set(removedEntityIds);
+
+            const updatedEntities = state.entities
+                .filter(entity => !removedIdSet.has(entity.id))
+                .map(entity => changedById.get(entity.id) ?? entity);
+            const knownIds = new Set(updatedEntities.map(entity => entity.id));
+            changed.forEach(entity => {
+                if (!knownIds.has(entity.id)) {
+                    updatedEntities.push(entity);
+                }
+            });
+
+            return {
+                ...state,
+                version: version,
+                entities: updatedEntities,
+                mapState: mapState ?? state.mapState,
+            };
+        }
         
         case 'ENTITY_MOVED':
             return {
@@ -439,6 +467,26 @@ const gameReducer = (state: ExtendedGameSessionState, action: GameAction): Exten
                 entities: updatedEntities,
             };
         }
+        case 'TEAM_MEMBERS_CHANGED': {
+            const { teamId, addedMemberIds, removedMemberIds } = action.payload;
+            const addedIdSet = new Set(addedMemberIds);
+            const removedIdSet = new Set(removedMemberIds);
+
+            const updatedEntities = state.entities.map(entity => {
+                if (addedIdSet.has(entity.id)) {
+                    return { ...entity, teamId: teamId };
+                }
+                if (removedIdSet.has(entity.id) && entity.teamId === teamId) {
+                    return { ...entity, teamId: entity.id };
+                }
+                return entity;
+            });
+
+            return {
+                ...state,
+                entities: updatedEntities,
+            };
+        }
         case 'OPEN_CONTEXT_MENU':
             return {
                 ...state,
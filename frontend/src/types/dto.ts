@@ -56,6 +56,7 @@ export interface MapStateDto {
  */
 export interface EntityStateDto {
     id: string;
+    handle: number;
     name: string;
     position: Hex;
     currentHp: number;
@@ -92,11 +93,23 @@ export interface MonsterStateDto extends EntityStateDto {
  */
 export interface GameSessionStateDto {
     sessionId: string;
+    version: number;
+    lastEventSequence: number;
     yourPlayerId: string;
     mapState: MapStateDto;
     entities: (PlayerStateDto | MonsterStateDto)[];
 }
 
+export interface SessionStateDeltaDto {
+    sessionId: string;
+    fromVersion: number;
+    version: number;
+    lastEventSequence: number;
+    entities: (PlayerStateDto | MonsterStateDto)[];
+    removedEntityIds: string[];
+    mapState: MapStateDto | null;
+}
+
 
 // =================================================================
 // WebSocket Event Payloads (Данные для событий WebSocket)
@@ -191,6 +204,12 @@ export interface TeamUpdatedEvent {
     memberIds: string[];
 }
 
+export interface TeamMembersChangedEvent {
+    teamId: string;
+    addedMemberIds: string[];
+    removedMemberIds: string[];
+}
+
 // =================================================================
 // Client Actions (Действия, отправляемые клиентом на сервер)
 // =================================================================
@@ -210,6 +229,17 @@ export interface PlayerAction {
 export interface GameUpdatePayload<T> {
     actionType: string; 
     payload: T;
+    seq?: number; // порядковый номер события сессии (только для событий топика сессии)
+}
+
+/**
+ * События сессии, пропущенные клиентом, в порядке рассылки.
+ */
+export interface EventReplayDto {
+    sessionId: string;
+    fromSequence: number;
+    lastSequence: number;
+    events: GameUpdatePayload<any>[];
 }
 
 export interface CombatEndedEvent {